@@ -0,0 +1,36 @@
+package com.example.todoapp.benchmark;
+
+import com.example.todoapp.TodoAppApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application without a web server against a benchmark database, with SQL
+ * logging off so that log output is not what gets measured.
+ */
+final class BenchmarkApplication {
+    
+    private BenchmarkApplication() {}
+    
+    static ConfigurableApplicationContext start(Path database, String... properties) {
+        // Devtools would restart the context in a new class loader inside the benchmark fork
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        List<String> all = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:sqlite:file:" + database.toAbsolutePath(),
+                "spring.jpa.show-sql=false",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN",
+                "logging.level.org.hibernate.SQL=WARN",
+                "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"));
+        all.addAll(List.of(properties));
+        // Passed as command line arguments: builder properties are only defaults, which application.yml overrides
+        return new SpringApplicationBuilder(TodoAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(all.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+}
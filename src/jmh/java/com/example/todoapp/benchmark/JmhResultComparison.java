@@ -0,0 +1,101 @@
+package com.example.todoapp.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files and exits with status 1 if any benchmark present in both
+ * got slower than the baseline by more than the threshold percentage. Results are matched by
+ * benchmark name, mode and parameters; throughput modes regress when the score drops, the
+ * time-per-operation modes when it rises.
+ *
+ * <pre>java ... JmhResultComparison baseline.json target/jmh-result.json [thresholdPercent]</pre>
+ */
+public final class JmhResultComparison {
+    
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10.0;
+    
+    private JmhResultComparison() {}
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: JmhResultComparison <baseline.json> <current.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length == 3 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        Map<String, Score> baseline = read(Paths.get(args[0]));
+        Map<String, Score> current = read(Paths.get(args[1]));
+        
+        int regressions = 0;
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score before = baseline.get(entry.getKey());
+            Score after = entry.getValue();
+            if (before == null) {
+                System.out.printf("NEW        %s: %.3f %s%n", entry.getKey(), after.value, after.unit);
+                continue;
+            }
+            double change = after.slowdownPercent(before);
+            boolean regressed = change > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-10s %s: %.3f -> %.3f %s (%+.1f%% slower)%n", regressed ? "REGRESSED" : "ok",
+                    entry.getKey(), before.value, after.value, after.unit, change);
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) {
+                System.out.printf("MISSING    %s%n", missing);
+            }
+        }
+        System.out.printf("%d regression(s) above %.1f%%%n", regressions, threshold);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+    
+    // Keyed by "benchmark [mode] {param=value, ...}"
+    static Map<String, Score> read(Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file.toFile())) {
+            Map<String, String> params = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = result.path("params").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> param = fields.next();
+                params.put(param.getKey(), param.getValue().asText());
+            }
+            String mode = result.path("mode").asText();
+            String key = result.path("benchmark").asText() + " [" + mode + "]" + (params.isEmpty() ? "" : " " + params);
+            JsonNode metric = result.path("primaryMetric");
+            scores.put(key, new Score(metric.path("score").asDouble(), metric.path("scoreUnit").asText(),
+                    mode.equals("thrpt")));
+        }
+        return scores;
+    }
+    
+    static final class Score {
+        
+        final double value;
+        final String unit;
+        final boolean higherIsBetter;
+        
+        Score(double value, String unit, boolean higherIsBetter) {
+            this.value = value;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+        }
+        
+        // Positive when this score is worse than the baseline
+        double slowdownPercent(Score baseline) {
+            double ratio = higherIsBetter ? baseline.value / value : value / baseline.value;
+            return (ratio - 1) * 100;
+        }
+    }
+}
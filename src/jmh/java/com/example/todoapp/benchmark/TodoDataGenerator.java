@@ -0,0 +1,120 @@
+package com.example.todoapp.benchmark;
+
+import com.example.todoapp.models.TodoStatus;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic {@code todos} data for the benchmarks: the same row count and seed
+ * always produce the same rows, so runs on different machines or versions measure the same
+ * data. Databases are built once through the application's own migrations (so the FTS index,
+ * change log and id allocator are populated as in production) and cached under
+ * {@code target/benchmark-data}; each benchmark trial works on a fresh copy.
+ */
+public final class TodoDataGenerator {
+    
+    public static final long SEED = 20240101L;
+    
+    // Timestamps are spread around a fixed instant rather than now, so the data never drifts
+    public static final LocalDateTime ANCHOR = LocalDateTime.of(2025, 1, 1, 0, 0);
+    
+    static final Path DATA_DIRECTORY = Paths.get("target", "benchmark-data");
+    private static final int INSERT_CHUNK = 10_000;
+    
+    private static final String[] VERBS = {"Write", "Review", "Fix", "Plan", "Call", "Buy", "Clean", "Deploy",
+            "Refactor", "Test", "Email", "Schedule", "Draft", "Update", "Archive", "Prepare"};
+    private static final String[] NOUNS = {"report", "invoice", "release", "budget", "garden", "database",
+            "newsletter", "roadmap", "kitchen", "migration", "meeting", "proposal", "backlog", "dashboard",
+            "contract", "presentation"};
+    private static final String[] WORDS = {"alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf",
+            "hotel", "india", "juliet", "kilo", "lima", "mike", "november", "oscar", "papa", "quebec",
+            "romeo", "sierra", "tango", "uniform", "victor", "whiskey", "xray", "yankee", "zulu"};
+    
+    private TodoDataGenerator() {}
+    
+    /**
+     * A copy of the cached database with {@code rows} todos, generating the cache first if
+     * needed. The copy is deleted when the JVM exits.
+     */
+    public static Path freshCopy(int rows) {
+        try {
+            Path cached = cachedDatabase(rows);
+            Path copy = Files.createTempFile("todo-benchmark-" + rows + "-", ".db");
+            copy.toFile().deleteOnExit();
+            Files.copy(cached, copy, StandardCopyOption.REPLACE_EXISTING);
+            return copy;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    static synchronized Path cachedDatabase(int rows) throws IOException {
+        Path cached = DATA_DIRECTORY.resolve("todos-" + rows + "-" + SEED + ".db");
+        if (Files.exists(cached)) {
+            return cached;
+        }
+        Files.createDirectories(DATA_DIRECTORY);
+        // Built under a temporary name and renamed at the end, so an interrupted run leaves no half-filled cache
+        Path building = Files.createTempFile(DATA_DIRECTORY, "building-", ".db");
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start(building)) {
+            populate(context.getBean(JdbcTemplate.class), context.getBean(PlatformTransactionManager.class), rows);
+        }
+        Files.move(building, cached, StandardCopyOption.ATOMIC_MOVE);
+        return cached;
+    }
+    
+    // Inserted with plain JDBC batches; the migration triggers still fill the FTS index and change log
+    private static void populate(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, int rows) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int from = 1; from <= rows; from += INSERT_CHUNK) {
+            List<Object[]> chunk = new ArrayList<>(INSERT_CHUNK);
+            for (long id = from; id < from + INSERT_CHUNK && id <= rows; id++) {
+                chunk.add(row(id, random));
+            }
+            transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    "INSERT INTO todos (id, title, description, status, due_date, created_at, updated_at, version) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", chunk));
+        }
+        jdbcTemplate.update("UPDATE id_generators SET next_val = ? WHERE name = 'todos'", rows + 1L);
+        // Everything into the main file, which is all that gets copied
+        jdbcTemplate.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+    }
+    
+    private static Object[] row(long id, SplittableRandom random) {
+        String title = VERBS[random.nextInt(VERBS.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " " + id;
+        StringBuilder description = new StringBuilder();
+        int words = 4 + random.nextInt(12);
+        for (int i = 0; i < words; i++) {
+            description.append(i == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        // 40% pending, 25% in progress, 30% completed, 5% cancelled
+        int roll = random.nextInt(100);
+        TodoStatus status = roll < 40 ? TodoStatus.PENDING : roll < 65 ? TodoStatus.IN_PROGRESS
+                : roll < 95 ? TodoStatus.COMPLETED : TodoStatus.CANCELLED;
+        LocalDateTime createdAt = ANCHOR.minusMinutes(random.nextInt(365 * 24 * 60));
+        LocalDateTime updatedAt = createdAt.plusMinutes(random.nextInt(30 * 24 * 60));
+        // A third of the todos have a due date, within half a year either side of the anchor
+        LocalDateTime dueDate = random.nextInt(3) == 0 ? ANCHOR.plusMinutes(random.nextInt(-182 * 24 * 60, 182 * 24 * 60)) : null;
+        return new Object[]{id, title, description.toString(), status.name(), timestamp(dueDate),
+                timestamp(createdAt), timestamp(updatedAt), (long) random.nextInt(5)};
+    }
+    
+    private static Timestamp timestamp(LocalDateTime dateTime) {
+        return dateTime == null ? null : Timestamp.valueOf(dateTime);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.todoapp.benchmark;
+
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.models.Todo;
+import com.example.todoapp.models.TodoStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copying a page of {@code Todo} entities into {@code TodoResponseDTO}s, as the write
+ * paths do before publishing and returning them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoMappingBenchmark {
+    
+    @Param({"50", "500"})
+    public int pageSize;
+    
+    private List<Todo> todos;
+    
+    @Setup
+    public void createTodos() {
+        SplittableRandom random = new SplittableRandom(TodoDataGenerator.SEED);
+        todos = new ArrayList<>(pageSize);
+        for (long id = 1; id <= pageSize; id++) {
+            Todo todo = new Todo("Todo " + id, "Description of todo " + id,
+                    TodoStatus.values()[random.nextInt(TodoStatus.values().length)]);
+            todo.setId(id);
+            todo.setDueDate(TodoDataGenerator.ANCHOR.plusHours(random.nextInt(1000)));
+            todo.setCreatedAt(TodoDataGenerator.ANCHOR.minusHours(random.nextInt(1000)));
+            todo.setUpdatedAt(TodoDataGenerator.ANCHOR);
+            todo.setVersion((long) random.nextInt(5));
+            todos.add(todo);
+        }
+    }
+    
+    @Benchmark
+    public List<TodoResponseDTO> entitiesToDtos() {
+        List<TodoResponseDTO> dtos = new ArrayList<>(todos.size());
+        for (Todo todo : todos) {
+            dtos.add(new TodoResponseDTO(todo));
+        }
+        return dtos;
+    }
+}
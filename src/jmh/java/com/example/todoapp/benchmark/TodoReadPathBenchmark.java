@@ -0,0 +1,95 @@
+package com.example.todoapp.benchmark;
+
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.models.Todo;
+import com.example.todoapp.repository.TodoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Reading one large page of todos as managed entities copied into DTOs, as the read methods
+ * did before, against the constructor-expression projection they use now. Run it with
+ * {@code -prof gc} to compare the allocation per page as well as the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TodoReadPathBenchmark {
+    
+    @Param({"10000", "50000"})
+    public int rows;
+    
+    private ConfigurableApplicationContext context;
+    private TodoRepository todoRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkApplication.start(TodoDataGenerator.freshCopy(rows), "todo.cache.enabled=false");
+        todoRepository = context.getBean(TodoRepository.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+    
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+    
+    @Benchmark
+    public List<TodoResponseDTO> entitiesInReadWriteSession() {
+        return readWrite.execute(status -> loadEntities());
+    }
+    
+    // Hibernate keeps no dirty-checking snapshots in a read-only session, but still builds the entities
+    @Benchmark
+    public List<TodoResponseDTO> entitiesInReadOnlySession() {
+        return readOnly.execute(status -> loadEntities());
+    }
+    
+    @Benchmark
+    public List<TodoResponseDTO> dtoProjection() {
+        return readOnly.execute(status -> todoRepository.findDtosAfter(0L, Limit.of(rows)));
+    }
+    
+    // What the read methods did before: load managed entities, then copy each into a DTO
+    private List<TodoResponseDTO> loadEntities() {
+        return entityManager.createQuery("SELECT t FROM Todo t WHERE t.id > :afterId ORDER BY t.id", Todo.class)
+                .setParameter("afterId", 0L)
+                .setMaxResults(rows)
+                .getResultList()
+                .stream()
+                .map(TodoResponseDTO::new)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.todoapp.benchmark;
+
+import com.example.todoapp.config.TodoCleanupProperties;
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.models.Todo;
+import com.example.todoapp.models.TodoStatus;
+import com.example.todoapp.repository.TodoRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Every {@code TodoRepository} finder against a real SQLite file holding {@code rows}
+ * generated todos. The older finders return whole result sets as entities, so at a million
+ * rows some of them take seconds per call; that cost is what they measure.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TodoRepositoryBenchmark {
+    
+    private static final LocalDateTime ANCHOR = TodoDataGenerator.ANCHOR;
+    
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+    
+    private ConfigurableApplicationContext context;
+    private TodoRepository todoRepository;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate rolledBack;
+    private SplittableRandom random;
+    
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkApplication.start(TodoDataGenerator.freshCopy(rows));
+        todoRepository = context.getBean(TodoRepository.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        rolledBack = new TransactionTemplate(transactionManager);
+        random = new SplittableRandom(TodoDataGenerator.SEED);
+    }
+    
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+    
+    private long randomId() {
+        return 1 + random.nextInt(rows);
+    }
+    
+    private List<Long> randomIds(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(randomId());
+        }
+        return ids;
+    }
+    
+    @Benchmark
+    public List<Todo> findByStatus() {
+        return todoRepository.findByStatus(TodoStatus.CANCELLED);
+    }
+    
+    @Benchmark
+    public List<Todo> findByTitleContainingIgnoreCase() {
+        return todoRepository.findByTitleContainingIgnoreCase("report 12");
+    }
+    
+    @Benchmark
+    public List<Todo> findByDueDateBefore() {
+        return todoRepository.findByDueDateBefore(ANCHOR.minusDays(150));
+    }
+    
+    @Benchmark
+    public List<Todo> findByDueDateAfter() {
+        return todoRepository.findByDueDateAfter(ANCHOR.plusDays(150));
+    }
+    
+    @Benchmark
+    public List<Todo> findByCreatedAtBetween() {
+        return todoRepository.findByCreatedAtBetween(ANCHOR.minusDays(31), ANCHOR.minusDays(30));
+    }
+    
+    @Benchmark
+    public List<Todo> findOverdueTodos() {
+        return todoRepository.findOverdueTodos(ANCHOR.minusDays(150), TodoStatus.COMPLETED);
+    }
+    
+    @Benchmark
+    public long countByStatus() {
+        return todoRepository.countByStatus(TodoStatus.PENDING);
+    }
+    
+    @Benchmark
+    public Optional<TodoResponseDTO> findDtoById() {
+        return todoRepository.findDtoById(randomId());
+    }
+    
+    @Benchmark
+    public Optional<Long> findVersionById() {
+        return todoRepository.findVersionById(randomId());
+    }
+    
+    @Benchmark
+    public List<TodoResponseDTO> findDtosByIdIn() {
+        return todoRepository.findDtosByIdIn(randomIds(50));
+    }
+    
+    @Benchmark
+    public List<TodoResponseDTO> findDtosByDueDateNotNullAndStatusNot() {
+        return todoRepository.findDtosByDueDateNotNullAndStatusNot(TodoStatus.COMPLETED);
+    }
+    
+    @Benchmark
+    public List<TodoResponseDTO> findDtosAfter() {
+        return todoRepository.findDtosAfter(rows / 2L, Limit.of(51));
+    }
+    
+    @Benchmark
+    public List<TodoResponseDTO> findDtosByStatusAfter() {
+        return todoRepository.findDtosByStatusAfter(TodoStatus.IN_PROGRESS, rows / 2L, Limit.of(51));
+    }
+    
+    @Benchmark
+    public List<TodoResponseDTO> findDtosByTitleContainingAfter() {
+        return todoRepository.findDtosByTitleContainingAfter("report 12", 0L, Limit.of(51));
+    }
+    
+    @Benchmark
+    public List<TodoResponseDTO> findDtosByCreatedAtBetweenAfter() {
+        return todoRepository.findDtosByCreatedAtBetweenAfter(ANCHOR.minusDays(60), ANCHOR.minusDays(30),
+                0L, Limit.of(51));
+    }
+    
+    // The whole table, as an export reads it
+    @Benchmark
+    public void streamAllDtos(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<TodoResponseDTO> todos = todoRepository.streamAllDtos()) {
+                todos.forEach(blackhole::consume);
+            }
+        });
+    }
+    
+    @Benchmark
+    public List<TodoRepository.IdAndStatus> findStatusesByIdIn() {
+        return todoRepository.findStatusesByIdIn(randomIds(50));
+    }
+    
+    @Benchmark
+    public List<TodoRepository.StatusCount> countGroupedByStatus() {
+        return todoRepository.countGroupedByStatus();
+    }
+    
+    @Benchmark
+    public long countByStatusAndUpdatedAtBefore() {
+        return todoRepository.countByStatusAndUpdatedAtBefore(TodoStatus.COMPLETED, ANCHOR.minusDays(330));
+    }
+    
+    // One cleanup chunk; rolled back, so every invocation deletes the same rows
+    @Benchmark
+    public int deleteChunkByStatusAndUpdatedAtBefore() {
+        return rolledBack.execute(status -> {
+            status.setRollbackOnly();
+            return todoRepository.deleteChunkByStatusAndUpdatedAtBefore(TodoStatus.COMPLETED, ANCHOR.minusDays(330),
+                    TodoCleanupProperties.DEFAULT_CHUNK_SIZE);
+        });
+    }
+}
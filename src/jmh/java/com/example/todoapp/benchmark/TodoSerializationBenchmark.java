@@ -0,0 +1,86 @@
+package com.example.todoapp.benchmark;
+
+import com.example.todoapp.config.TodoResponseSerializer;
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.models.TodoStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing a list response to JSON bytes with an ObjectMapper configured the way Spring
+ * Boot configures the one behind the REST endpoints (JSR-310 dates as ISO strings), with
+ * Jackson's bean serializer and with {@link TodoResponseSerializer}. Setup fails unless both
+ * produce the same bytes for the page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoSerializationBenchmark {
+    
+    @Param({"50", "500"})
+    public int pageSize;
+    
+    private ObjectWriter writer;
+    private ObjectWriter fastWriter;
+    private List<TodoResponseDTO> page;
+    
+    @Setup
+    public void createPage() throws JsonProcessingException {
+        writer = listWriter(Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build());
+        fastWriter = listWriter(Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(TodoResponseSerializer.module()).build());
+        SplittableRandom random = new SplittableRandom(TodoDataGenerator.SEED);
+        page = new ArrayList<>(pageSize);
+        for (long id = 1; id <= pageSize; id++) {
+            boolean due = random.nextInt(3) == 0;
+            page.add(new TodoResponseDTO(id, "Review report " + id, "alpha bravo charlie delta echo " + id,
+                    TodoStatus.values()[random.nextInt(TodoStatus.values().length)],
+                    due ? TodoDataGenerator.ANCHOR.plusMinutes(random.nextInt(100_000)) : null,
+                    TodoDataGenerator.ANCHOR.minusMinutes(random.nextInt(100_000)),
+                    TodoDataGenerator.ANCHOR, (long) random.nextInt(5)));
+        }
+        if (!Arrays.equals(writer.writeValueAsBytes(page), fastWriter.writeValueAsBytes(page))) {
+            throw new IllegalStateException("TodoResponseSerializer output differs from the bean serializer");
+        }
+    }
+    
+    @Benchmark
+    public byte[] listResponse() throws JsonProcessingException {
+        return writer.writeValueAsBytes(page);
+    }
+    
+    @Benchmark
+    public byte[] listResponseFast() throws JsonProcessingException {
+        return fastWriter.writeValueAsBytes(page);
+    }
+    
+    private static ObjectWriter listWriter(ObjectMapper objectMapper) {
+        return objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, TodoResponseDTO.class));
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.todoapp.benchmark;
+
+import com.example.todoapp.dtos.CursorPage;
+import com.example.todoapp.dtos.TodoChangesDTO;
+import com.example.todoapp.dtos.TodoRequestDTO;
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.models.TodoStatus;
+import com.example.todoapp.service.TodoCursor;
+import com.example.todoapp.service.TodoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code TodoServiceImpl} against a real SQLite file holding {@code rows} generated todos.
+ * The todo cache is off so that reads by id reach the database; writes go to a copy of the
+ * generated database made for each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TodoServiceBenchmark {
+    
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+    
+    private ConfigurableApplicationContext context;
+    private TodoService todoService;
+    private String middleCursor;
+    
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkApplication.start(TodoDataGenerator.freshCopy(rows), "todo.cache.enabled=false");
+        todoService = context.getBean(TodoService.class);
+        middleCursor = TodoCursor.encode(rows / 2L);
+    }
+    
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+    
+    // Each benchmark thread draws its own reproducible sequence of ids
+    @State(Scope.Thread)
+    public static class Ids {
+        
+        private SplittableRandom random;
+        private int rows;
+        
+        @Setup(Level.Trial)
+        public void seed(TodoServiceBenchmark benchmark) {
+            random = new SplittableRandom(TodoDataGenerator.SEED);
+            rows = benchmark.rows;
+        }
+        
+        long next() {
+            return 1 + random.nextInt(rows);
+        }
+        
+        List<Long> next(int count) {
+            List<Long> ids = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ids.add(next());
+            }
+            return ids;
+        }
+    }
+    
+    @Benchmark
+    public TodoResponseDTO getTodoById(Ids ids) {
+        return todoService.getTodoById(ids.next());
+    }
+    
+    @Benchmark
+    public long getTodoVersion(Ids ids) {
+        return todoService.getTodoVersion(ids.next());
+    }
+    
+    @Benchmark
+    public List<TodoResponseDTO> getTodosByIds(Ids ids) {
+        return todoService.getTodosByIds(ids.next(50));
+    }
+    
+    @Benchmark
+    public CursorPage<TodoResponseDTO> getAllTodosFirstPage() {
+        return todoService.getAllTodos(null, 50);
+    }
+    
+    @Benchmark
+    public CursorPage<TodoResponseDTO> getAllTodosMiddlePage() {
+        return todoService.getAllTodos(middleCursor, 50);
+    }
+    
+    @Benchmark
+    public CursorPage<TodoResponseDTO> getTodosByStatus() {
+        return todoService.getTodosByStatus(TodoStatus.IN_PROGRESS, middleCursor, 50);
+    }
+    
+    @Benchmark
+    public CursorPage<TodoResponseDTO> searchTodos() {
+        return todoService.searchTodos("review alpha", null, 50);
+    }
+    
+    @Benchmark
+    public CursorPage<TodoResponseDTO> getTodosCreatedBetween() {
+        return todoService.getTodosCreatedBetween(TodoDataGenerator.ANCHOR.minusDays(60),
+                TodoDataGenerator.ANCHOR.minusDays(30), null, 50);
+    }
+    
+    @Benchmark
+    public CursorPage<TodoResponseDTO> getOverdueTodos() {
+        return todoService.getOverdueTodos(null, 50);
+    }
+    
+    // The generated rows are change log versions 1..rows
+    @Benchmark
+    public TodoChangesDTO getChangesSince() {
+        return todoService.getChangesSince(rows - 500L, 500);
+    }
+    
+    @Benchmark
+    public Map<TodoStatus, Long> countTodos() {
+        return todoService.countTodos();
+    }
+    
+    @Benchmark
+    public TodoResponseDTO createTodo() {
+        return todoService.createTodo(new TodoRequestDTO("Benchmark todo", "Created by TodoServiceBenchmark",
+                TodoStatus.PENDING, TodoDataGenerator.ANCHOR.plusDays(7)));
+    }
+    
+    @Benchmark
+    public TodoResponseDTO updateTodo(Ids ids) {
+        return todoService.updateTodo(ids.next(), new TodoRequestDTO("Updated by TodoServiceBenchmark", null,
+                TodoStatus.IN_PROGRESS, null), null);
+    }
+}
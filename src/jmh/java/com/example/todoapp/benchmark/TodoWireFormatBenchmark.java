@@ -0,0 +1,120 @@
+package com.example.todoapp.benchmark;
+
+import com.example.todoapp.config.TodoProtobufCodec;
+import com.example.todoapp.config.TodoResponseSerializer;
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.models.TodoStatus;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding and decoding a list response in each representation the endpoints offer, with the
+ * mappers set up as the application sets them up. The payload size of each, plain and gzipped
+ * (as {@code server.compression} sends it), is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoWireFormatBenchmark {
+    
+    @Param({"json", "cbor", "smile", "protobuf"})
+    public String format;
+    
+    @Param({"50", "500"})
+    public int pageSize;
+    
+    // Null for protobuf, which goes through TodoProtobufCodec
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    
+    private List<TodoResponseDTO> page;
+    private byte[] encoded;
+    
+    @Setup
+    public void createPage() throws IOException {
+        Jackson2ObjectMapperBuilder builder = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile();
+            case "protobuf" -> null;
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+        if (builder != null) {
+            ObjectMapper objectMapper = builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                    .modulesToInstall(TodoResponseSerializer.module()).build();
+            JavaType listType = objectMapper.getTypeFactory().constructCollectionType(List.class, TodoResponseDTO.class);
+            writer = objectMapper.writerFor(listType);
+            reader = objectMapper.readerFor(listType);
+        }
+        SplittableRandom random = new SplittableRandom(TodoDataGenerator.SEED);
+        page = new ArrayList<>(pageSize);
+        for (long id = 1; id <= pageSize; id++) {
+            boolean due = random.nextInt(3) == 0;
+            page.add(new TodoResponseDTO(id, "Review report " + id, "alpha bravo charlie delta echo " + id,
+                    TodoStatus.values()[random.nextInt(TodoStatus.values().length)],
+                    due ? TodoDataGenerator.ANCHOR.plusMinutes(random.nextInt(100_000)) : null,
+                    TodoDataGenerator.ANCHOR.minusMinutes(random.nextInt(100_000)),
+                    TodoDataGenerator.ANCHOR, (long) random.nextInt(5)));
+        }
+        encoded = encode();
+        List<TodoResponseDTO> decoded = decode();
+        TodoResponseDTO last = decoded.get(decoded.size() - 1);
+        if (decoded.size() != pageSize || !page.get(pageSize - 1).getCreatedAt().equals(last.getCreatedAt())) {
+            throw new IllegalStateException(format + " did not read back the page it wrote");
+        }
+        System.out.printf("%n%s, %d todos: %d bytes, %d gzipped%n", format, pageSize, encoded.length, gzippedSize(encoded));
+    }
+    
+    @Benchmark
+    public byte[] encode() throws IOException {
+        if (writer == null) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            TodoProtobufCodec.writeTodos(page, body);
+            return body.toByteArray();
+        }
+        return writer.writeValueAsBytes(page);
+    }
+    
+    @Benchmark
+    public List<TodoResponseDTO> decode() throws IOException {
+        if (reader == null) {
+            return TodoProtobufCodec.readTodos(new ByteArrayInputStream(encoded));
+        }
+        return reader.readValue(encoded);
+    }
+    
+    private static int gzippedSize(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        return compressed.size();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.todoapp.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency histograms for one load test run. Latencies are recorded in microseconds
+ * from the moment a request was scheduled to start, not from when it was sent, so a stalled server
+ * is charged for every request that queued up behind the stall.
+ */
+final class LatencyReport {
+    
+    private static final double MICROS_PER_MILLI = 1000.0;
+    
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    
+    LatencyReport(List<String> names) {
+        names.forEach(name -> endpoints.put(name, new Endpoint()));
+    }
+    
+    // Called concurrently by the client threads
+    void record(String name, long latencyNanos, int status) {
+        Endpoint endpoint = endpoints.get(name);
+        endpoint.histogram.recordValue(Math.max(1, latencyNanos / 1000));
+        if (status >= 400) {
+            endpoint.errors.increment();
+        }
+    }
+    
+    // A request that got no response at all; it has no latency to record
+    void failed(String name) {
+        endpoints.get(name).failures.increment();
+    }
+    
+    Histogram total() {
+        Histogram total = new Histogram(3);
+        endpoints.values().forEach(endpoint -> total.add(endpoint.histogram));
+        return total;
+    }
+    
+    long errors() {
+        return endpoints.values().stream().mapToLong(endpoint -> endpoint.errors.sum() + endpoint.failures.sum()).sum();
+    }
+    
+    /**
+     * Prints the summary table and writes it to {@code summary.txt} in the directory, along with
+     * an HdrHistogram percentile distribution ({@code <endpoint>.hgrm}, in milliseconds) per
+     * endpoint that can be plotted or compared across runs.
+     */
+    void write(Path directory, String header, double seconds) throws IOException {
+        Files.createDirectories(directory);
+        try (PrintStream summary = new PrintStream(Files.newOutputStream(directory.resolve("summary.txt")), true)) {
+            print(summary, header, seconds);
+        }
+        print(System.out, header, seconds);
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            writeDistribution(directory.resolve(entry.getKey() + ".hgrm"), entry.getValue().histogram);
+        }
+        writeDistribution(directory.resolve("all.hgrm"), total());
+    }
+    
+    private void print(PrintStream out, String header, double seconds) {
+        out.println(header);
+        out.printf("%-20s %9s %8s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            Endpoint endpoint = entry.getValue();
+            printRow(out, entry.getKey(), endpoint.histogram, endpoint.errors.sum() + endpoint.failures.sum(), seconds);
+        }
+        printRow(out, "all", total(), errors(), seconds);
+    }
+    
+    private static void printRow(PrintStream out, String name, Histogram histogram, long errors, double seconds) {
+        out.printf("%-20s %,9d %,8.1f %,8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, histogram.getTotalCount(), histogram.getTotalCount() / seconds, errors,
+                millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / MICROS_PER_MILLI);
+    }
+    
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+    
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), true)) {
+            histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+    
+    private static final class Endpoint {
+        
+        // Auto-resizing, so a multi-second stall is recorded rather than rejected
+        final ConcurrentHistogram histogram = new ConcurrentHistogram(3);
+        final LongAdder errors = new LongAdder();
+        final LongAdder failures = new LongAdder();
+    }
+}
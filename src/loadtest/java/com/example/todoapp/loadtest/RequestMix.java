@@ -0,0 +1,210 @@
+package com.example.todoapp.loadtest;
+
+import com.example.todoapp.models.TodoStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A weighted mix of HTTP requests, read from a text file with one request per line:
+ * <pre>name  weight  METHOD  /path?query  [JSON body]</pre>
+ * Blank lines and lines starting with {@code #} are ignored, and requests with the same name share
+ * a latency histogram. These placeholders are filled in for each request:
+ * <ul>
+ *   <li>{@code {id}} - the id of a random seeded todo, {@code {ids}} - ten of them, comma separated</li>
+ *   <li>{@code {status}} - a random {@link TodoStatus}</li>
+ *   <li>{@code {word}} - a random word from the seeded descriptions, so searches find something</li>
+ *   <li>{@code {n}} - the request's sequence number, unique within a run</li>
+ *   <li>{@code {now}}, {@code {now-P7D}}, {@code {now+PT1H}} - an ISO local date-time relative to now</li>
+ * </ul>
+ * PATCH is not supported: {@link java.net.HttpURLConnection} rejects it.
+ */
+final class RequestMix {
+    
+    static final String DEFAULT = "classpath:default-mix.txt";
+    
+    static final String[] WORDS = {"alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf",
+            "hotel", "india", "juliet", "kilo", "lima", "mike", "november", "oscar", "papa", "quebec",
+            "romeo", "sierra", "tango", "uniform", "victor", "whiskey", "xray", "yankee", "zulu"};
+    
+    private static final Set<String> METHODS = Set.of("GET", "POST", "PUT", "DELETE");
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{(id|ids|status|word|n|now)([+-]P[0-9A-Za-z.]+)?}");
+    private static final int IDS_PER_REQUEST = 10;
+    private static final TodoStatus[] STATUSES = TodoStatus.values();
+    
+    private final String source;
+    private final List<Template> templates;
+    private final int[] cumulativeWeights;
+    
+    private RequestMix(String source, List<Template> templates) {
+        this.source = source;
+        this.templates = templates;
+        this.cumulativeWeights = new int[templates.size()];
+        int total = 0;
+        for (int i = 0; i < templates.size(); i++) {
+            total += templates.get(i).weight;
+            cumulativeWeights[i] = total;
+        }
+    }
+    
+    // A file path, or classpath:<resource>
+    static RequestMix load(String location) {
+        try {
+            if (location.startsWith("classpath:")) {
+                String resource = location.substring("classpath:".length());
+                try (InputStream in = RequestMix.class.getClassLoader().getResourceAsStream(resource)) {
+                    if (in == null) {
+                        throw new IllegalArgumentException("No request mix on the classpath at " + resource);
+                    }
+                    return parse(location, new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList());
+                }
+            }
+            return parse(location, Files.readAllLines(Paths.get(location)));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read request mix " + location, ex);
+        }
+    }
+    
+    static RequestMix parse(String source, List<String> lines) {
+        List<Template> templates = new ArrayList<>();
+        for (int number = 1; number <= lines.size(); number++) {
+            String line = lines.get(number - 1).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\s+", 5);
+            if (fields.length < 4) {
+                throw new IllegalArgumentException(source + ":" + number + ": expected 'name weight METHOD path [body]'");
+            }
+            int weight;
+            try {
+                weight = Integer.parseInt(fields[1]);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException(source + ":" + number + ": weight is not a number: " + fields[1]);
+            }
+            String method = fields[2].toUpperCase();
+            if (!METHODS.contains(method)) {
+                throw new IllegalArgumentException(source + ":" + number + ": unsupported method " + fields[2]);
+            }
+            if (weight > 0) {
+                templates.add(new Template(fields[0], weight, method, fields[3], fields.length == 5 ? fields[4] : null));
+            }
+        }
+        if (templates.isEmpty()) {
+            throw new IllegalArgumentException(source + ": no requests with a positive weight");
+        }
+        return new RequestMix(source, templates);
+    }
+    
+    String source() {
+        return source;
+    }
+    
+    // Distinct request names, in file order
+    List<String> names() {
+        Set<String> names = new LinkedHashSet<>();
+        templates.forEach(template -> names.add(template.name));
+        return new ArrayList<>(names);
+    }
+    
+    /**
+     * Picks a request by weight and fills in its placeholders. Called from the dispatcher thread
+     * only, so a given seed replays the same sequence of requests.
+     */
+    Request next(SplittableRandom random, long sequence, long[] ids) {
+        int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = 0;
+        while (cumulativeWeights[index] <= roll) {
+            index++;
+        }
+        Template template = templates.get(index);
+        return new Request(template.name, template.method,
+                fill(template.path, random, sequence, ids),
+                template.body == null ? null : fill(template.body, random, sequence, ids));
+    }
+    
+    private static String fill(String text, SplittableRandom random, long sequence, long[] ids) {
+        Matcher matcher = PLACEHOLDER.matcher(text);
+        if (!matcher.find()) {
+            return text;
+        }
+        StringBuilder filled = new StringBuilder();
+        do {
+            String value = switch (matcher.group(1)) {
+                case "id" -> String.valueOf(ids[random.nextInt(ids.length)]);
+                case "ids" -> randomIds(random, ids);
+                case "status" -> STATUSES[random.nextInt(STATUSES.length)].name();
+                case "word" -> WORDS[random.nextInt(WORDS.length)];
+                case "n" -> String.valueOf(sequence);
+                default -> now(matcher.group(2));
+            };
+            matcher.appendReplacement(filled, Matcher.quoteReplacement(value));
+        } while (matcher.find());
+        matcher.appendTail(filled);
+        return filled.toString();
+    }
+    
+    private static String randomIds(SplittableRandom random, long[] ids) {
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < IDS_PER_REQUEST; i++) {
+            joined.append(i == 0 ? "" : ",").append(ids[random.nextInt(ids.length)]);
+        }
+        return joined.toString();
+    }
+    
+    private static String now(String offset) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        if (offset != null) {
+            Duration duration = Duration.parse(offset.substring(1));
+            now = offset.startsWith("-") ? now.minus(duration) : now.plus(duration);
+        }
+        return now.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+    
+    private static final class Template {
+        
+        final String name;
+        final int weight;
+        final String method;
+        final String path;
+        final String body;
+        
+        Template(String name, int weight, String method, String path, String body) {
+            this.name = name;
+            this.weight = weight;
+            this.method = method;
+            this.path = path;
+            this.body = body;
+        }
+    }
+    
+    static final class Request {
+        
+        final String name;
+        final String method;
+        final String path;
+        final String body;
+        
+        Request(String name, String method, String path, String body) {
+            this.name = name;
+            this.method = method;
+            this.path = path;
+            this.body = body;
+        }
+    }
+}
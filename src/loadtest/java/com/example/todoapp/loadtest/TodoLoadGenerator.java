@@ -0,0 +1,251 @@
+package com.example.todoapp.loadtest;
+
+import com.example.todoapp.TodoAppApplication;
+import com.example.todoapp.dtos.TodoBatchRequestDTO;
+import com.example.todoapp.dtos.TodoRequestDTO;
+import com.example.todoapp.models.TodoStatus;
+import com.example.todoapp.repository.TodoShards;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop HTTP load test: starts the application on a local SQLite file, seeds it through the
+ * batch API, then replays a {@link RequestMix} at a fixed rate and reports per-endpoint latency
+ * percentiles ({@link LatencyReport}).
+ * <p>
+ * Requests are started on schedule whether or not earlier ones have answered, each on its own
+ * virtual thread, and latency is measured from the scheduled start. A closed-loop client would
+ * instead wait out a slow response before sending the next request, leaving out exactly the
+ * requests that would have queued behind it (coordinated omission).
+ * <p>
+ * Every argument is also passed to the application, so a run can switch modes with the usual
+ * properties ({@code --todo.cache.enabled=false}). The load test's own settings, with defaults:
+ * <pre>
+ * --loadtest.rate=200          requests per second
+ * --loadtest.warmup=10s        run before measuring, not recorded
+ * --loadtest.duration=60s      measured
+ * --loadtest.todos=10000       seeded todos ({id} draws from these)
+ * --loadtest.mix=classpath:default-mix.txt
+ * --loadtest.seed=20240101     fixes the request sequence
+ * --loadtest.database=...      reuse a database file; a fresh temporary one by default
+ * --loadtest.label=default     results go to target/loadtest/&lt;label&gt;
+ * </pre>
+ */
+public final class TodoLoadGenerator {
+    
+    private static final int SEED_BATCH_SIZE = TodoBatchRequestDTO.MAX_BATCH_SIZE;
+    private static final String[] VERBS = {"Write", "Review", "Fix", "Plan", "Call", "Buy", "Clean", "Deploy"};
+    private static final String[] NOUNS = {"report", "invoice", "release", "budget", "garden", "database",
+            "newsletter", "roadmap"};
+    
+    private TodoLoadGenerator() {}
+    
+    public static void main(String[] args) throws Exception {
+        SimpleCommandLinePropertySource options = new SimpleCommandLinePropertySource(args);
+        double rate = Double.parseDouble(option(options, "loadtest.rate", "200"));
+        Duration warmup = DurationStyle.detectAndParse(option(options, "loadtest.warmup", "10s"));
+        Duration duration = DurationStyle.detectAndParse(option(options, "loadtest.duration", "60s"));
+        int todos = Integer.parseInt(option(options, "loadtest.todos", "10000"));
+        long seed = Long.parseLong(option(options, "loadtest.seed", "20240101"));
+        String label = option(options, "loadtest.label", "default");
+        RequestMix mix = RequestMix.load(option(options, "loadtest.mix", RequestMix.DEFAULT));
+        Path database = database(options.getProperty("loadtest.database"));
+        
+        ConfigurableApplicationContext context = start(database, args);
+        try {
+            String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            TodoShards todoShards = context.getBean(TodoShards.class);
+            seed(ids(jdbcTemplate, todoShards).length, context.getBean(ObjectMapper.class), baseUrl, todos,
+                    new SplittableRandom(seed));
+            long[] ids = ids(jdbcTemplate, todoShards);
+            if (ids.length == 0) {
+                throw new IllegalStateException("No todos to run against; set --loadtest.todos above 0");
+            }
+            
+            LatencyReport report = new LatencyReport(mix.names());
+            Run run = run(baseUrl, mix, ids, report, rate, warmup, duration, new SplittableRandom(seed));
+            String header = String.format("%s: %,.0f req/s scheduled for %ds after %ds warm-up, %,d todos, mix %s%n" +
+                            "arguments: %s%n" +
+                            "dispatch fell behind schedule by up to %.1f ms, at most %,d requests in flight",
+                    label, rate, duration.toSeconds(), warmup.toSeconds(), ids.length, mix.source(),
+                    String.join(" ", args), run.maxDispatchLagNanos / 1e6, run.maxInFlight);
+            report.write(Paths.get("target", "loadtest", label), header, duration.toNanos() / 1e9);
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+    
+    private static String option(SimpleCommandLinePropertySource options, String name, String defaultValue) {
+        String value = options.getProperty(name);
+        return value == null ? defaultValue : value;
+    }
+    
+    private static Path database(String location) throws IOException {
+        if (location != null) {
+            return Paths.get(location);
+        }
+        Path database = Files.createTempFile("todo-loadtest-", ".db");
+        database.toFile().deleteOnExit();
+        return database;
+    }
+    
+    // SQL logging would be what gets measured; arguments given on the command line take precedence
+    private static ConfigurableApplicationContext start(Path database, String[] args) {
+        // Devtools would restart the application in a new class loader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        List<String> all = new ArrayList<>();
+        for (String property : List.of(
+                "server.port=0",
+                "spring.datasource.url=jdbc:sqlite:file:" + database.toAbsolutePath(),
+                "spring.jpa.show-sql=false",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN",
+                "logging.level.org.hibernate.SQL=WARN",
+                "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN")) {
+            String name = property.substring(0, property.indexOf('='));
+            if (Arrays.stream(args).noneMatch(arg -> arg.startsWith("--" + name + "="))) {
+                all.add("--" + property);
+            }
+        }
+        all.addAll(List.of(args));
+        // Command line arguments, so they override application.yml rather than default beneath it
+        return new SpringApplicationBuilder(TodoAppApplication.class).run(all.toArray(String[]::new));
+    }
+    
+    // Every shard's, since the JdbcTemplate alone would see only the default shard
+    private static long[] ids(JdbcTemplate jdbcTemplate, TodoShards todoShards) {
+        return todoShards.fanOut(shard -> jdbcTemplate.queryForList("SELECT id FROM todos", Long.class)).stream()
+                .flatMap(List::stream)
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+    
+    // Through POST /api/todos/batch, so the counters, due index and search index see the todos too
+    private static void seed(int existing, ObjectMapper objectMapper, String baseUrl, int todos,
+            SplittableRandom random) throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        for (int seeded = existing; seeded < todos; seeded += SEED_BATCH_SIZE) {
+            List<TodoRequestDTO> batch = new ArrayList<>(SEED_BATCH_SIZE);
+            for (int i = seeded; i < Math.min(todos, seeded + SEED_BATCH_SIZE); i++) {
+                batch.add(todo(i, now, random));
+            }
+            int status = send(URI.create(baseUrl + "/api/todos/batch"), "POST",
+                    objectMapper.writeValueAsString(new TodoBatchRequestDTO<>(batch)));
+            if (status != 200 && status != 201) {
+                throw new IllegalStateException("Seeding failed with HTTP " + status);
+            }
+        }
+    }
+    
+    private static TodoRequestDTO todo(int index, LocalDateTime now, SplittableRandom random) {
+        String title = VERBS[random.nextInt(VERBS.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " " + index;
+        StringBuilder description = new StringBuilder();
+        int words = 4 + random.nextInt(12);
+        for (int i = 0; i < words; i++) {
+            description.append(i == 0 ? "" : " ").append(RequestMix.WORDS[random.nextInt(RequestMix.WORDS.length)]);
+        }
+        // 40% pending, 25% in progress, 30% completed, 5% cancelled
+        int roll = random.nextInt(100);
+        TodoStatus status = roll < 40 ? TodoStatus.PENDING : roll < 65 ? TodoStatus.IN_PROGRESS
+                : roll < 95 ? TodoStatus.COMPLETED : TodoStatus.CANCELLED;
+        // A third have a due date within a month either side of now, so overdue and due-soon return todos
+        LocalDateTime dueDate = random.nextInt(3) == 0 ? now.plusMinutes(random.nextInt(-30 * 24 * 60, 30 * 24 * 60)) : null;
+        return new TodoRequestDTO(title, description.toString(), status, dueDate);
+    }
+    
+    private static Run run(String baseUrl, RequestMix mix, long[] ids, LatencyReport report, double rate,
+            Duration warmup, Duration duration, SplittableRandom random) {
+        System.setProperty("http.maxConnections", "1000");
+        Run run = new Run();
+        AtomicInteger inFlight = new AtomicInteger();
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long until = measureFrom + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long sequence = 0; ; sequence++) {
+                long scheduled = start + (long) (sequence * 1e9 / rate);
+                if (scheduled >= until) {
+                    break;
+                }
+                long early = scheduled - System.nanoTime();
+                if (early > 0) {
+                    LockSupport.parkNanos(early);
+                }
+                run.maxDispatchLagNanos = Math.max(run.maxDispatchLagNanos, System.nanoTime() - scheduled);
+                RequestMix.Request request = mix.next(random, sequence, ids);
+                boolean measured = scheduled >= measureFrom;
+                run.maxInFlight = Math.max(run.maxInFlight, inFlight.incrementAndGet());
+                clients.execute(() -> {
+                    try {
+                        int status = send(URI.create(baseUrl + request.path), request.method, request.body);
+                        if (measured) {
+                            report.record(request.name, System.nanoTime() - scheduled, status);
+                        }
+                    } catch (IOException ex) {
+                        if (measured) {
+                            report.failed(request.name);
+                        }
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            }
+        }
+        return run;
+    }
+    
+    // Reads the whole body so the connection goes back to the keep-alive cache
+    private static int send(URI uri, String method, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        connection.setConnectTimeout(30_000);
+        connection.setReadTimeout(120_000);
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            if (in != null) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+        }
+        return status;
+    }
+    
+    private static final class Run {
+        
+        long maxDispatchLagNanos;
+        int maxInFlight;
+    }
+}
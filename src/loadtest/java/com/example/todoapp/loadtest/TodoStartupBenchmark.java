@@ -0,0 +1,182 @@
+package com.example.todoapp.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cold-start benchmark: starts each Docker image several times and measures the time from
+ * {@code docker run} to the first successful {@code GET /api/todos}, which is what autoscaling and
+ * rolling deploys wait for. The JVM uptime Spring Boot logs once the application has started is
+ * reported next to it. Build the images first ({@code just docker-build docker-build-fast}).
+ * <p>
+ * Every container runs the same profile against a fresh SQLite file inside the container, so the
+ * migrations run on every start in every mode. Arguments not starting with {@code --startup.} are
+ * passed to the application. The benchmark's own settings, with defaults:
+ * <pre>
+ * --startup.images=ranckosolutionsinc/spring-todo-app:latest,ranckosolutionsinc/spring-todo-app:fast
+ * --startup.runs=5             measured starts per image, after one warm-up start
+ * --startup.profile=prod       SPRING_PROFILES_ACTIVE in every container
+ * --startup.timeout=120s       per start
+ * --startup.label=startup      results go to target/loadtest/&lt;label&gt;
+ * </pre>
+ */
+public final class TodoStartupBenchmark {
+    
+    private static final String DEFAULT_IMAGES =
+            "ranckosolutionsinc/spring-todo-app:latest,ranckosolutionsinc/spring-todo-app:fast";
+    private static final int CONTAINER_PORT = 8484;
+    private static final Pattern STARTED = Pattern.compile(
+            "Started TodoAppApplication in [0-9.]+ seconds \\(process running for ([0-9.]+)\\)");
+    
+    private TodoStartupBenchmark() {}
+    
+    public static void main(String[] args) throws Exception {
+        SimpleCommandLinePropertySource options = new SimpleCommandLinePropertySource(args);
+        List<String> images = List.of(option(options, "startup.images", DEFAULT_IMAGES).split(","));
+        int runs = Integer.parseInt(option(options, "startup.runs", "5"));
+        String profile = option(options, "startup.profile", "prod");
+        Duration timeout = DurationStyle.detectAndParse(option(options, "startup.timeout", "120s"));
+        String label = option(options, "startup.label", "startup");
+        List<String> applicationArgs = Arrays.stream(args).filter(arg -> !arg.startsWith("--startup.")).toList();
+        
+        StringBuilder summary = new StringBuilder(String.format(
+                "%s: %d starts per image after one warm-up start, profile %s%narguments: %s%n%n%-60s %9s %9s %9s %12s%n",
+                label, runs, profile, String.join(" ", applicationArgs),
+                "image", "min ms", "p50 ms", "max ms", "jvm p50 s"));
+        for (String image : images) {
+            start(image, profile, applicationArgs, timeout);
+            double[] firstGet = new double[runs];
+            double[] uptime = new double[runs];
+            for (int run = 0; run < runs; run++) {
+                Start start = start(image, profile, applicationArgs, timeout);
+                firstGet[run] = start.firstGetMillis;
+                uptime[run] = start.uptimeSeconds;
+                System.out.printf("%s run %d: first GET after %.0f ms%n", image, run + 1, start.firstGetMillis);
+            }
+            Arrays.sort(firstGet);
+            Arrays.sort(uptime);
+            summary.append(String.format("%-60s %9.0f %9.0f %9.0f %12.2f%n", image,
+                    firstGet[0], median(firstGet), firstGet[runs - 1], median(uptime)));
+        }
+        
+        Path directory = Paths.get("target", "loadtest", label);
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("summary.txt"), summary);
+        System.out.println();
+        System.out.print(summary);
+    }
+    
+    private static String option(SimpleCommandLinePropertySource options, String name, String defaultValue) {
+        String value = options.getProperty(name);
+        return value == null ? defaultValue : value;
+    }
+    
+    // The clock starts before docker run, so container creation counts as it does for a deploy
+    private static Start start(String image, String profile, List<String> applicationArgs, Duration timeout)
+            throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>(List.of("docker", "run", "--detach",
+                "--publish", port + ":" + CONTAINER_PORT,
+                "--env", "PORT=" + CONTAINER_PORT,
+                "--env", "SPRING_PROFILES_ACTIVE=" + profile,
+                image,
+                "--spring.datasource.url=jdbc:sqlite:file:/tmp/todo.db"));
+        command.addAll(applicationArgs);
+        URI uri = URI.create("http://localhost:" + port + "/api/todos?limit=1");
+        
+        long started = System.nanoTime();
+        Process docker = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        String container = null;
+        try {
+            while (!answers(uri)) {
+                if (!docker.isAlive() && docker.exitValue() != 0) {
+                    throw new IllegalStateException("docker run " + image + " failed with exit code " + docker.exitValue());
+                }
+                if (System.nanoTime() - started > timeout.toNanos()) {
+                    throw new IllegalStateException(image + " did not answer GET /api/todos within " + timeout);
+                }
+                Thread.sleep(10);
+            }
+            double firstGetMillis = (System.nanoTime() - started) / 1e6;
+            container = containerId(docker);
+            Matcher matcher = STARTED.matcher(output("docker", "logs", container));
+            return new Start(firstGetMillis, matcher.find() ? Double.parseDouble(matcher.group(1)) : Double.NaN);
+        } finally {
+            if (container == null && docker.waitFor() == 0) {
+                container = containerId(docker);
+            }
+            if (container != null) {
+                output("docker", "rm", "--force", container);
+            }
+        }
+    }
+    
+    // Connection refused or reset until the application listens; 200 once it serves requests
+    private static boolean answers(URI uri) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+            connection.setConnectTimeout(1_000);
+            connection.setReadTimeout(10_000);
+            int status = connection.getResponseCode();
+            try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                if (in != null) {
+                    in.transferTo(OutputStream.nullOutputStream());
+                }
+            }
+            return status == 200;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+    
+    private static String containerId(Process docker) throws IOException, InterruptedException {
+        docker.waitFor();
+        return new String(docker.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+    }
+    
+    private static String output(String... command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        process.waitFor();
+        return output;
+    }
+    
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+    
+    private static double median(double[] sorted) {
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+    
+    private static final class Start {
+        
+        final double firstGetMillis;
+        final double uptimeSeconds;
+        
+        Start(double firstGetMillis, double uptimeSeconds) {
+            this.firstGetMillis = firstGetMillis;
+            this.uptimeSeconds = uptimeSeconds;
+        }
+    }
+}
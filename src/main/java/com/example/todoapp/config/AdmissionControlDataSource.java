@@ -0,0 +1,110 @@
+package com.example.todoapp.config;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admits at most one caller per pooled connection into the JDBC driver; the rest park on a
+ * fair semaphore until a connection is returned, or fail after the timeout. With virtual
+ * threads there is no thread pool left to cap concurrency, so this is what keeps thousands
+ * of in-flight requests from piling into the pool, and it also bounds how many carrier
+ * threads a driver can pin at once.
+ */
+public class AdmissionControlDataSource extends DelegatingDataSource {
+    
+    private final String name;
+    private final Semaphore permits;
+    private final Duration timeout;
+    
+    public AdmissionControlDataSource(DataSource targetDataSource, String name, int permits, Duration timeout) {
+        super(targetDataSource);
+        this.name = name;
+        this.permits = new Semaphore(permits, true);
+        this.timeout = timeout;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        admit();
+        try {
+            return releasingOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        admit();
+        try {
+            return releasingOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+    
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+    
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+    
+    private void admit() throws SQLException {
+        try {
+            if (!permits.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException(
+                        name + " - no database connection available within " + timeout.toMillis() + "ms");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException(name + " - interrupted while waiting for a connection", ex);
+        }
+    }
+    
+    // The permit goes back exactly once, when the caller closes (returns) the connection
+    private Connection releasingOnClose(Connection target) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "getTargetConnection":
+                            return target;
+                        case "close":
+                            if (!closed.compareAndSet(false, true)) {
+                                return null;
+                            }
+                            try {
+                                target.close();
+                            } finally {
+                                permits.release();
+                            }
+                            return null;
+                        default:
+                            try {
+                                return method.invoke(target, args);
+                            } catch (InvocationTargetException ex) {
+                                throw ex.getTargetException();
+                            }
+                    }
+                });
+    }
+}
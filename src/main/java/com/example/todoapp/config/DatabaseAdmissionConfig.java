@@ -0,0 +1,48 @@
+package com.example.todoapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Puts an {@link AdmissionControlDataSource} in front of every connection pool, with one
+ * permit per pooled connection, and a {@link MeteredDataSource} in front of that. The split
+ * SQLite pools, the replica-mode pools and the shard pools are wrapped where they are built (see
+ * {@link SqliteDataSourceConfig}, {@link ReplicaDataSourceConfig} and {@link ShardedDataSourceConfig});
+ * the single auto-configured pool is wrapped here. Each of those configurations defines its own
+ * {@code dataSource} bean, so a Hikari pool by that name is Spring Boot's, whichever property
+ * made the configurations step aside (a remote URL with split pools on included).
+ */
+@Configuration
+public class DatabaseAdmissionConfig {
+    
+    @Bean
+    static BeanPostProcessor dataSourceAdmissionPostProcessor(ObjectProvider<DatabaseAdmissionProperties> properties,
+                                                              ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // After initialization, so the pool size bound from spring.datasource.hikari.* is known
+                if (bean instanceof HikariDataSource pool && "dataSource".equals(beanName)) {
+                    // Hikari only names an unnamed pool when it starts
+                    String name = pool.getPoolName() != null ? pool.getPoolName() : beanName;
+                    return new MeteredDataSource(admit(pool, properties.getObject()), name, meterRegistry);
+                }
+                return bean;
+            }
+        };
+    }
+    
+    static DataSource admit(HikariDataSource pool, DatabaseAdmissionProperties properties) {
+        if (!properties.isEnabled()) {
+            return pool;
+        }
+        return new AdmissionControlDataSource(pool, pool.getPoolName(), pool.getMaximumPoolSize(),
+                properties.getTimeout());
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.todoapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "todo.db.admission")
+public class DatabaseAdmissionProperties {
+    
+    // One permit per pooled connection; callers beyond that wait in FIFO order
+    private boolean enabled = true;
+    
+    // How long a caller waits for a permit before the request fails with 503
+    private Duration timeout = Duration.ofSeconds(10);
+    
+    // Getters and Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    
+    public Duration getTimeout() { return timeout; }
+    public void setTimeout(Duration timeout) { this.timeout = timeout; }
+}
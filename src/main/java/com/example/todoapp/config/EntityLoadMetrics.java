@@ -0,0 +1,35 @@
+package com.example.todoapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts every entity Hibernate hydrates, per entity type ({@code todo.hibernate.entity.loads})
+ * and in the current {@link QueryCounter} scope. DTO projections load no entities, so on the read
+ * path this should stay at zero.
+ */
+@Component
+public class EntityLoadMetrics implements PostLoadEventListener {
+    
+    private final MeterRegistry meterRegistry;
+    
+    public EntityLoadMetrics(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+                .getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, this);
+    }
+    
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        QueryCounter.entityLoaded();
+        meterRegistry.counter("todo.hibernate.entity.loads", "entity", event.getEntity().getClass().getSimpleName())
+                .increment();
+    }
+}
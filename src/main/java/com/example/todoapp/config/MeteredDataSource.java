@@ -0,0 +1,115 @@
+package com.example.todoapp.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times how long callers wait for a connection ({@code todo.db.connection.acquire}, including
+ * any admission wait) and counts every statement executed on it ({@code todo.db.statements},
+ * and the current {@link QueryCounter} scope). A batch counts as one statement, since it is
+ * one round trip. Meters are looked up on first use, so the data source can be built before
+ * the meter registry.
+ */
+public class MeteredDataSource extends DelegatingDataSource {
+    
+    private final String name;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private volatile Timer acquireTimer;
+    private volatile Counter statementCounter;
+    
+    public MeteredDataSource(DataSource targetDataSource, String name, ObjectProvider<MeterRegistry> meterRegistry) {
+        super(targetDataSource);
+        this.name = name;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection();
+        recordAcquire(System.nanoTime() - start);
+        return counting(connection);
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection(username, password);
+        recordAcquire(System.nanoTime() - start);
+        return counting(connection);
+    }
+    
+    private void recordAcquire(long nanos) {
+        if (acquireTimer == null) {
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry == null) {
+                return;
+            }
+            statementCounter = Counter.builder("todo.db.statements").tag("pool", name).register(registry);
+            acquireTimer = Timer.builder("todo.db.connection.acquire").tag("pool", name).register(registry);
+        }
+        acquireTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    private Connection counting(Connection target) {
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "getTargetConnection":
+                            return target;
+                        default:
+                            Object result = invoke(target, method, args);
+                            if (result instanceof Statement statement) {
+                                return counting(statement, method.getReturnType());
+                            }
+                            return result;
+                    }
+                });
+    }
+    
+    // createStatement, prepareStatement or prepareCall: proxied as the interface the method returns
+    private Object counting(Statement target, Class<?> type) {
+        return Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            if (method.getName().startsWith("execute")) {
+                                QueryCounter.statementExecuted();
+                                if (statementCounter != null) {
+                                    statementCounter.increment();
+                                }
+                            }
+                            return invoke(target, method, args);
+                    }
+                });
+    }
+    
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.todoapp.config;
+
+/**
+ * Counts the JDBC statements executed and the entities Hibernate loads on the current thread
+ * while a scope is open. Scopes nest, and work done inside an inner scope also counts towards
+ * the enclosing ones, so a test can open a scope around a request that
+ * {@link QueryCountingInterceptor} scopes as well. Statements that run on other threads (the
+ * write batcher's worker, sharded fan-out) are not counted.
+ */
+public final class QueryCounter {
+    
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+    
+    private QueryCounter() {}
+    
+    public static Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+    
+    static void statementExecuted() {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.statements++;
+        }
+    }
+    
+    static void entityLoaded() {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.entityLoads++;
+        }
+    }
+    
+    public static final class Scope implements AutoCloseable {
+        
+        private final Scope parent;
+        private long statements;
+        private long entityLoads;
+        
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+        
+        public long getStatements() { return statements; }
+        
+        public long getEntityLoads() { return entityLoads; }
+        
+        @Override
+        public void close() {
+            if (CURRENT.get() == this) {
+                if (parent == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(parent);
+                }
+            }
+        }
+    }
+}
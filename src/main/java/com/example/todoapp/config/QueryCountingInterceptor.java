@@ -0,0 +1,62 @@
+package com.example.todoapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records how many JDBC statements ({@code todo.http.sql.statements}) and entity loads
+ * ({@code todo.http.entity.loads}) each request caused, tagged like {@code http.server.requests}
+ * with the method and URI template. Work done on other threads, such as the body of a streaming
+ * export, is not attributed to the request.
+ */
+public class QueryCountingInterceptor implements AsyncHandlerInterceptor {
+    
+    private static final String SCOPE_ATTRIBUTE = QueryCountingInterceptor.class.getName() + ".scope";
+    
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    
+    public QueryCountingInterceptor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(SCOPE_ATTRIBUTE, QueryCounter.open());
+        return true;
+    }
+    
+    // The handler returned and the response continues on another thread; this thread is done
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        complete(request);
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        complete(request);
+    }
+    
+    private void complete(HttpServletRequest request) {
+        if (!(request.getAttribute(SCOPE_ATTRIBUTE) instanceof QueryCounter.Scope scope)) {
+            return;
+        }
+        request.removeAttribute(SCOPE_ATTRIBUTE);
+        scope.close();
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        registry.summary("todo.http.sql.statements", "method", request.getMethod(), "uri", uri)
+                .record(scope.getStatements());
+        registry.summary("todo.http.entity.loads", "method", request.getMethod(), "uri", uri)
+                .record(scope.getEntityLoads());
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.todoapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Per-request statement and entity-load counts for every API endpoint. The data sources count
+ * the statements (see {@link MeteredDataSource}) and {@link EntityLoadMetrics} the entities.
+ */
+@Configuration
+public class QueryMetricsConfig implements WebMvcConfigurer {
+    
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    
+    public QueryMetricsConfig(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new QueryCountingInterceptor(meterRegistry)).addPathPatterns("/api/**");
+    }
+}
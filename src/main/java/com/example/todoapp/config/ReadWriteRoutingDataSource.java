@@ -0,0 +1,22 @@
+package com.example.todoapp.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections for {@code readOnly} transactions to the reader pool and everything
+ * else to the writer. Must sit behind a {@code LazyConnectionDataSourceProxy} so the
+ * lookup happens after the transaction's read-only flag has been bound.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    
+    public enum Route {
+        READ,
+        WRITE
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.READ : Route.WRITE;
+    }
+}
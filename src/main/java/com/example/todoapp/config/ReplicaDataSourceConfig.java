@@ -0,0 +1,114 @@
+package com.example.todoapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Connection management for embedded-replica mode. The {@code spring.datasource} database (in
+ * production a remote libsql server) stays the primary and takes every write; a local SQLite file
+ * at {@code todo.replica.path} holds a copy of {@code todos} that {@code TodoReplicaSync} keeps up
+ * to date, and serves read-only transactions without a network round trip. Replaces the split
+ * SQLite pools, which only apply to a file-backed primary.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "todo.replica", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+    
+    @Bean(destroyMethod = "close")
+    public HikariDataSource todoPrimaryDataSource(DataSourceProperties properties, SqliteProperties sqlite) {
+        return createPrimaryPool(properties, sqlite, "primary");
+    }
+    
+    // The sync's own connection: a commit pulls while its transaction still holds a primary connection
+    @Bean(destroyMethod = "close")
+    public HikariDataSource todoPrimarySyncDataSource(DataSourceProperties properties, SqliteProperties sqlite) {
+        HikariDataSource source = createPrimaryPool(properties, sqlite, "primary-sync");
+        source.setMaximumPoolSize(1);
+        return source;
+    }
+    
+    // Used only by the sync, the replica's one writer
+    @Bean(destroyMethod = "close")
+    public HikariDataSource todoReplicaWriterDataSource(TodoReplicaProperties replica, SqliteProperties sqlite) {
+        HikariDataSource writer = createReplicaPool(replica, sqlite, "replica-writer");
+        writer.setMaximumPoolSize(1);
+        return writer;
+    }
+    
+    @Bean(destroyMethod = "close")
+    public HikariDataSource todoReplicaReaderDataSource(TodoReplicaProperties replica, SqliteProperties sqlite,
+                                                        HikariDataSource todoReplicaWriterDataSource) {
+        // Depends on the writer so the file is already switched to WAL when readers open
+        HikariDataSource reader = createReplicaPool(replica, sqlite, "replica-reader");
+        reader.setMaximumPoolSize(replica.getReaderPoolSize());
+        reader.setConnectionInitSql("PRAGMA query_only = ON");
+        return reader;
+    }
+    
+    @Bean
+    public ReplicaRoutingDataSource todoReplicaRoutingDataSource(
+            @Qualifier("todoPrimaryDataSource") HikariDataSource primary,
+            @Qualifier("todoReplicaReaderDataSource") HikariDataSource replicaReader,
+            DatabaseAdmissionProperties admission, ObjectProvider<MeterRegistry> meterRegistry) {
+        DataSource writer = metered(primary, admission, meterRegistry);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Route.WRITE, writer,
+                ReadWriteRoutingDataSource.Route.READ, metered(replicaReader, admission, meterRegistry)));
+        routing.setDefaultTargetDataSource(writer);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource todoReplicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(todoReplicaRoutingDataSource);
+    }
+    
+    // Metered outside the admission limit, so the acquire time includes waiting for a permit
+    private static DataSource metered(HikariDataSource pool, DatabaseAdmissionProperties admission,
+                                      ObjectProvider<MeterRegistry> meterRegistry) {
+        return new MeteredDataSource(DatabaseAdmissionConfig.admit(pool, admission), pool.getPoolName(), meterRegistry);
+    }
+    
+    private static HikariDataSource createPrimaryPool(DataSourceProperties properties, SqliteProperties sqlite,
+                                                      String poolName) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName(poolName);
+        String url = properties.determineUrl();
+        if (url != null && url.startsWith("jdbc:sqlite:") && !url.contains("://")) {
+            // A file-backed primary (tests, local runs) is read by the sync while the application writes
+            pool.addDataSourceProperty("journal_mode", sqlite.getJournalMode());
+            pool.addDataSourceProperty("busy_timeout", String.valueOf(sqlite.getBusyTimeoutMs()));
+        }
+        return pool;
+    }
+    
+    private static HikariDataSource createReplicaPool(TodoReplicaProperties replica, SqliteProperties sqlite,
+                                                      String poolName) {
+        HikariDataSource pool = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName("org.sqlite.JDBC")
+                .url("jdbc:sqlite:file:" + replica.getPath())
+                .build();
+        pool.setPoolName(poolName);
+        // A commit lost to a power cut is pulled again: the applied version is part of each commit
+        pool.addDataSourceProperty("journal_mode", "WAL");
+        pool.addDataSourceProperty("synchronous", "NORMAL");
+        pool.addDataSourceProperty("busy_timeout", String.valueOf(sqlite.getBusyTimeoutMs()));
+        return pool;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.todoapp.config;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routing for embedded-replica mode: {@code readOnly} transactions go to the local replica
+ * while it is current, everything else to the primary. A transaction that used the primary
+ * has the replica pulled up to date after it commits and before control returns to the
+ * caller, so the writing request reads its own writes from the replica.
+ */
+public class ReplicaRoutingDataSource extends ReadWriteRoutingDataSource {
+    
+    public interface Replica {
+        
+        // Whether read-only transactions may be served locally right now
+        boolean isCurrent();
+        
+        // Called on the committing thread once a transaction that used the primary has committed
+        void afterPrimaryCommit();
+    }
+    
+    // Null until the replica is set up; reads go to the primary meanwhile
+    private volatile Replica replica;
+    
+    public void setReplica(Replica replica) {
+        this.replica = replica;
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Replica current = replica;
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return current != null && current.isCurrent() ? Route.READ : Route.WRITE;
+        }
+        if (current != null && TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(this)) {
+            registerSync(current);
+        }
+        return Route.WRITE;
+    }
+    
+    // Once per transaction, however many connections it asks for
+    private void registerSync(Replica current) {
+        Object key = this;
+        TransactionSynchronizationManager.bindResource(key, current);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            
+            @Override
+            public void afterCommit() {
+                current.afterPrimaryCommit();
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(key);
+            }
+        });
+    }
+}
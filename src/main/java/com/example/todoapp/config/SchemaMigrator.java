@@ -0,0 +1,205 @@
+package com.example.todoapp.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Applies the versioned SQL scripts in {@code db/migration} ({@code V<n>__<description>.sql}) in
+ * order, each in its own transaction, and records them in {@code schema_migrations}. Runs before
+ * the EntityManagerFactory, so Hibernate only validates the schema. With sharded storage every
+ * shard is migrated. Flyway would be the usual choice, but it does not recognise the libsql JDBC
+ * driver used in production.
+ */
+@Component
+public class SchemaMigrator implements InitializingBean {
+    
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrator.class);
+    
+    static final String LOCATION = "classpath:db/migration/V*__*.sql";
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    
+    private final List<DataSource> dataSources;
+    private final ResourcePatternResolver resourceResolver = new PathMatchingResourcePatternResolver();
+    
+    public SchemaMigrator(DataSource dataSource) {
+        this.dataSources = List.of(dataSource);
+    }
+    
+    @Autowired
+    public SchemaMigrator(DataSource dataSource, ObjectProvider<ShardRoutingDataSource> shards) {
+        ShardRoutingDataSource sharded = shards.getIfAvailable();
+        this.dataSources = sharded == null ? List.of(dataSource) : sharded.getShards();
+    }
+    
+    @Override
+    public void afterPropertiesSet() throws SQLException, IOException {
+        migrate();
+    }
+    
+    public void migrate() throws SQLException, IOException {
+        List<Migration> migrations = loadMigrations();
+        for (DataSource dataSource : dataSources) {
+            migrate(dataSource, migrations);
+        }
+    }
+    
+    private static void migrate(DataSource dataSource, List<Migration> migrations) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS schema_migrations (" +
+                        "version INTEGER PRIMARY KEY, description TEXT NOT NULL, " +
+                        "checksum INTEGER NOT NULL, applied_at TEXT NOT NULL)");
+            }
+            Map<Integer, Long> applied = appliedChecksums(connection);
+            for (Migration migration : migrations) {
+                Long checksum = applied.get(migration.version);
+                if (checksum == null) {
+                    apply(connection, migration);
+                } else if (checksum != migration.checksum) {
+                    throw new IllegalStateException("Migration V" + migration.version +
+                            " was changed after it was applied; add a new migration instead");
+                }
+            }
+        }
+    }
+    
+    private List<Migration> loadMigrations() throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        for (Resource resource : resourceResolver.getResources(LOCATION)) {
+            Matcher matcher = FILE_NAME.matcher(resource.getFilename());
+            if (!matcher.matches()) {
+                throw new IllegalStateException("Unexpected migration file name: " + resource.getFilename());
+            }
+            String sql = StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8);
+            migrations.add(new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2), sql));
+        }
+        migrations.sort(Comparator.comparingInt(migration -> migration.version));
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version == migrations.get(i - 1).version) {
+                throw new IllegalStateException("Duplicate migration version V" + migrations.get(i).version);
+            }
+        }
+        return migrations;
+    }
+    
+    private static Map<Integer, Long> appliedChecksums(Connection connection) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT version, checksum FROM schema_migrations")) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        return applied;
+    }
+    
+    private static void apply(Connection connection, Migration migration) throws SQLException {
+        log.info("Applying schema migration V{}__{}", migration.version, migration.description);
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : splitStatements(migration.sql)) {
+                    statement.execute(sql);
+                }
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO schema_migrations (version, description, checksum, applied_at) VALUES (?, ?, ?, ?)")) {
+                insert.setInt(1, migration.version);
+                insert.setString(2, migration.description);
+                insert.setLong(3, migration.checksum);
+                insert.setString(4, Instant.now().toString());
+                insert.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException ex) {
+            connection.rollback();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+    
+    /**
+     * Splits a script on statement-ending semicolons at the end of a line. Trigger bodies
+     * contain semicolons of their own, so a CREATE TRIGGER statement runs until its END;.
+     */
+    static List<String> splitStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : script.split("\\R")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (!trimmed.endsWith(";")) {
+                continue;
+            }
+            String statement = current.toString().trim();
+            boolean trigger = statement.toUpperCase(Locale.ROOT).startsWith("CREATE TRIGGER");
+            if (!trigger || trimmed.equalsIgnoreCase("END;")) {
+                statements.add(statement.substring(0, statement.length() - 1));
+                current.setLength(0);
+            }
+        }
+        if (!current.toString().isBlank()) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+    
+    private static final class Migration {
+        
+        private final int version;
+        private final String description;
+        private final String sql;
+        private final long checksum;
+        
+        Migration(int version, String description, String sql) {
+            this.version = version;
+            this.description = description.replace('_', ' ');
+            this.sql = sql;
+            CRC32 crc = new CRC32();
+            crc.update(sql.getBytes(StandardCharsets.UTF_8));
+            this.checksum = crc.getValue();
+        }
+    }
+    
+    // Hibernate validates the schema at startup, so it has to wait for the migrations
+    @Component
+    static class EntityManagerFactoryDependsOnSchemaMigrator extends EntityManagerFactoryDependsOnPostProcessor {
+        
+        EntityManagerFactoryDependsOnSchemaMigrator() {
+            super(SchemaMigrator.class);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.todoapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends connections to the database of the shard bound to the calling thread, shard 0 when none
+ * is. Like {@link ReadWriteRoutingDataSource} it must sit behind a
+ * {@code LazyConnectionDataSourceProxy}, so the lookup happens at a transaction's first statement
+ * rather than when it begins. Shards are bound through {@code TodoShards}.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+    
+    private final List<DataSource> shards;
+    private final List<HikariDataSource> pools;
+    
+    // One data source per shard, in shard order; the pools behind them are closed with this one
+    public ShardRoutingDataSource(List<DataSource> shards, List<HikariDataSource> pools) {
+        this.shards = List.copyOf(shards);
+        this.pools = List.copyOf(pools);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        afterPropertiesSet();
+    }
+    
+    public static int currentShard() {
+        Integer shard = CURRENT_SHARD.get();
+        return shard == null ? 0 : shard;
+    }
+    
+    // Returns the shard bound before, to be handed back to restoreShard
+    public static Integer bindShard(int shard) {
+        Integer previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        return previous;
+    }
+    
+    public static void restoreShard(Integer previous) {
+        if (previous == null) {
+            CURRENT_SHARD.remove();
+        } else {
+            CURRENT_SHARD.set(previous);
+        }
+    }
+    
+    public List<DataSource> getShards() {
+        return shards;
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentShard();
+    }
+    
+    @Override
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
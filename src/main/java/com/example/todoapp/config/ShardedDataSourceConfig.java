@@ -0,0 +1,87 @@
+package com.example.todoapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Connection management for sharded storage: {@code todo.sharding.count} SQLite files at
+ * {@code todo.sharding.path}, each with the split pools of {@link SqliteDataSourceConfig} (one
+ * writer connection, WAL readers), so writes to different shards commit in parallel instead of
+ * queueing on one database lock. The {@code spring.datasource} database is not used. Replaces
+ * the split pools; embedded-replica mode ({@link ReplicaDataSourceConfig}) takes precedence.
+ */
+@Configuration
+@ConditionalOnExpression("${todo.sharding.count:1} > 1 and !${todo.replica.enabled:false}")
+public class ShardedDataSourceConfig {
+    
+    @Bean(destroyMethod = "close")
+    public ShardRoutingDataSource todoShardRoutingDataSource(TodoShardingProperties sharding, SqliteProperties sqlite,
+                                                             DatabaseAdmissionProperties admission,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        if (!sharding.getPath().contains(TodoShardingProperties.SHARD_PLACEHOLDER)) {
+            throw new IllegalStateException("todo.sharding.path must contain " +
+                    TodoShardingProperties.SHARD_PLACEHOLDER + ", got " + sharding.getPath());
+        }
+        List<DataSource> shards = new ArrayList<>(sharding.getCount());
+        List<HikariDataSource> pools = new ArrayList<>(2 * sharding.getCount());
+        for (int shard = 0; shard < sharding.getCount(); shard++) {
+            String url = "jdbc:sqlite:file:" + sharding.pathOf(shard);
+            HikariDataSource writer = createPool(url, sqlite, "shard-" + shard + "-writer");
+            writer.setMaximumPoolSize(1);
+            // Pools connect lazily; the migrations open the writer first, switching the file to WAL
+            HikariDataSource reader = createPool(url, sqlite, "shard-" + shard + "-reader");
+            reader.setMaximumPoolSize(sharding.getReaderPoolSize());
+            reader.setConnectionInitSql("PRAGMA query_only = ON");
+            pools.add(writer);
+            pools.add(reader);
+            
+            DataSource meteredWriter = metered(writer, admission, meterRegistry);
+            ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+            routing.setTargetDataSources(Map.of(
+                    ReadWriteRoutingDataSource.Route.WRITE, meteredWriter,
+                    ReadWriteRoutingDataSource.Route.READ, metered(reader, admission, meterRegistry)));
+            routing.setDefaultTargetDataSource(meteredWriter);
+            routing.afterPropertiesSet();
+            shards.add(routing);
+        }
+        return new ShardRoutingDataSource(shards, pools);
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource todoShardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(todoShardRoutingDataSource);
+    }
+    
+    // Metered outside the admission limit, so the acquire time includes waiting for a permit
+    private static DataSource metered(HikariDataSource pool, DatabaseAdmissionProperties admission,
+                                      ObjectProvider<MeterRegistry> meterRegistry) {
+        return new MeteredDataSource(DatabaseAdmissionConfig.admit(pool, admission), pool.getPoolName(), meterRegistry);
+    }
+    
+    private static HikariDataSource createPool(String url, SqliteProperties sqlite, String poolName) {
+        HikariDataSource pool = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName("org.sqlite.JDBC")
+                .url(url)
+                .build();
+        pool.setPoolName(poolName);
+        // sqlite-jdbc applies these driver properties as PRAGMAs on every new connection
+        pool.addDataSourceProperty("journal_mode", sqlite.getJournalMode());
+        pool.addDataSourceProperty("synchronous", sqlite.getSynchronous());
+        pool.addDataSourceProperty("busy_timeout", String.valueOf(sqlite.getBusyTimeoutMs()));
+        return pool;
+    }
+}
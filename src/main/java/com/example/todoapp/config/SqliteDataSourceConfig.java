@@ -0,0 +1,106 @@
+package com.example.todoapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Connection management for file-backed SQLite. SQLite allows a single writer, so all
+ * write transactions share one connection instead of queueing on the database lock,
+ * while WAL mode lets any number of readers run alongside it. Embedded-replica mode
+ * ({@link ReplicaDataSourceConfig}) and sharded storage ({@link ShardedDataSourceConfig}) take
+ * precedence. Any other URL, a remote libsql server included, keeps Spring Boot's single pool.
+ */
+@Configuration
+@ConditionalOnExpression("${todo.sqlite.split-pools:false} and !${todo.replica.enabled:false} " +
+        "and ${todo.sharding.count:1} <= 1")
+@Conditional(SqliteDataSourceConfig.FileBackedUrl.class)
+public class SqliteDataSourceConfig {
+    
+    private static final Logger log = LoggerFactory.getLogger(SqliteDataSourceConfig.class);
+    
+    @Bean(destroyMethod = "close")
+    public HikariDataSource sqliteWriterDataSource(DataSourceProperties properties, SqliteProperties sqlite) {
+        HikariDataSource writer = createPool(properties, sqlite, "sqlite-writer");
+        writer.setMaximumPoolSize(1);
+        return writer;
+    }
+    
+    @Bean(destroyMethod = "close")
+    public HikariDataSource sqliteReaderDataSource(DataSourceProperties properties, SqliteProperties sqlite,
+                                                   HikariDataSource sqliteWriterDataSource) {
+        // Depends on the writer so the database is already switched to WAL when readers open
+        HikariDataSource reader = createPool(properties, sqlite, "sqlite-reader");
+        reader.setMaximumPoolSize(sqlite.getReaderPoolSize());
+        reader.setConnectionInitSql("PRAGMA query_only = ON");
+        return reader;
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource sqliteWriterDataSource, HikariDataSource sqliteReaderDataSource,
+                                 DatabaseAdmissionProperties admission, ObjectProvider<MeterRegistry> meterRegistry) {
+        DataSource writer = metered(sqliteWriterDataSource, admission, meterRegistry);
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Route.WRITE, writer,
+                ReadWriteRoutingDataSource.Route.READ, metered(sqliteReaderDataSource, admission, meterRegistry)));
+        routing.setDefaultTargetDataSource(writer);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+    
+    // Metered outside the admission limit, so the acquire time includes waiting for a permit
+    private static DataSource metered(HikariDataSource pool, DatabaseAdmissionProperties admission,
+                                      ObjectProvider<MeterRegistry> meterRegistry) {
+        return new MeteredDataSource(DatabaseAdmissionConfig.admit(pool, admission), pool.getPoolName(), meterRegistry);
+    }
+    
+    private static HikariDataSource createPool(DataSourceProperties properties, SqliteProperties sqlite,
+                                               String poolName) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName(poolName);
+        // sqlite-jdbc applies these driver properties as PRAGMAs on every new connection
+        pool.addDataSourceProperty("journal_mode", sqlite.getJournalMode());
+        pool.addDataSourceProperty("synchronous", sqlite.getSynchronous());
+        pool.addDataSourceProperty("busy_timeout", String.valueOf(sqlite.getBusyTimeoutMs()));
+        return pool;
+    }
+    
+    static boolean isFileBacked(String url) {
+        return url != null && url.startsWith("jdbc:sqlite:") && !url.contains("://");
+    }
+    
+    // Split pools only make sense for a local file; a remote URL falls back to the single pool
+    static class FileBackedUrl extends SpringBootCondition {
+        
+        @Override
+        public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            String url = context.getEnvironment().getProperty("spring.datasource.url");
+            if (isFileBacked(url)) {
+                return ConditionOutcome.match("file-backed SQLite URL " + url);
+            }
+            if (context.getEnvironment().getProperty("todo.sqlite.split-pools", Boolean.class, false)
+                    && !context.getEnvironment().getProperty("todo.replica.enabled", Boolean.class, false)) {
+                log.warn("todo.sqlite.split-pools is ignored for {}: it needs a file-backed jdbc:sqlite: URL", url);
+            }
+            return ConditionOutcome.noMatch("not a file-backed SQLite URL: " + url);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.todoapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "todo.sqlite")
+public class SqliteProperties {
+    
+    // Route writes to a one-connection pool and read-only transactions to a reader pool
+    private boolean splitPools = false;
+    
+    private int readerPoolSize = Runtime.getRuntime().availableProcessors();
+    
+    private String journalMode = "WAL";
+    
+    // NORMAL is durable in WAL mode except across power loss, and avoids an fsync per commit
+    private String synchronous = "NORMAL";
+    
+    private int busyTimeoutMs = 5000;
+    
+    // Getters and Setters
+    public boolean isSplitPools() { return splitPools; }
+    public void setSplitPools(boolean splitPools) { this.splitPools = splitPools; }
+    
+    public int getReaderPoolSize() { return readerPoolSize; }
+    public void setReaderPoolSize(int readerPoolSize) { this.readerPoolSize = readerPoolSize; }
+    
+    public String getJournalMode() { return journalMode; }
+    public void setJournalMode(String journalMode) { this.journalMode = journalMode; }
+    
+    public String getSynchronous() { return synchronous; }
+    public void setSynchronous(String synchronous) { this.synchronous = synchronous; }
+    
+    public int getBusyTimeoutMs() { return busyTimeoutMs; }
+    public void setBusyTimeoutMs(int busyTimeoutMs) { this.busyTimeoutMs = busyTimeoutMs; }
+}
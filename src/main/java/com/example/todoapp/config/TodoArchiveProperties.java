@@ -0,0 +1,46 @@
+package com.example.todoapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "todo.archive")
+public class TodoArchiveProperties {
+    
+    // Move old completed and cancelled todos out of the todos table on a schedule
+    private boolean enabled = false;
+    
+    // How often the archiver runs
+    private Duration interval = Duration.ofHours(1);
+    
+    // Completed and cancelled todos last updated longer ago than this are archived
+    private Duration minAge = Duration.ofDays(90);
+    
+    // Where the segment files live; created on first use
+    private String directory = "./todo-archive";
+    
+    // Rows per segment file, each moved in one transaction
+    private int segmentSize = 10000;
+    
+    // Rows per compressed block; a lookup by id decompresses one block
+    private int blockSize = 256;
+    
+    // Getters and Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    
+    public Duration getInterval() { return interval; }
+    public void setInterval(Duration interval) { this.interval = interval; }
+    
+    public Duration getMinAge() { return minAge; }
+    public void setMinAge(Duration minAge) { this.minAge = minAge; }
+    
+    public String getDirectory() { return directory; }
+    public void setDirectory(String directory) { this.directory = directory; }
+    
+    public int getSegmentSize() { return segmentSize; }
+    public void setSegmentSize(int segmentSize) { this.segmentSize = segmentSize; }
+    
+    public int getBlockSize() { return blockSize; }
+    public void setBlockSize(int blockSize) { this.blockSize = blockSize; }
+}
@@ -0,0 +1,27 @@
+package com.example.todoapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "todo.cache")
+public class TodoCacheProperties {
+    
+    // In-process cache in front of getTodoById
+    private boolean enabled = true;
+    
+    private long maximumSize = 10_000;
+    
+    // Upper bound on staleness if an invalidation is ever missed (e.g. writes from another instance)
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+    
+    // Getters and Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    
+    public long getMaximumSize() { return maximumSize; }
+    public void setMaximumSize(long maximumSize) { this.maximumSize = maximumSize; }
+    
+    public Duration getExpireAfterWrite() { return expireAfterWrite; }
+    public void setExpireAfterWrite(Duration expireAfterWrite) { this.expireAfterWrite = expireAfterWrite; }
+}
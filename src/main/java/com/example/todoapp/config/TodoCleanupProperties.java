@@ -0,0 +1,42 @@
+package com.example.todoapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "todo.cleanup")
+public class TodoCleanupProperties {
+    
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+    
+    // Run the purge on a schedule; DELETE /api/todos/cleanup starts one either way
+    private boolean enabled = false;
+    
+    // How often a scheduled purge is started; skipped while the previous one is still running
+    private Duration interval = Duration.ofHours(1);
+    
+    // Scheduled purges remove completed todos last updated longer ago than this
+    private Duration retention = Duration.ofDays(30);
+    
+    // Rows deleted per transaction; each chunk holds the write lock only briefly
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    
+    // Pause between chunks, so queued writers get the writer connection
+    private Duration pause = Duration.ofMillis(50);
+    
+    // Getters and Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    
+    public Duration getInterval() { return interval; }
+    public void setInterval(Duration interval) { this.interval = interval; }
+    
+    public Duration getRetention() { return retention; }
+    public void setRetention(Duration retention) { this.retention = retention; }
+    
+    public int getChunkSize() { return chunkSize; }
+    public void setChunkSize(int chunkSize) { this.chunkSize = chunkSize; }
+    
+    public Duration getPause() { return pause; }
+    public void setPause(Duration pause) { this.pause = pause; }
+}
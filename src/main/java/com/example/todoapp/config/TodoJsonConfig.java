@@ -0,0 +1,21 @@
+package com.example.todoapp.config;
+
+import com.fasterxml.jackson.databind.Module;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers {@link TodoResponseSerializer} with the ObjectMapper behind the REST endpoints, the
+ * export and the change stream; Spring Boot adds every {@link Module} bean to it.
+ * {@code todo.json.fast-serializer: false} goes back to Jackson's bean serializer.
+ */
+@Configuration
+public class TodoJsonConfig {
+    
+    @Bean
+    @ConditionalOnProperty(prefix = "todo.json", name = "fast-serializer", havingValue = "true", matchIfMissing = true)
+    Module todoResponseModule() {
+        return TodoResponseSerializer.module();
+    }
+}
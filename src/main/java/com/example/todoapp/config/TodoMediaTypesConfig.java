@@ -0,0 +1,41 @@
+package com.example.todoapp.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Binary representations next to JSON, chosen by the Accept and Content-Type headers:
+ * {@code application/cbor}, {@code application/x-jackson-smile} and {@code application/x-protobuf}.
+ * <p>
+ * The CBOR and Smile mappers come from Spring Boot's builder, so they share the JSON mapper's
+ * settings and modules (ISO date strings, {@link TodoResponseSerializer}) and carry the same fields;
+ * as beans they replace the converters Spring MVC would otherwise add with plain mappers. The
+ * protobuf converter goes last, so a request without an Accept header still gets JSON.
+ */
+@Configuration
+public class TodoMediaTypesConfig implements WebMvcConfigurer {
+    
+    @Bean
+    MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+    
+    @Bean
+    MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+    
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new TodoProtobufHttpMessageConverter());
+    }
+}
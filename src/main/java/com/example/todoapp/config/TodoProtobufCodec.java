@@ -0,0 +1,326 @@
+package com.example.todoapp.config;
+
+import com.example.todoapp.dtos.ErrorResponseDTO;
+import com.example.todoapp.dtos.TodoRequestDTO;
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.models.TodoStatus;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes the todo DTOs in the Protocol Buffers wire format described by
+ * {@code src/main/proto/todo.proto}, straight from and into the DTOs: nothing is generated from
+ * the schema, so there is no intermediate message object per todo. Only the protobuf runtime's
+ * coded streams are used.
+ */
+public final class TodoProtobufCodec {
+    
+    private static final int LENGTH_DELIMITED = WireFormat.WIRETYPE_LENGTH_DELIMITED;
+    private static final int VARINT = WireFormat.WIRETYPE_VARINT;
+    
+    // Todo
+    private static final int TODO_ID = 1;
+    private static final int TODO_TITLE = 2;
+    private static final int TODO_DESCRIPTION = 3;
+    private static final int TODO_STATUS = 4;
+    private static final int TODO_DUE_DATE = 5;
+    private static final int TODO_CREATED_AT = 6;
+    private static final int TODO_UPDATED_AT = 7;
+    private static final int TODO_VERSION = 8;
+    private static final int TODO_LIST_KEY = 9;
+    
+    // TodoList
+    private static final int LIST_TODOS = 1;
+    
+    // TodoRequest
+    private static final int REQUEST_TITLE = 1;
+    private static final int REQUEST_DESCRIPTION = 2;
+    private static final int REQUEST_STATUS = 3;
+    private static final int REQUEST_DUE_DATE = 4;
+    private static final int REQUEST_LIST_KEY = 5;
+    
+    // ErrorResponse, and the key/value entries of its errors map
+    private static final int ERROR_TIMESTAMP = 1;
+    private static final int ERROR_STATUS = 2;
+    private static final int ERROR_ERROR = 3;
+    private static final int ERROR_MESSAGE = 4;
+    private static final int ERROR_ERRORS = 5;
+    private static final int ENTRY_KEY = 1;
+    private static final int ENTRY_VALUE = 2;
+    
+    // google.protobuf.Timestamp
+    private static final int TIMESTAMP_SECONDS = 1;
+    private static final int TIMESTAMP_NANOS = 2;
+    
+    private static final TodoStatus[] STATUSES = TodoStatus.values();
+    
+    private TodoProtobufCodec() {}
+    
+    public static void writeTodo(TodoResponseDTO todo, OutputStream body) throws IOException {
+        CodedOutputStream out = CodedOutputStream.newInstance(body);
+        writeTodoFields(out, todo);
+        out.flush();
+    }
+    
+    public static void writeTodos(Collection<TodoResponseDTO> todos, OutputStream body) throws IOException {
+        CodedOutputStream out = CodedOutputStream.newInstance(body);
+        for (TodoResponseDTO todo : todos) {
+            out.writeTag(LIST_TODOS, LENGTH_DELIMITED);
+            out.writeUInt32NoTag(todoSize(todo));
+            writeTodoFields(out, todo);
+        }
+        out.flush();
+    }
+    
+    public static void writeRequest(TodoRequestDTO request, OutputStream body) throws IOException {
+        CodedOutputStream out = CodedOutputStream.newInstance(body);
+        writeString(out, REQUEST_TITLE, request.getTitle());
+        writeString(out, REQUEST_DESCRIPTION, request.getDescription());
+        writeStatus(out, REQUEST_STATUS, request.getStatus());
+        writeTimestamp(out, REQUEST_DUE_DATE, request.getDueDate());
+        writeString(out, REQUEST_LIST_KEY, request.getListKey());
+        out.flush();
+    }
+    
+    public static void writeError(ErrorResponseDTO error, OutputStream body) throws IOException {
+        CodedOutputStream out = CodedOutputStream.newInstance(body);
+        writeTimestamp(out, ERROR_TIMESTAMP, error.getTimestamp());
+        if (error.getStatus() != 0) {
+            out.writeInt32(ERROR_STATUS, error.getStatus());
+        }
+        if (error.getError() != null && !error.getError().isEmpty()) {
+            out.writeString(ERROR_ERROR, error.getError());
+        }
+        writeString(out, ERROR_MESSAGE, error.getMessage());
+        if (error.getErrors() != null) {
+            for (Map.Entry<String, String> entry : error.getErrors().entrySet()) {
+                String value = entry.getValue() != null ? entry.getValue() : "";
+                out.writeTag(ERROR_ERRORS, LENGTH_DELIMITED);
+                out.writeUInt32NoTag(CodedOutputStream.computeStringSize(ENTRY_KEY, entry.getKey())
+                        + CodedOutputStream.computeStringSize(ENTRY_VALUE, value));
+                out.writeString(ENTRY_KEY, entry.getKey());
+                out.writeString(ENTRY_VALUE, value);
+            }
+        }
+        out.flush();
+    }
+    
+    public static TodoResponseDTO readTodo(InputStream body) throws IOException {
+        return readTodoFields(CodedInputStream.newInstance(body));
+    }
+    
+    public static List<TodoResponseDTO> readTodos(InputStream body) throws IOException {
+        CodedInputStream in = CodedInputStream.newInstance(body);
+        List<TodoResponseDTO> todos = new ArrayList<>();
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            if (tag == ((LIST_TODOS << 3) | LENGTH_DELIMITED)) {
+                int limit = in.pushLimit(in.readRawVarint32());
+                todos.add(readTodoFields(in));
+                in.popLimit(limit);
+            } else {
+                in.skipField(tag);
+            }
+        }
+        return todos;
+    }
+    
+    public static TodoRequestDTO readRequest(InputStream body) throws IOException {
+        CodedInputStream in = CodedInputStream.newInstance(body);
+        TodoRequestDTO request = new TodoRequestDTO();
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            switch (tag) {
+                case (REQUEST_TITLE << 3) | LENGTH_DELIMITED -> request.setTitle(in.readStringRequireUtf8());
+                case (REQUEST_DESCRIPTION << 3) | LENGTH_DELIMITED -> request.setDescription(in.readStringRequireUtf8());
+                case (REQUEST_STATUS << 3) | VARINT -> request.setStatus(readStatus(in));
+                case (REQUEST_DUE_DATE << 3) | LENGTH_DELIMITED -> request.setDueDate(readTimestamp(in));
+                case (REQUEST_LIST_KEY << 3) | LENGTH_DELIMITED -> request.setListKey(in.readStringRequireUtf8());
+                default -> in.skipField(tag);
+            }
+        }
+        return request;
+    }
+    
+    public static ErrorResponseDTO readError(InputStream body) throws IOException {
+        CodedInputStream in = CodedInputStream.newInstance(body);
+        ErrorResponseDTO error = new ErrorResponseDTO();
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            switch (tag) {
+                case (ERROR_TIMESTAMP << 3) | LENGTH_DELIMITED -> error.setTimestamp(readTimestamp(in));
+                case (ERROR_STATUS << 3) | VARINT -> error.setStatus(in.readInt32());
+                case (ERROR_ERROR << 3) | LENGTH_DELIMITED -> error.setError(in.readStringRequireUtf8());
+                case (ERROR_MESSAGE << 3) | LENGTH_DELIMITED -> error.setMessage(in.readStringRequireUtf8());
+                case (ERROR_ERRORS << 3) | LENGTH_DELIMITED -> {
+                    if (error.getErrors() == null) {
+                        error.setErrors(new HashMap<>());
+                    }
+                    readEntry(in, error.getErrors());
+                }
+                default -> in.skipField(tag);
+            }
+        }
+        return error;
+    }
+    
+    private static void writeTodoFields(CodedOutputStream out, TodoResponseDTO todo) throws IOException {
+        if (todo.getId() != null) {
+            out.writeInt64(TODO_ID, todo.getId());
+        }
+        writeString(out, TODO_TITLE, todo.getTitle());
+        writeString(out, TODO_DESCRIPTION, todo.getDescription());
+        writeStatus(out, TODO_STATUS, todo.getStatus());
+        writeTimestamp(out, TODO_DUE_DATE, todo.getDueDate());
+        writeTimestamp(out, TODO_CREATED_AT, todo.getCreatedAt());
+        writeTimestamp(out, TODO_UPDATED_AT, todo.getUpdatedAt());
+        if (todo.getVersion() != null) {
+            out.writeInt64(TODO_VERSION, todo.getVersion());
+        }
+        writeString(out, TODO_LIST_KEY, todo.getListKey());
+    }
+    
+    // Length prefix of a nested Todo; strings are measured here and encoded again when written
+    private static int todoSize(TodoResponseDTO todo) {
+        int size = 0;
+        if (todo.getId() != null) {
+            size += CodedOutputStream.computeInt64Size(TODO_ID, todo.getId());
+        }
+        if (todo.getTitle() != null) {
+            size += CodedOutputStream.computeStringSize(TODO_TITLE, todo.getTitle());
+        }
+        if (todo.getDescription() != null) {
+            size += CodedOutputStream.computeStringSize(TODO_DESCRIPTION, todo.getDescription());
+        }
+        if (todo.getStatus() != null) {
+            size += CodedOutputStream.computeEnumSize(TODO_STATUS, todo.getStatus().ordinal() + 1);
+        }
+        size += timestampFieldSize(TODO_DUE_DATE, todo.getDueDate());
+        size += timestampFieldSize(TODO_CREATED_AT, todo.getCreatedAt());
+        size += timestampFieldSize(TODO_UPDATED_AT, todo.getUpdatedAt());
+        if (todo.getVersion() != null) {
+            size += CodedOutputStream.computeInt64Size(TODO_VERSION, todo.getVersion());
+        }
+        if (todo.getListKey() != null) {
+            size += CodedOutputStream.computeStringSize(TODO_LIST_KEY, todo.getListKey());
+        }
+        return size;
+    }
+    
+    private static TodoResponseDTO readTodoFields(CodedInputStream in) throws IOException {
+        TodoResponseDTO todo = new TodoResponseDTO();
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            switch (tag) {
+                case (TODO_ID << 3) | VARINT -> todo.setId(in.readInt64());
+                case (TODO_TITLE << 3) | LENGTH_DELIMITED -> todo.setTitle(in.readStringRequireUtf8());
+                case (TODO_DESCRIPTION << 3) | LENGTH_DELIMITED -> todo.setDescription(in.readStringRequireUtf8());
+                case (TODO_STATUS << 3) | VARINT -> todo.setStatus(readStatus(in));
+                case (TODO_DUE_DATE << 3) | LENGTH_DELIMITED -> todo.setDueDate(readTimestamp(in));
+                case (TODO_CREATED_AT << 3) | LENGTH_DELIMITED -> todo.setCreatedAt(readTimestamp(in));
+                case (TODO_UPDATED_AT << 3) | LENGTH_DELIMITED -> todo.setUpdatedAt(readTimestamp(in));
+                case (TODO_VERSION << 3) | VARINT -> todo.setVersion(in.readInt64());
+                case (TODO_LIST_KEY << 3) | LENGTH_DELIMITED -> todo.setListKey(in.readStringRequireUtf8());
+                default -> in.skipField(tag);
+            }
+        }
+        return todo;
+    }
+    
+    private static void writeString(CodedOutputStream out, int field, String value) throws IOException {
+        if (value != null) {
+            out.writeString(field, value);
+        }
+    }
+    
+    // Enum values are shifted by one: 0 is TODO_STATUS_UNSPECIFIED, read back as no status
+    private static void writeStatus(CodedOutputStream out, int field, TodoStatus status) throws IOException {
+        if (status != null) {
+            out.writeEnum(field, status.ordinal() + 1);
+        }
+    }
+    
+    private static TodoStatus readStatus(CodedInputStream in) throws IOException {
+        int value = in.readEnum();
+        if (value == 0) {
+            return null;
+        }
+        if (value < 0 || value > STATUSES.length) {
+            throw new InvalidProtocolBufferException("Unknown todo status " + value);
+        }
+        return STATUSES[value - 1];
+    }
+    
+    private static void writeTimestamp(CodedOutputStream out, int field, LocalDateTime value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        long seconds = value.toEpochSecond(ZoneOffset.UTC);
+        int nanos = value.getNano();
+        out.writeTag(field, LENGTH_DELIMITED);
+        out.writeUInt32NoTag(timestampSize(seconds, nanos));
+        if (seconds != 0) {
+            out.writeInt64(TIMESTAMP_SECONDS, seconds);
+        }
+        if (nanos != 0) {
+            out.writeInt32(TIMESTAMP_NANOS, nanos);
+        }
+    }
+    
+    private static int timestampFieldSize(int field, LocalDateTime value) {
+        if (value == null) {
+            return 0;
+        }
+        int size = timestampSize(value.toEpochSecond(ZoneOffset.UTC), value.getNano());
+        return CodedOutputStream.computeTagSize(field) + CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+    }
+    
+    private static int timestampSize(long seconds, int nanos) {
+        return (seconds != 0 ? CodedOutputStream.computeInt64Size(TIMESTAMP_SECONDS, seconds) : 0)
+                + (nanos != 0 ? CodedOutputStream.computeInt32Size(TIMESTAMP_NANOS, nanos) : 0);
+    }
+    
+    private static LocalDateTime readTimestamp(CodedInputStream in) throws IOException {
+        int limit = in.pushLimit(in.readRawVarint32());
+        long seconds = 0;
+        int nanos = 0;
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            switch (tag) {
+                case (TIMESTAMP_SECONDS << 3) | VARINT -> seconds = in.readInt64();
+                case (TIMESTAMP_NANOS << 3) | VARINT -> nanos = in.readInt32();
+                default -> in.skipField(tag);
+            }
+        }
+        in.popLimit(limit);
+        try {
+            return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+        } catch (DateTimeException ex) {
+            throw new InvalidProtocolBufferException("Timestamp out of range: " + ex.getMessage());
+        }
+    }
+    
+    private static void readEntry(CodedInputStream in, Map<String, String> entries) throws IOException {
+        int limit = in.pushLimit(in.readRawVarint32());
+        String key = "";
+        String value = "";
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            switch (tag) {
+                case (ENTRY_KEY << 3) | LENGTH_DELIMITED -> key = in.readStringRequireUtf8();
+                case (ENTRY_VALUE << 3) | LENGTH_DELIMITED -> value = in.readStringRequireUtf8();
+                default -> in.skipField(tag);
+            }
+        }
+        in.popLimit(limit);
+        entries.put(key, value);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.todoapp.config;
+
+import com.example.todoapp.dtos.ErrorResponseDTO;
+import com.example.todoapp.dtos.TodoRequestDTO;
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads and writes {@code application/x-protobuf} (and {@code application/protobuf}) with
+ * {@link TodoProtobufCodec}: todos, lists of todos and error responses out, todo requests in.
+ * Any other body type is left to the other converters, so an endpoint without a protobuf
+ * representation answers 406 or 415 for these media types.
+ */
+public class TodoProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+    
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+    
+    public TodoProtobufHttpMessageConverter() {
+        super(PROTOBUF, new MediaType("application", "protobuf"));
+    }
+    
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == TodoRequestDTO.class || clazz == TodoResponseDTO.class || clazz == ErrorResponseDTO.class;
+    }
+    
+    @Override
+    public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+        return clazz == TodoRequestDTO.class && canRead(mediaType);
+    }
+    
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return type == TodoRequestDTO.class && canRead(mediaType);
+    }
+    
+    @Override
+    public boolean canWrite(Class<?> clazz, @Nullable MediaType mediaType) {
+        return (clazz == TodoResponseDTO.class || clazz == ErrorResponseDTO.class) && canWrite(mediaType);
+    }
+    
+    // Lists are recognised by their declared element type, which the value's class does not carry
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        if (type == null) {
+            return canWrite(clazz, mediaType);
+        }
+        ResolvableType resolved = ResolvableType.forType(type);
+        Class<?> rawClass = resolved.toClass();
+        boolean writable = rawClass == TodoResponseDTO.class || rawClass == ErrorResponseDTO.class
+                || (Collection.class.isAssignableFrom(rawClass)
+                        && resolved.asCollection().getGeneric(0).toClass() == TodoResponseDTO.class);
+        return writable && canWrite(mediaType);
+    }
+    
+    // Only asked once canRead or canWrite has accepted the type; the default would drop lists again
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return supports(clazz) || Collection.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+    
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return readInternal(TodoRequestDTO.class, inputMessage);
+    }
+    
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return TodoProtobufCodec.readRequest(inputMessage.getBody());
+        } catch (InvalidProtocolBufferException ex) {
+            throw new HttpMessageNotReadableException("Invalid protobuf TodoRequest: " + ex.getMessage(), ex, inputMessage);
+        }
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (body instanceof TodoResponseDTO todo) {
+            TodoProtobufCodec.writeTodo(todo, outputMessage.getBody());
+        } else if (body instanceof ErrorResponseDTO error) {
+            TodoProtobufCodec.writeError(error, outputMessage.getBody());
+        } else {
+            TodoProtobufCodec.writeTodos((Collection<TodoResponseDTO>) body, outputMessage.getBody());
+        }
+    }
+}
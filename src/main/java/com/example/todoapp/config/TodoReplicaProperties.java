@@ -0,0 +1,45 @@
+package com.example.todoapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "todo.replica")
+public class TodoReplicaProperties {
+    
+    // Serve read-only transactions from a local SQLite copy of the spring.datasource database
+    private boolean enabled = false;
+    
+    private String path = "./todo-replica.db";
+    
+    // How often changes written by other instances are pulled; this instance's own writes are
+    // pulled right after they commit
+    private Duration syncInterval = Duration.ofSeconds(1);
+    
+    // Changed rows per pull
+    private int batchSize = 1000;
+    
+    // Reads go to the primary while the last successful sync is older than this
+    private Duration maxLag = Duration.ofSeconds(30);
+    
+    private int readerPoolSize = Runtime.getRuntime().availableProcessors();
+    
+    // Getters and Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+    
+    public Duration getSyncInterval() { return syncInterval; }
+    public void setSyncInterval(Duration syncInterval) { this.syncInterval = syncInterval; }
+    
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+    
+    public Duration getMaxLag() { return maxLag; }
+    public void setMaxLag(Duration maxLag) { this.maxLag = maxLag; }
+    
+    public int getReaderPoolSize() { return readerPoolSize; }
+    public void setReaderPoolSize(int readerPoolSize) { this.readerPoolSize = readerPoolSize; }
+}
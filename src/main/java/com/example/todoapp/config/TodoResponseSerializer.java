@@ -0,0 +1,209 @@
+package com.example.todoapp.config;
+
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.models.TodoStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.json.JsonGeneratorImpl;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes {@link TodoResponseDTO} without the bean serializer's per-property reflection and
+ * without formatting dates through {@link DateTimeFormatter}. Field names and status values
+ * are pre-quoted and pre-encoded once, and date-times are written as ISO-8601 from one small
+ * char buffer per row straight into the generator, instead of as a formatted string each. The
+ * same serializer writes the CBOR and Smile encodings.
+ * <p>
+ * The output is byte-for-byte what Jackson's bean serializer produces with Spring Boot's
+ * settings (ISO date strings, nulls included, declaration order). Under any other settings, or
+ * for polymorphic typing, it hands over to the bean serializer it replaced.
+ */
+public class TodoResponseSerializer extends StdSerializer<TodoResponseDTO> implements ResolvableSerializer {
+    
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString TITLE = new SerializedString("title");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString DUE_DATE = new SerializedString("dueDate");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializableString UPDATED_AT = new SerializedString("updatedAt");
+    private static final SerializableString VERSION = new SerializedString("version");
+    private static final SerializableString LIST_KEY = new SerializedString("listKey");
+    private static final SerializableString[] STATUS_VALUES = statusValues();
+    
+    // "yyyy-MM-ddTHH:mm:ss.nnnnnnnnn" plus the quotes
+    private static final int MAX_DATE_TIME_LENGTH = 31;
+    
+    private final JsonSerializer<Object> beanSerializer;
+    
+    TodoResponseSerializer(JsonSerializer<Object> beanSerializer) {
+        super(TodoResponseDTO.class);
+        this.beanSerializer = beanSerializer;
+    }
+    
+    // Registers the serializer in front of Jackson's bean serializer for TodoResponseDTO
+    public static Module module() {
+        SimpleModule module = new SimpleModule("todo-response");
+        module.setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc,
+                                                      JsonSerializer<?> serializer) {
+                if (beanDesc.getBeanClass() == TodoResponseDTO.class) {
+                    return new TodoResponseSerializer((JsonSerializer<Object>) serializer);
+                }
+                return serializer;
+            }
+        });
+        return module;
+    }
+    
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+        if (beanSerializer instanceof ResolvableSerializer resolvable) {
+            resolvable.resolve(provider);
+        }
+    }
+    
+    @Override
+    public void serialize(TodoResponseDTO todo, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        if (!isDefaultConfig(provider.getConfig())) {
+            beanSerializer.serialize(todo, generator, provider);
+            return;
+        }
+        char[] buffer = new char[MAX_DATE_TIME_LENGTH];
+        generator.writeStartObject(todo);
+        generator.writeFieldName(ID);
+        writeNumber(generator, todo.getId());
+        generator.writeFieldName(TITLE);
+        generator.writeString(todo.getTitle());
+        generator.writeFieldName(DESCRIPTION);
+        generator.writeString(todo.getDescription());
+        generator.writeFieldName(STATUS);
+        if (todo.getStatus() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(STATUS_VALUES[todo.getStatus().ordinal()]);
+        }
+        generator.writeFieldName(DUE_DATE);
+        writeDateTime(generator, todo.getDueDate(), buffer);
+        generator.writeFieldName(CREATED_AT);
+        writeDateTime(generator, todo.getCreatedAt(), buffer);
+        generator.writeFieldName(UPDATED_AT);
+        writeDateTime(generator, todo.getUpdatedAt(), buffer);
+        generator.writeFieldName(VERSION);
+        writeNumber(generator, todo.getVersion());
+        generator.writeFieldName(LIST_KEY);
+        generator.writeString(todo.getListKey());
+        generator.writeEndObject();
+    }
+    
+    @Override
+    public void serializeWithType(TodoResponseDTO todo, JsonGenerator generator, SerializerProvider provider,
+                                  TypeSerializer typeSerializer) throws IOException {
+        beanSerializer.serializeWithType(todo, generator, provider, typeSerializer);
+    }
+    
+    // Checked per call: writers derived from one mapper share its serializers but may change these settings
+    private static boolean isDefaultConfig(SerializationConfig config) {
+        JsonInclude.Include inclusion = config.getDefaultPropertyInclusion(TodoResponseDTO.class).getValueInclusion();
+        return !config.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                && (inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS)
+                && config.getPropertyNamingStrategy() == null
+                && !config.isEnabled(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                && !config.isEnabled(SerializationFeature.WRITE_ENUMS_USING_TO_STRING)
+                && !config.isEnabled(SerializationFeature.WRITE_ENUMS_USING_INDEX)
+                && !config.getDefaultPropertyFormat(LocalDateTime.class).hasPattern();
+    }
+    
+    private static void writeNumber(JsonGenerator generator, Long value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value.longValue());
+        }
+    }
+    
+    /**
+     * Writes the value as {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} does: seconds always, and
+     * a fraction only when there are nanoseconds, without trailing zeros. Years outside 0-9999
+     * (signed in ISO-8601) go through the formatter.
+     */
+    static void writeDateTime(JsonGenerator generator, LocalDateTime value, char[] buffer) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+            return;
+        }
+        buffer[0] = '"';
+        int position = digits(buffer, 1, year, 4);
+        buffer[position++] = '-';
+        position = digits(buffer, position, value.getMonthValue(), 2);
+        buffer[position++] = '-';
+        position = digits(buffer, position, value.getDayOfMonth(), 2);
+        buffer[position++] = 'T';
+        position = digits(buffer, position, value.getHour(), 2);
+        buffer[position++] = ':';
+        position = digits(buffer, position, value.getMinute(), 2);
+        buffer[position++] = ':';
+        position = digits(buffer, position, value.getSecond(), 2);
+        int nano = value.getNano();
+        if (nano > 0) {
+            int width = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                width--;
+            }
+            buffer[position++] = '.';
+            position = digits(buffer, position, nano, width);
+        }
+        buffer[position++] = '"';
+        if (generator instanceof JsonGeneratorImpl) {
+            // Nothing in an ISO date-time needs escaping, so the quoted text goes out as is
+            generator.writeRawValue(buffer, 0, position);
+        } else {
+            // CBOR and Smile have no raw values
+            generator.writeString(buffer, 1, position - 2);
+        }
+    }
+    
+    // Zero-padded to width
+    private static int digits(char[] buffer, int position, int value, int width) {
+        for (int i = position + width - 1; i >= position; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return position + width;
+    }
+    
+    private static SerializableString[] statusValues() {
+        TodoStatus[] statuses = TodoStatus.values();
+        SerializableString[] values = new SerializableString[statuses.length];
+        for (TodoStatus status : statuses) {
+            values[status.ordinal()] = new SerializedString(status.name());
+        }
+        return values;
+    }
+}
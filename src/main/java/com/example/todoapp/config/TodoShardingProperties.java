@@ -0,0 +1,32 @@
+package com.example.todoapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "todo.sharding")
+public class TodoShardingProperties {
+    
+    static final String SHARD_PLACEHOLDER = "{shard}";
+    
+    // SQLite files todos are spread over by list key; 1 keeps them all in the spring.datasource database
+    private int count = 1;
+    
+    // One file per shard, numbered from 0
+    private String path = "./todo-shard-" + SHARD_PLACEHOLDER + ".db";
+    
+    // Per shard; every shard also has its own writer connection
+    private int readerPoolSize = Runtime.getRuntime().availableProcessors();
+    
+    public String pathOf(int shard) {
+        return path.replace(SHARD_PLACEHOLDER, String.valueOf(shard));
+    }
+    
+    // Getters and Setters
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+    
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+    
+    public int getReaderPoolSize() { return readerPoolSize; }
+    public void setReaderPoolSize(int readerPoolSize) { this.readerPoolSize = readerPoolSize; }
+}
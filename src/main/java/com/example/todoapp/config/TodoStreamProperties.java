@@ -0,0 +1,29 @@
+package com.example.todoapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "todo.stream")
+public class TodoStreamProperties {
+    
+    // Committed changes kept in memory for subscribers that reconnect with Last-Event-ID;
+    // a subscriber that falls further behind than this is told to reload instead
+    private int bufferSize = 4096;
+    
+    // Comment sent to idle subscribers, so proxies keep the connection open and dead clients are noticed
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+    
+    // After this the stream is closed and the client reconnects, resuming from its last event
+    private Duration timeout = Duration.ofMinutes(30);
+    
+    // Getters and Setters
+    public int getBufferSize() { return bufferSize; }
+    public void setBufferSize(int bufferSize) { this.bufferSize = bufferSize; }
+    
+    public Duration getHeartbeatInterval() { return heartbeatInterval; }
+    public void setHeartbeatInterval(Duration heartbeatInterval) { this.heartbeatInterval = heartbeatInterval; }
+    
+    public Duration getTimeout() { return timeout; }
+    public void setTimeout(Duration timeout) { this.timeout = timeout; }
+}
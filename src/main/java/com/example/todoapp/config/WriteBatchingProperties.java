@@ -0,0 +1,33 @@
+package com.example.todoapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "todo.write-batching")
+public class WriteBatchingProperties {
+    
+    // Coalesce concurrent createTodo/updateTodo calls into shared transactions
+    private boolean enabled = false;
+    
+    // How long the first write of a batch waits for company before committing
+    private Duration window = Duration.ofMillis(2);
+    
+    private int maxBatchSize = 64;
+    
+    // Callers block once this many writes are waiting
+    private int queueCapacity = 10_000;
+    
+    // Getters and Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    
+    public Duration getWindow() { return window; }
+    public void setWindow(Duration window) { this.window = window; }
+    
+    public int getMaxBatchSize() { return maxBatchSize; }
+    public void setMaxBatchSize(int maxBatchSize) { this.maxBatchSize = maxBatchSize; }
+    
+    public int getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+}
@@ -1,94 +1,284 @@
 package com.example.todoapp.controller;
 
+import com.example.todoapp.dtos.BatchResultDTO;
+import com.example.todoapp.dtos.CleanupStatusDTO;
+import com.example.todoapp.dtos.CursorPage;
+import com.example.todoapp.dtos.TodoChangesDTO;
+import com.example.todoapp.dtos.TodoBatchRequestDTO;
 import com.example.todoapp.dtos.TodoRequestDTO;
 import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.dtos.TodoUpdateItemDTO;
 import com.example.todoapp.models.TodoStatus;
 import com.example.todoapp.service.TodoService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/todos")
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = { TodoController.NEXT_CURSOR_HEADER, HttpHeaders.LINK, HttpHeaders.ETAG })
 public class TodoController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String DEFAULT_PAGE_SIZE = "50";
+    static final String CHANGES_PAGE_SIZE = "500";
+    static final String NDJSON_VALUE = "application/x-ndjson";
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+
     private final TodoService todoService;
+    private final TodoEventStream todoEventStream;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter exportWriter;
 
     @Autowired
-    public TodoController(TodoService todoService) {
+    public TodoController(TodoService todoService, TodoEventStream todoEventStream, ObjectMapper objectMapper) {
         this.todoService = todoService;
+        this.todoEventStream = todoEventStream;
+        this.objectMapper = objectMapper;
+        this.exportWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @PostMapping
     public ResponseEntity<TodoResponseDTO> createTodo(@Valid @RequestBody TodoRequestDTO todoRequest) {
         TodoResponseDTO createdTodo = todoService.createTodo(todoRequest);
-        return new ResponseEntity<>(createdTodo, HttpStatus.CREATED);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(TodoETags.of(createdTodo, representation()))
+                .varyBy(HttpHeaders.ACCEPT).body(createdTodo);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResultDTO> createTodos(
+            @Valid @RequestBody TodoBatchRequestDTO<TodoRequestDTO> batchRequest) {
+        BatchResultDTO result = todoService.createTodos(batchRequest.getTodos());
+        return new ResponseEntity<>(result, HttpStatus.CREATED);
+    }
+
+    @PatchMapping("/batch")
+    public ResponseEntity<BatchResultDTO> updateTodos(
+            @Valid @RequestBody TodoBatchRequestDTO<TodoUpdateItemDTO> batchRequest) {
+        BatchResultDTO result = todoService.updateTodos(batchRequest.getTodos());
+        return ResponseEntity.ok(result);
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<BatchResultDTO> deleteTodos(@RequestParam List<Long> ids) {
+        BatchResultDTO result = todoService.deleteTodos(ids);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<TodoResponseDTO>> getTodosByIds(@RequestParam List<Long> ids) {
+        List<TodoResponseDTO> todos = todoService.getTodosByIds(ids);
+        return ResponseEntity.ok().eTag(TodoETags.ofList(todos, null, representation()))
+                .varyBy(HttpHeaders.ACCEPT).body(todos);
     }
 
+    @GetMapping(value = "/export", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTodos() {
+        StreamingResponseBody body = out -> {
+            // The export transaction runs on the async request thread and writes one line per row
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                int[] written = { 0 };
+                todoService.exportTodos(todo -> {
+                    try {
+                        exportWriter.writeValue(generator, todo);
+                        generator.writeRaw('\n');
+                        if (++written[0] % EXPORT_FLUSH_INTERVAL == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(body);
+    }
+
+    // Push feed of committed changes: created, updated and deleted events carry the todo (or its id),
+    // filtered to todos entering or leaving the given status; EventSource resumes with Last-Event-ID
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTodos(@RequestParam(required = false) TodoStatus status,
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        return todoEventStream.subscribe(lastEventId, status);
+    }
+
+    // A matching If-None-Match is answered from the version alone: the todo is neither loaded nor serialized.
+    // With includeArchived, a todo missing from the table is looked up in the archive.
+    // The 304 is written here, so it gets its Vary header here too
     @GetMapping("/{id}")
-    public ResponseEntity<TodoResponseDTO> getTodoById(@PathVariable Long id) {
+    public ResponseEntity<TodoResponseDTO> getTodoById(@PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean includeArchived, WebRequest request,
+            HttpServletResponse response) {
+        String representation = representation();
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (includeArchived) {
+            TodoResponseDTO todo = todoService.getTodoByIdIncludingArchived(id);
+            return request.checkNotModified(TodoETags.of(todo, representation)) ? null
+                    : ResponseEntity.ok().eTag(TodoETags.of(todo, representation)).body(todo);
+        }
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(TodoETags.of(todoService.getTodoVersion(id), representation))) {
+            return null;
+        }
         TodoResponseDTO todo = todoService.getTodoById(id);
-        return ResponseEntity.ok(todo);
+        return ResponseEntity.ok().eTag(TodoETags.of(todo, representation)).body(todo);
     }
 
     @GetMapping
-    public ResponseEntity<List<TodoResponseDTO>> getAllTodos() {
-        List<TodoResponseDTO> todos = todoService.getAllTodos();
-        return ResponseEntity.ok(todos);
+    public ResponseEntity<List<TodoResponseDTO>> getAllTodos(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) String listKey) {
+        if (listKey != null) {
+            if (includeArchived) {
+                throw new IllegalArgumentException("listKey cannot be combined with includeArchived");
+            }
+            return pageResponse(todoService.getTodosInList(listKey, cursor, limit));
+        }
+        CursorPage<TodoResponseDTO> todos = includeArchived
+                ? todoService.getTodosIncludingArchived(null, cursor, limit)
+                : todoService.getAllTodos(cursor, limit);
+        return pageResponse(todos);
     }
 
+    // Archived todos only, optionally filtered by status and by last update (from inclusive, to exclusive)
+    @GetMapping("/archived")
+    public ResponseEntity<List<TodoResponseDTO>> getArchivedTodos(
+            @RequestParam(required = false) TodoStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        CursorPage<TodoResponseDTO> todos = todoService.getArchivedTodos(status, updatedFrom, updatedTo, cursor, limit);
+        return pageResponse(todos);
+    }
+
+    // With If-Match, the write only happens if the todo is still at that version (412 otherwise)
     @PutMapping("/{id}")
     public ResponseEntity<TodoResponseDTO> updateTodo(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody TodoRequestDTO todoRequest) {
-        TodoResponseDTO updatedTodo = todoService.updateTodo(id, todoRequest);
-        return ResponseEntity.ok(updatedTodo);
+        TodoResponseDTO updatedTodo = todoService.updateTodo(id, todoRequest, expectedVersion(id, ifMatch));
+        return ResponseEntity.ok().eTag(TodoETags.of(updatedTodo, representation()))
+                .varyBy(HttpHeaders.ACCEPT).body(updatedTodo);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteTodo(@PathVariable Long id) {
-        todoService.deleteTodo(id);
+    public ResponseEntity<Void> deleteTodo(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        todoService.deleteTodo(id, expectedVersion(id, ifMatch));
         return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<TodoResponseDTO>> getTodosByStatus(@PathVariable TodoStatus status) {
-        List<TodoResponseDTO> todos = todoService.getTodosByStatus(status);
-        return ResponseEntity.ok(todos);
+    public ResponseEntity<List<TodoResponseDTO>> getTodosByStatus(@PathVariable TodoStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        CursorPage<TodoResponseDTO> todos = includeArchived
+                ? todoService.getTodosIncludingArchived(status, cursor, limit)
+                : todoService.getTodosByStatus(status, cursor, limit);
+        return pageResponse(todos);
     }
 
+    // Full-text search over title and description; "title" is the older name of "q"
     @GetMapping("/search")
-    public ResponseEntity<List<TodoResponseDTO>> searchTodosByTitle(@RequestParam String title) {
-        List<TodoResponseDTO> todos = todoService.searchTodosByTitle(title);
-        return ResponseEntity.ok(todos);
+    public ResponseEntity<List<TodoResponseDTO>> searchTodos(
+            @RequestParam(name = "q", required = false) String query,
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        String terms = query != null ? query : title;
+        if (terms == null) {
+            throw new IllegalArgumentException("Query parameter q is required");
+        }
+        CursorPage<TodoResponseDTO> todos = todoService.searchTodos(terms, cursor, limit);
+        return pageResponse(todos);
     }
 
     @GetMapping("/overdue")
-    public ResponseEntity<List<TodoResponseDTO>> getOverdueTodos() {
-        List<TodoResponseDTO> todos = todoService.getOverdueTodos();
-        return ResponseEntity.ok(todos);
+    public ResponseEntity<List<TodoResponseDTO>> getOverdueTodos(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        CursorPage<TodoResponseDTO> todos = todoService.getOverdueTodos(cursor, limit);
+        return pageResponse(todos);
     }
 
     @GetMapping("/due-after")
     public ResponseEntity<List<TodoResponseDTO>> getTodosDueAfter(
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime date) {
-        List<TodoResponseDTO> todos = todoService.getTodosDueAfter(date);
-        return ResponseEntity.ok(todos);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime date,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        CursorPage<TodoResponseDTO> todos = todoService.getTodosDueAfter(date, cursor, limit);
+        return pageResponse(todos);
+    }
+
+    // within is an ISO-8601 duration, e.g. PT30M
+    @GetMapping("/due-soon")
+    public ResponseEntity<List<TodoResponseDTO>> getTodosDueSoon(
+            @RequestParam Duration within,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        CursorPage<TodoResponseDTO> todos = todoService.getTodosDueSoon(within, cursor, limit);
+        return pageResponse(todos);
+    }
+
+    @GetMapping("/next-due")
+    public ResponseEntity<List<TodoResponseDTO>> getNextDueTodos(
+            @RequestParam(defaultValue = "10") int limit) {
+        List<TodoResponseDTO> todos = todoService.getNextDueTodos(limit);
+        return ResponseEntity.ok().eTag(TodoETags.ofList(todos, null, representation()))
+                .varyBy(HttpHeaders.ACCEPT).body(todos);
     }
 
     @GetMapping("/created-between")
     public ResponseEntity<List<TodoResponseDTO>> getTodosCreatedBetween(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        List<TodoResponseDTO> todos = todoService.getTodosCreatedBetween(startDate, endDate);
-        return ResponseEntity.ok(todos);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        CursorPage<TodoResponseDTO> todos = todoService.getTodosCreatedBetween(startDate, endDate, cursor, limit);
+        return pageResponse(todos);
+    }
+
+    // Delta sync: everything that changed after the client's last seen version, optionally in one list
+    @GetMapping("/changes")
+    public ResponseEntity<TodoChangesDTO> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = CHANGES_PAGE_SIZE) int limit,
+            @RequestParam(required = false) String listKey) {
+        return ResponseEntity.ok(listKey != null
+                ? todoService.getChangesSince(listKey, since, limit)
+                : todoService.getChangesSince(since, limit));
     }
 
     @GetMapping("/count/{status}")
@@ -97,10 +287,57 @@ public class TodoController {
         return ResponseEntity.ok(Map.of("count", count));
     }
 
+    @GetMapping("/counts")
+    public ResponseEntity<Map<TodoStatus, Long>> countTodos() {
+        return ResponseEntity.ok(todoService.countTodos());
+    }
+
+    // The purge runs in the background; while one is running, its status is returned instead of starting another
     @DeleteMapping("/cleanup")
-    public ResponseEntity<Void> deleteCompletedTodosOlderThan(
+    public ResponseEntity<CleanupStatusDTO> deleteCompletedTodosOlderThan(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime date) {
-        todoService.deleteCompletedTodosOlderThan(date);
-        return ResponseEntity.noContent().build();
+        return ResponseEntity.accepted().body(todoService.deleteCompletedTodosOlderThan(date));
+    }
+
+    @GetMapping("/cleanup")
+    public ResponseEntity<CleanupStatusDTO> getCleanupStatus() {
+        return ResponseEntity.ok(todoService.getCleanupStatus());
+    }
+
+    // The body stays a plain JSON array; the cursor for the next page travels in headers.
+    // Spring answers a matching If-None-Match with 304 before serializing the page
+    private ResponseEntity<List<TodoResponseDTO>> pageResponse(CursorPage<TodoResponseDTO> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(TodoETags.ofList(page.getItems(), page.getNextCursor(), representation()))
+                .varyBy(HttpHeaders.ACCEPT);
+        if (page.hasNext()) {
+            String nextUri = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.getNextCursor())
+                    .toUriString();
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            response.header(HttpHeaders.LINK, "<" + nextUri + ">; rel=\"next\"");
+        }
+        return response.body(page.getItems());
+    }
+
+    // The version a write is conditional on. With several tags in If-Match that is the current version
+    // if one of them names it; the service checks it again as it writes, so a concurrent write still fails
+    private Long expectedVersion(Long id, String ifMatch) {
+        List<Long> versions = TodoETags.expectedVersions(ifMatch);
+        if (versions == null) {
+            return null;
+        }
+        if (versions.size() == 1) {
+            return versions.get(0);
+        }
+        long current = todoService.getTodoVersion(id);
+        return versions.contains(current) ? current : versions.get(0);
+    }
+
+    // Which of the todo formats this request negotiates, for the representation part of its ETag
+    private static String representation() {
+        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes())
+                .getRequest();
+        return TodoETags.representation(request.getHeaders(HttpHeaders.ACCEPT));
     }
 }
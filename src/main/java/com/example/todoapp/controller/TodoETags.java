@@ -0,0 +1,123 @@
+package com.example.todoapp.controller;
+
+import com.example.todoapp.config.TodoProtobufHttpMessageConverter;
+import com.example.todoapp.dtos.TodoResponseDTO;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Strong entity tags for todo responses. A single todo's ETag is its row version, which
+ * changes with every write; a list's ETag is a digest of the ids and versions it contains
+ * (and of the next-page cursor), so it changes whenever any item in it does.
+ * <p>
+ * The same data is served as JSON, CBOR, Smile or protobuf, and a strong tag must differ between
+ * representations that differ byte for byte, so the binary formats get a suffix naming the format
+ * ({@code "3-cbor"}); JSON keeps the bare tag. Responses carrying a tag vary by Accept.
+ */
+final class TodoETags {
+    
+    private static final Pattern ENTITY_TAG = Pattern.compile("\\s*(W/)?\"([^\"]*)\"\\s*(,|$)");
+    // A version, optionally followed by the representation suffix
+    private static final Pattern VERSION_TAG = Pattern.compile("(\\d{1,18})(-[a-z]+)?");
+    
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+    
+    // In the order Spring MVC's converters offer them when the client accepts several equally
+    private static final List<MediaType> REPRESENTATIONS = List.of(MediaType.APPLICATION_JSON,
+            MediaType.APPLICATION_CBOR, SMILE, TodoProtobufHttpMessageConverter.PROTOBUF);
+    private static final Map<MediaType, String> SUFFIXES = Map.of(
+            MediaType.APPLICATION_JSON, "",
+            MediaType.APPLICATION_CBOR, "-cbor",
+            SMILE, "-smile",
+            TodoProtobufHttpMessageConverter.PROTOBUF, "-protobuf");
+    
+    private TodoETags() {}
+    
+    static String of(long version, String representation) {
+        return "\"" + version + representation + "\"";
+    }
+    
+    static String of(TodoResponseDTO todo, String representation) {
+        return of(todo.getVersion(), representation);
+    }
+    
+    static String ofList(List<TodoResponseDTO> todos, String nextCursor, String representation) {
+        StringBuilder key = new StringBuilder(todos.size() * 12);
+        for (TodoResponseDTO todo : todos) {
+            key.append(todo.getId()).append(':').append(todo.getVersion()).append(',');
+        }
+        key.append(nextCursor);
+        return "\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + representation + "\"";
+    }
+    
+    /**
+     * The tag suffix of the representation content negotiation picks for these Accept headers:
+     * the most specific, highest quality accepted type that a todo converter produces. An
+     * unparseable or unsatisfiable header gets the JSON suffix; such requests fail with 400 or
+     * 406 before a tag is sent.
+     */
+    static String representation(Enumeration<String> acceptHeaders) {
+        List<MediaType> accepted = new ArrayList<>();
+        try {
+            while (acceptHeaders != null && acceptHeaders.hasMoreElements()) {
+                accepted.addAll(MediaType.parseMediaTypes(acceptHeaders.nextElement()));
+            }
+        } catch (InvalidMediaTypeException ex) {
+            return "";
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType representation : REPRESENTATIONS) {
+                if (type.isCompatibleWith(representation)) {
+                    return SUFFIXES.get(representation);
+                }
+            }
+        }
+        return "";
+    }
+    
+    /**
+     * The versions an If-Match header names, or null when any version will do (no header, or
+     * {@code *}). The precondition holds if the current version is any of them. If-Match uses
+     * strong comparison, so weak and foreign tags never match, and a header naming no version
+     * fails its precondition straight away. A tag may come from any representation: all of them
+     * name the version the write is conditional on.
+     */
+    static List<Long> expectedVersions(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        List<Long> versions = new ArrayList<>();
+        Matcher matcher = ENTITY_TAG.matcher(ifMatch);
+        int end = 0;
+        while (end < ifMatch.length() && matcher.find(end) && matcher.start() == end) {
+            Matcher version = VERSION_TAG.matcher(matcher.group(2));
+            if (matcher.group(1) == null && version.matches()
+                    && (version.group(2) == null || SUFFIXES.containsValue(version.group(2)))) {
+                versions.add(Long.parseLong(version.group(1)));
+            }
+            end = matcher.end();
+        }
+        if (end < ifMatch.length()) {
+            throw new IllegalArgumentException("Malformed If-Match header");
+        }
+        if (versions.isEmpty()) {
+            throw new OptimisticLockingFailureException("If-Match does not name a current version");
+        }
+        return versions.stream().distinct().toList();
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.todoapp.controller;
+
+import com.example.todoapp.config.TodoStreamProperties;
+import com.example.todoapp.models.TodoStatus;
+import com.example.todoapp.service.TodoChangeFeed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events for {@code GET /api/todos/stream}. Each subscriber gets a virtual thread
+ * that follows the {@link TodoChangeFeed} from its own position and writes to its connection,
+ * so a slow client only holds up its own thread. A client that falls out of the feed's buffer,
+ * or resumes with an unknown Last-Event-ID, receives a {@code reset} event and should reload.
+ */
+@Component
+public class TodoEventStream implements DisposableBean {
+    
+    private static final Logger log = LoggerFactory.getLogger(TodoEventStream.class);
+    
+    static final String RESET_EVENT = "reset";
+    private static final int READ_BATCH_SIZE = 256;
+    
+    private final TodoChangeFeed feed;
+    private final TodoStreamProperties properties;
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    
+    @Autowired
+    public TodoEventStream(TodoChangeFeed feed, TodoStreamProperties properties, MeterRegistry meterRegistry) {
+        this.feed = feed;
+        this.properties = properties;
+        Gauge.builder("todo.stream.subscribers", subscribers, AtomicInteger::get)
+                .description("Open GET /api/todos/stream connections")
+                .register(meterRegistry);
+    }
+    
+    // status null streams every change; lastEventId null starts with the next change
+    public SseEmitter subscribe(String lastEventId, TodoStatus status) {
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        long after = lastEventId == null ? feed.latestSequence() : feed.resumeAfter(lastEventId);
+        Future<?> sender = senders.submit(() -> send(emitter, after, status));
+        emitter.onCompletion(() -> sender.cancel(true));
+        emitter.onError(ex -> sender.cancel(true));
+        // Completing on timeout ends the response cleanly; EventSource reconnects with Last-Event-ID
+        emitter.onTimeout(emitter::complete);
+        return emitter;
+    }
+    
+    private void send(SseEmitter emitter, long after, TodoStatus status) {
+        subscribers.incrementAndGet();
+        try {
+            // Commits the response headers, so the client sees the stream open straight away
+            emitter.send(SseEmitter.event().comment("subscribed"));
+            long position = after;
+            if (position < 0) {
+                position = reset(emitter);
+            }
+            long heartbeatNanos = properties.getHeartbeatInterval().toNanos();
+            long lastSent = System.nanoTime();
+            while (!Thread.currentThread().isInterrupted()) {
+                TodoChangeFeed.Batch batch = feed.read(position, READ_BATCH_SIZE, properties.getHeartbeatInterval());
+                if (batch.isGap()) {
+                    position = reset(emitter);
+                    lastSent = System.nanoTime();
+                    continue;
+                }
+                for (TodoChangeFeed.Change change : batch.getChanges()) {
+                    if (change.concerns(status)) {
+                        emitter.send(SseEmitter.event()
+                                .id(feed.eventId(change.getSequence()))
+                                .name(change.getType())
+                                .data(change.getData()));
+                        lastSent = System.nanoTime();
+                    }
+                    position = change.getSequence();
+                }
+                if (System.nanoTime() - lastSent >= heartbeatNanos) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                    lastSent = System.nanoTime();
+                }
+            }
+            emitter.complete();
+        } catch (InterruptedException ex) {
+            emitter.complete();
+        } catch (IOException | IllegalStateException ex) {
+            // The client went away, or the emitter already completed
+            log.debug("Todo stream subscriber disconnected: {}", ex.getMessage());
+            emitter.completeWithError(ex);
+        } finally {
+            subscribers.decrementAndGet();
+        }
+    }
+    
+    // Everything up to the returned position is already in the database the client reloads from
+    private long reset(SseEmitter emitter) throws IOException {
+        long position = feed.latestSequence();
+        emitter.send(SseEmitter.event()
+                .id(feed.eventId(position))
+                .name(RESET_EVENT)
+                .data(Map.of()));
+        return position;
+    }
+    
+    @Override
+    public void destroy() {
+        // Interrupts the senders, which complete their responses
+        senders.shutdownNow();
+    }
+}
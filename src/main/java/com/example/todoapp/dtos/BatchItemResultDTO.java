@@ -0,0 +1,37 @@
+package com.example.todoapp.dtos;
+
+public class BatchItemResultDTO {
+    
+    private int index;
+    private Long id;
+    private int status;
+    private TodoResponseDTO todo;
+    private String error;
+    
+    // Constructors
+    public BatchItemResultDTO() {}
+    
+    public BatchItemResultDTO(int index, Long id, int status, TodoResponseDTO todo, String error) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.todo = todo;
+        this.error = error;
+    }
+    
+    // Getters and Setters
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+    
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public int getStatus() { return status; }
+    public void setStatus(int status) { this.status = status; }
+    
+    public TodoResponseDTO getTodo() { return todo; }
+    public void setTodo(TodoResponseDTO todo) { this.todo = todo; }
+    
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,29 @@
+package com.example.todoapp.dtos;
+
+import java.util.List;
+
+public class BatchResultDTO {
+    
+    private int succeeded;
+    private int failed;
+    private List<BatchItemResultDTO> results;
+    
+    // Constructors
+    public BatchResultDTO() {}
+    
+    public BatchResultDTO(List<BatchItemResultDTO> results) {
+        this.results = results;
+        this.failed = (int) results.stream().filter(result -> result.getError() != null).count();
+        this.succeeded = results.size() - failed;
+    }
+    
+    // Getters and Setters
+    public int getSucceeded() { return succeeded; }
+    public void setSucceeded(int succeeded) { this.succeeded = succeeded; }
+    
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+    
+    public List<BatchItemResultDTO> getResults() { return results; }
+    public void setResults(List<BatchItemResultDTO> results) { this.results = results; }
+}
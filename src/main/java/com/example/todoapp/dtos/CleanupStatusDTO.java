@@ -0,0 +1,75 @@
+package com.example.todoapp.dtos;
+
+import com.example.todoapp.models.TodoStatus;
+
+import java.time.LocalDateTime;
+
+public class CleanupStatusDTO {
+    
+    public enum State { IDLE, RUNNING, COMPLETED, FAILED }
+    
+    private State state;
+    
+    // Todos with this status, last updated before updatedBefore, are purged
+    private TodoStatus status;
+    private LocalDateTime updatedBefore;
+    
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    
+    // Matching rows counted when the purge started; rows matching later are purged too
+    private long total;
+    private long deleted;
+    private int chunks;
+    
+    // Why a FAILED purge stopped; the rows deleted so far stay deleted
+    private String error;
+    
+    // Constructors
+    public CleanupStatusDTO() {}
+    
+    public CleanupStatusDTO(State state, TodoStatus status, LocalDateTime updatedBefore, LocalDateTime startedAt,
+                            LocalDateTime finishedAt, long total, long deleted, int chunks, String error) {
+        this.state = state;
+        this.status = status;
+        this.updatedBefore = updatedBefore;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.total = total;
+        this.deleted = deleted;
+        this.chunks = chunks;
+        this.error = error;
+    }
+    
+    public static CleanupStatusDTO idle() {
+        return new CleanupStatusDTO(State.IDLE, null, null, null, null, 0, 0, 0, null);
+    }
+    
+    // Getters and Setters
+    public State getState() { return state; }
+    public void setState(State state) { this.state = state; }
+    
+    public TodoStatus getStatus() { return status; }
+    public void setStatus(TodoStatus status) { this.status = status; }
+    
+    public LocalDateTime getUpdatedBefore() { return updatedBefore; }
+    public void setUpdatedBefore(LocalDateTime updatedBefore) { this.updatedBefore = updatedBefore; }
+    
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+    
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+    
+    public long getDeleted() { return deleted; }
+    public void setDeleted(long deleted) { this.deleted = deleted; }
+    
+    public int getChunks() { return chunks; }
+    public void setChunks(int chunks) { this.chunks = chunks; }
+    
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
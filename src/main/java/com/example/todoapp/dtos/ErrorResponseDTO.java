@@ -0,0 +1,49 @@
+package com.example.todoapp.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public class ErrorResponseDTO {
+    
+    private LocalDateTime timestamp;
+    private int status;
+    private String error;
+    private String message;
+    
+    // Field name to message, for validation failures only
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, String> errors;
+    
+    // Constructors
+    public ErrorResponseDTO() {}
+    
+    public ErrorResponseDTO(int status, String error, String message) {
+        this(status, error, message, null);
+    }
+    
+    public ErrorResponseDTO(int status, String error, String message, Map<String, String> errors) {
+        this.timestamp = LocalDateTime.now();
+        this.status = status;
+        this.error = error;
+        this.message = message;
+        this.errors = errors;
+    }
+    
+    // Getters and Setters
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+    
+    public int getStatus() { return status; }
+    public void setStatus(int status) { this.status = status; }
+    
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+    
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+    
+    public Map<String, String> getErrors() { return errors; }
+    public void setErrors(Map<String, String> errors) { this.errors = errors; }
+}
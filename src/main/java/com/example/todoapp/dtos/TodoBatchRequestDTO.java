@@ -0,0 +1,28 @@
+package com.example.todoapp.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class TodoBatchRequestDTO<T> {
+    
+    public static final int MAX_BATCH_SIZE = 500;
+    
+    @NotEmpty(message = "At least one todo is required")
+    @Size(max = MAX_BATCH_SIZE, message = "A batch cannot exceed " + MAX_BATCH_SIZE + " todos")
+    @Valid
+    private List<T> todos;
+    
+    // Constructors
+    public TodoBatchRequestDTO() {}
+    
+    public TodoBatchRequestDTO(List<T> todos) {
+        this.todos = todos;
+    }
+    
+    // Getters and Setters
+    public List<T> getTodos() { return todos; }
+    public void setTodos(List<T> todos) { this.todos = todos; }
+}
@@ -0,0 +1,41 @@
+package com.example.todoapp.dtos;
+
+import java.util.List;
+
+public class TodoChangesDTO {
+    
+    // Todos created or updated after the requested version, in their current state
+    private List<TodoResponseDTO> upserted;
+    
+    // Ids of todos deleted after the requested version
+    private List<Long> deleted;
+    
+    // Pass as "since" on the next call
+    private long version;
+    
+    // More changes are waiting beyond this page
+    private boolean hasMore;
+    
+    // Constructors
+    public TodoChangesDTO() {}
+    
+    public TodoChangesDTO(List<TodoResponseDTO> upserted, List<Long> deleted, long version, boolean hasMore) {
+        this.upserted = upserted;
+        this.deleted = deleted;
+        this.version = version;
+        this.hasMore = hasMore;
+    }
+    
+    // Getters and Setters
+    public List<TodoResponseDTO> getUpserted() { return upserted; }
+    public void setUpserted(List<TodoResponseDTO> upserted) { this.upserted = upserted; }
+    
+    public List<Long> getDeleted() { return deleted; }
+    public void setDeleted(List<Long> deleted) { this.deleted = deleted; }
+    
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+    
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
@@ -18,6 +18,10 @@ public class TodoRequestDTO {
     private TodoStatus status;
     private LocalDateTime dueDate;
     
+    // Optional: the default list when absent on create; an update may repeat it but not change it
+    @Size(min = 1, max = 100, message = "List key must be between 1 and 100 characters")
+    private String listKey;
+    
     // Constructors
     public TodoRequestDTO() {}
     
@@ -40,4 +44,7 @@ public class TodoRequestDTO {
     
     public LocalDateTime getDueDate() { return dueDate; }
     public void setDueDate(LocalDateTime dueDate) { this.dueDate = dueDate; }
+    
+    public String getListKey() { return listKey; }
+    public void setListKey(String listKey) { this.listKey = listKey; }
 }
\ No newline at end of file
@@ -14,6 +14,9 @@ public class TodoResponseDTO {
     private LocalDateTime dueDate;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
+    // The list the todo belongs to, which is also its shard; updates must repeat it unchanged
+    private String listKey;
     
     // Constructors
     public TodoResponseDTO() {}
@@ -26,6 +29,28 @@ public class TodoResponseDTO {
         this.dueDate = todo.getDueDate();
         this.createdAt = todo.getCreatedAt();
         this.updatedAt = todo.getUpdatedAt();
+        this.version = todo.getVersion();
+        this.listKey = todo.getListKey();
+    }
+    
+    public TodoResponseDTO(Long id, String title, String description, TodoStatus status,
+                           LocalDateTime dueDate, LocalDateTime createdAt, LocalDateTime updatedAt, Long version) {
+        this(id, title, description, status, dueDate, createdAt, updatedAt, version, null);
+    }
+    
+    // Used by the constructor expressions in TodoRepository
+    public TodoResponseDTO(Long id, String title, String description, TodoStatus status,
+                           LocalDateTime dueDate, LocalDateTime createdAt, LocalDateTime updatedAt, Long version,
+                           String listKey) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.status = status;
+        this.dueDate = dueDate;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.version = version;
+        this.listKey = listKey;
     }
     
     // Getters and Setters
@@ -49,4 +74,10 @@ public class TodoResponseDTO {
     
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
+    public String getListKey() { return listKey; }
+    public void setListKey(String listKey) { this.listKey = listKey; }
 }
@@ -0,0 +1,24 @@
+package com.example.todoapp.dtos;
+
+import com.example.todoapp.models.TodoStatus;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+public class TodoUpdateItemDTO extends TodoRequestDTO {
+    
+    @NotNull(message = "Id is required")
+    private Long id;
+    
+    // Constructors
+    public TodoUpdateItemDTO() {}
+    
+    public TodoUpdateItemDTO(Long id, String title, String description, TodoStatus status, LocalDateTime dueDate) {
+        super(title, description, status, dueDate);
+        this.id = id;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+}
@@ -6,15 +6,20 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "todos")
-public class Todo {
+public class Todo implements Persistable<Long> {
     
+    public static final String DEFAULT_LIST_KEY = "default";
+    
+    // Assigned from TodoIdAllocator rather than IDENTITY so inserts can be JDBC-batched.
+    // Declared as integer so the column stays SQLite's rowid alias (see V1__create_todos.sql)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(columnDefinition = "integer")
     private Long id;
     
     @NotBlank(message = "Title is required")
@@ -25,6 +30,12 @@ public class Todo {
     @Size(max = 500, message = "Description cannot exceed 500 characters")
     private String description;
     
+    // Also decides which shard the todo is stored in (see TodoShards), so it never changes
+    @NotBlank(message = "List key is required")
+    @Size(max = 100, message = "List key cannot exceed 100 characters")
+    @Column(name = "list_key", nullable = false, updatable = false)
+    private String listKey = DEFAULT_LIST_KEY;
+    
     @NotNull(message = "Status is required")
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -41,6 +52,14 @@ public class Todo {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Optimistic lock: every update checks and increments it; clients see it as the ETag
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
+    @Transient
+    private boolean isNew = true;
+    
     // Constructors
     public Todo() {}
     
@@ -50,7 +69,16 @@ public class Todo {
         this.status = status;
     }
     
+    // Assigned ids would otherwise make Spring Data merge (and SELECT) instead of persist
+    @Override
+    public boolean isNew() { return isNew; }
+    
+    @PostLoad
+    @PostPersist
+    void markNotNew() { this.isNew = false; }
+    
     // Getters and Setters
+    @Override
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     
@@ -60,6 +88,9 @@ public class Todo {
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
     
+    public String getListKey() { return listKey; }
+    public void setListKey(String listKey) { this.listKey = listKey; }
+    
     public TodoStatus getStatus() { return status; }
     public void setStatus(TodoStatus status) { this.status = status; }
     
@@ -72,16 +103,21 @@ public class Todo {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
     @Override
     public String toString() {
         return "Todo{" +
                 "id=" + id +
                 ", title='" + title + '\'' +
                 ", description='" + description + '\'' +
+                ", listKey='" + listKey + '\'' +
                 ", status=" + status +
                 ", dueDate=" + dueDate +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
+                ", version=" + version +
                 '}';
     }
 }
@@ -0,0 +1,443 @@
+package com.example.todoapp.repository;
+
+import com.example.todoapp.config.TodoArchiveProperties;
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.models.TodoStatus;
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold storage for completed and cancelled todos moved out of {@code todos} by the archiver.
+ * Each segment is an append-only file of gzip-compressed blocks of NDJSON rows sorted by id,
+ * with a small JSON index beside it holding the id and updated-at range of the segment and of
+ * each block. A lookup by id decompresses one block, and range queries skip the blocks that
+ * cannot match. The blocks are complete gzip members, so {@code zcat segment-000001.ndjson.gz}
+ * prints a whole segment.
+ * <p>
+ * A segment is written under a {@code .pending} index name in the transaction that deletes
+ * its rows from {@code todos}, and renamed into place once that transaction commits (or
+ * removed if it rolls back). A pending segment found at startup was cut short by a crash: it
+ * is kept if its rows are gone from {@code todos}, since the delete must then have committed,
+ * and removed otherwise. With sharded storage a segment holds the todos of one shard, and that
+ * shard is the one checked.
+ */
+@Repository
+public class TodoArchive {
+    
+    private static final Logger log = LoggerFactory.getLogger(TodoArchive.class);
+    
+    private static final String PREFIX = "segment-";
+    private static final String DATA_SUFFIX = ".ndjson.gz";
+    private static final String INDEX_SUFFIX = ".json";
+    private static final String PENDING_SUFFIX = ".pending";
+    
+    // The files outlive the API's JSON settings, so they get a mapper of their own
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .visibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+            .build();
+    private static final ObjectWriter ROW_WRITER = MAPPER.writerFor(TodoResponseDTO.class);
+    private static final ObjectReader ROW_READER = MAPPER.readerFor(TodoResponseDTO.class);
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TodoShards todoShards;
+    private final Path directory;
+    private final int blockSize;
+    // Replaced, never modified, so readers iterate without locking
+    private volatile List<Segment> segments = List.of();
+    private int nextSequence = 1;
+    
+    // The EntityManagerFactory dependency makes sure the schema migrations have run before recovery
+    @Autowired
+    public TodoArchive(JdbcTemplate jdbcTemplate, TodoShards todoShards, TodoArchiveProperties properties,
+                       EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.todoShards = todoShards;
+        this.directory = Paths.get(properties.getDirectory());
+        this.blockSize = properties.getBlockSize();
+    }
+    
+    // Fails startup rather than serve lists and lookups with archived todos missing
+    @PostConstruct
+    synchronized void load() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try {
+            loadSegments();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot load the todo archive from " + directory, ex);
+        }
+    }
+    
+    private void loadSegments() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(file -> file.getFileName().toString().startsWith(PREFIX)).sorted().toList();
+        }
+        List<Segment> loaded = new ArrayList<>();
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            nextSequence = Math.max(nextSequence, sequenceOf(name) + 1);
+            if (name.endsWith(INDEX_SUFFIX)) {
+                loaded.add(readIndex(file));
+            } else if (name.endsWith(INDEX_SUFFIX + PENDING_SUFFIX)) {
+                recover(file).ifPresent(loaded::add);
+            } else if (name.endsWith(DATA_SUFFIX) && !hasIndex(files, name)) {
+                // Written up to a crash before its index was; the rows are still in todos
+                log.warn("Removing archive segment {} that has no index", file);
+                Files.delete(file);
+            }
+        }
+        segments = List.copyOf(loaded);
+        if (!loaded.isEmpty()) {
+            log.info("Loaded {} archive segments holding {} todos from {}", loaded.size(), count(), directory);
+        }
+    }
+    
+    /**
+     * Writes the todos as a new segment under a pending name. The caller deletes the same rows
+     * from {@code todos} in its transaction and then commits or discards the segment.
+     */
+    public PendingSegment write(List<TodoResponseDTO> todos) {
+        List<TodoResponseDTO> sorted = new ArrayList<>(todos);
+        sorted.sort(Comparator.comparing(TodoResponseDTO::getId));
+        int sequence;
+        synchronized (this) {
+            sequence = nextSequence++;
+        }
+        Segment segment = new Segment();
+        segment.sequence = sequence;
+        segment.rows = sorted.size();
+        segment.minId = sorted.get(0).getId();
+        segment.maxId = sorted.get(sorted.size() - 1).getId();
+        Path data = directory.resolve(segment.dataFileName());
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(data, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                long offset = 0;
+                for (int from = 0; from < sorted.size(); from += blockSize) {
+                    List<TodoResponseDTO> rows = sorted.subList(from, Math.min(sorted.size(), from + blockSize));
+                    byte[] compressed = compress(rows);
+                    ByteBuffer buffer = ByteBuffer.wrap(compressed);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    segment.blocks.add(Block.of(rows, offset, compressed.length));
+                    offset += compressed.length;
+                }
+                channel.force(true);
+            }
+            segment.minUpdatedAt = segment.blocks.stream().map(block -> block.minUpdatedAt)
+                    .min(Comparator.naturalOrder()).orElse(null);
+            segment.maxUpdatedAt = segment.blocks.stream().map(block -> block.maxUpdatedAt)
+                    .max(Comparator.naturalOrder()).orElse(null);
+            Path pending = directory.resolve(segment.indexFileName() + PENDING_SUFFIX);
+            writeIndex(pending, segment);
+            return new PendingSegment(segment, data, pending);
+        } catch (IOException ex) {
+            deleteQuietly(data);
+            throw new UncheckedIOException("Cannot write archive segment " + data, ex);
+        }
+    }
+    
+    public Optional<TodoResponseDTO> findById(long id) {
+        for (Segment segment : segments) {
+            if (id < segment.minId || id > segment.maxId) {
+                continue;
+            }
+            Block block = segment.blockContaining(id);
+            if (block == null) {
+                continue;
+            }
+            for (TodoResponseDTO todo : read(segment, block)) {
+                if (todo.getId() == id) {
+                    return Optional.of(todo);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * Up to {@code limit} archived todos with ids after {@code afterId}, in id order. The
+     * status and the updated-at bounds (from inclusive, to exclusive) are optional filters.
+     */
+    public List<TodoResponseDTO> find(TodoStatus status, LocalDateTime updatedFrom, LocalDateTime updatedTo,
+                                      long afterId, int limit) {
+        List<TodoResponseDTO> found = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (segment.maxId <= afterId || !overlaps(segment.minUpdatedAt, segment.maxUpdatedAt, updatedFrom, updatedTo)) {
+                continue;
+            }
+            int matched = 0;
+            for (Block block : segment.blocks) {
+                if (block.lastId <= afterId || !overlaps(block.minUpdatedAt, block.maxUpdatedAt, updatedFrom, updatedTo)) {
+                    continue;
+                }
+                for (TodoResponseDTO todo : read(segment, block)) {
+                    if (todo.getId() > afterId && (status == null || status == todo.getStatus())
+                            && within(todo.getUpdatedAt(), updatedFrom, updatedTo)) {
+                        found.add(todo);
+                        matched++;
+                    }
+                }
+                // Later blocks of this segment only hold larger ids
+                if (matched >= limit) {
+                    break;
+                }
+            }
+        }
+        found.sort(Comparator.comparing(TodoResponseDTO::getId));
+        return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+    }
+    
+    public long count() {
+        return segments.stream().mapToLong(segment -> segment.rows).sum();
+    }
+    
+    public int segmentCount() {
+        return segments.size();
+    }
+    
+    private synchronized void publish(Segment segment) {
+        List<Segment> published = new ArrayList<>(segments);
+        published.add(segment);
+        segments = List.copyOf(published);
+    }
+    
+    // Keeps the segment if its rows were deleted from todos; the delete removed all of them or none.
+    // The archiver writes a segment per shard transaction, so any of its ids names the shard
+    private Optional<Segment> recover(Path pending) throws IOException {
+        Segment segment = readIndex(pending);
+        Path data = directory.resolve(segment.dataFileName());
+        Integer remaining = todoShards.call(todoShards.shardOfId(segment.minId), () ->
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM todos WHERE id = ?", Integer.class, segment.minId));
+        if (remaining != null && remaining == 0 && Files.exists(data)) {
+            Files.move(pending, directory.resolve(segment.indexFileName()), StandardCopyOption.ATOMIC_MOVE);
+            log.info("Recovered archive segment {} with {} todos", segment.sequence, segment.rows);
+            return Optional.of(segment);
+        }
+        log.warn("Removing archive segment {}, its transaction did not commit", segment.sequence);
+        Files.deleteIfExists(data);
+        Files.delete(pending);
+        return Optional.empty();
+    }
+    
+    private List<TodoResponseDTO> read(Segment segment, Block block) {
+        Path data = directory.resolve(segment.dataFileName());
+        try (FileChannel channel = FileChannel.open(data, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(block.length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, block.offset + buffer.position()) < 0) {
+                    throw new EOFException("Archive segment " + data + " is truncated");
+                }
+            }
+            List<TodoResponseDTO> rows = new ArrayList<>(block.rows);
+            try (MappingIterator<TodoResponseDTO> iterator = ROW_READER.readValues(
+                    new GZIPInputStream(new ByteArrayInputStream(buffer.array())))) {
+                iterator.forEachRemaining(rows::add);
+            }
+            return rows;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read archive segment " + data, ex);
+        }
+    }
+    
+    private static byte[] compress(List<TodoResponseDTO> rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            for (TodoResponseDTO row : rows) {
+                out.write(ROW_WRITER.writeValueAsBytes(row));
+                out.write('\n');
+            }
+        }
+        return bytes.toByteArray();
+    }
+    
+    private static Segment readIndex(Path file) throws IOException {
+        return MAPPER.readValue(file.toFile(), Segment.class);
+    }
+    
+    private static void writeIndex(Path file, Segment segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(MAPPER.writeValueAsBytes(segment));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+    }
+    
+    private static boolean hasIndex(List<Path> files, String dataFileName) {
+        String index = dataFileName.substring(0, dataFileName.length() - DATA_SUFFIX.length()) + INDEX_SUFFIX;
+        return files.stream().anyMatch(file -> file.getFileName().toString().startsWith(index));
+    }
+    
+    private static int sequenceOf(String fileName) {
+        int end = fileName.indexOf('.');
+        try {
+            return Integer.parseInt(fileName.substring(PREFIX.length(), end < 0 ? fileName.length() : end));
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+    
+    private static boolean overlaps(LocalDateTime min, LocalDateTime max, LocalDateTime from, LocalDateTime to) {
+        return (from == null || max == null || !max.isBefore(from)) && (to == null || min == null || min.isBefore(to));
+    }
+    
+    private static boolean within(LocalDateTime updatedAt, LocalDateTime from, LocalDateTime to) {
+        if (updatedAt == null) {
+            return from == null && to == null;
+        }
+        return (from == null || !updatedAt.isBefore(from)) && (to == null || updatedAt.isBefore(to));
+    }
+    
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Cannot remove {}: {}", file, ex.getMessage());
+        }
+    }
+    
+    /**
+     * A segment written but not yet visible. {@link #commit()} once the rows have been deleted
+     * from {@code todos} and that transaction has committed, {@link #discard()} otherwise.
+     */
+    public final class PendingSegment {
+        
+        private final Segment segment;
+        private final Path data;
+        private final Path pendingIndex;
+        
+        private PendingSegment(Segment segment, Path data, Path pendingIndex) {
+            this.segment = segment;
+            this.data = data;
+            this.pendingIndex = pendingIndex;
+        }
+        
+        public int getRows() {
+            return segment.rows;
+        }
+        
+        // If the rename fails the segment stays pending, and is recovered at the next startup
+        public void commit() {
+            try {
+                Files.move(pendingIndex, directory.resolve(segment.indexFileName()), StandardCopyOption.ATOMIC_MOVE);
+                publish(segment);
+            } catch (IOException ex) {
+                log.error("Cannot publish archive segment {}; it is recovered at the next startup",
+                        segment.sequence, ex);
+            }
+        }
+        
+        public void discard() {
+            deleteQuietly(pendingIndex);
+            deleteQuietly(data);
+        }
+    }
+    
+    // The index file's contents
+    static final class Segment {
+        
+        int sequence;
+        int rows;
+        long minId;
+        long maxId;
+        LocalDateTime minUpdatedAt;
+        LocalDateTime maxUpdatedAt;
+        List<Block> blocks = new ArrayList<>();
+        
+        String dataFileName() {
+            return String.format("%s%06d%s", PREFIX, sequence, DATA_SUFFIX);
+        }
+        
+        String indexFileName() {
+            return String.format("%s%06d%s", PREFIX, sequence, INDEX_SUFFIX);
+        }
+        
+        // Blocks are in id order and do not overlap
+        Block blockContaining(long id) {
+            int low = 0;
+            int high = blocks.size() - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                Block block = blocks.get(middle);
+                if (id < block.firstId) {
+                    high = middle - 1;
+                } else if (id > block.lastId) {
+                    low = middle + 1;
+                } else {
+                    return block;
+                }
+            }
+            return null;
+        }
+    }
+    
+    static final class Block {
+        
+        long firstId;
+        long lastId;
+        LocalDateTime minUpdatedAt;
+        LocalDateTime maxUpdatedAt;
+        long offset;
+        int length;
+        int rows;
+        
+        static Block of(List<TodoResponseDTO> rows, long offset, int length) {
+            Block block = new Block();
+            block.firstId = rows.get(0).getId();
+            block.lastId = rows.get(rows.size() - 1).getId();
+            block.minUpdatedAt = rows.stream().map(TodoResponseDTO::getUpdatedAt).filter(updatedAt -> updatedAt != null)
+                    .min(Comparator.naturalOrder()).orElse(null);
+            block.maxUpdatedAt = rows.stream().map(TodoResponseDTO::getUpdatedAt).filter(updatedAt -> updatedAt != null)
+                    .max(Comparator.naturalOrder()).orElse(null);
+            block.offset = offset;
+            block.length = length;
+            block.rows = rows.size();
+            return block;
+        }
+    }
+}
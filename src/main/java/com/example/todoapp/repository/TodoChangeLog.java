@@ -0,0 +1,64 @@
+package com.example.todoapp.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Change log for delta sync. Triggers on {@code todos} keep one row per todo holding the
+ * version of its latest change, so the log grows with the number of todos (plus tombstones),
+ * not with the number of writes. Versions come from an AUTOINCREMENT key; SQLite runs one
+ * write transaction at a time, so they increase in commit order and a reader that has seen
+ * version N can never later see a change numbered below N.
+ */
+@Repository
+public class TodoChangeLog {
+    
+    private static final RowMapper<Change> CHANGE_MAPPER = (rs, rowNum) ->
+            new Change(rs.getLong("version"), rs.getLong("todo_id"), rs.getBoolean("deleted"));
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    // The table and its triggers are created by migration V3, and record the list since V6
+    @Autowired
+    public TodoChangeLog(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    // Changes after the given version, oldest first
+    public List<Change> findSince(long version, int limit) {
+        return jdbcTemplate.query(
+                "SELECT version, todo_id, deleted FROM todo_changes WHERE version > ? ORDER BY version LIMIT ?",
+                CHANGE_MAPPER, version, limit);
+    }
+    
+    // Changes to one list after the given version, oldest first
+    public List<Change> findSince(long version, int limit, String listKey) {
+        return jdbcTemplate.query(
+                "SELECT version, todo_id, deleted FROM todo_changes WHERE list_key = ? AND version > ? " +
+                        "ORDER BY version LIMIT ?",
+                CHANGE_MAPPER, listKey, version, limit);
+    }
+    
+    public static final class Change {
+        
+        private final long version;
+        private final long todoId;
+        private final boolean deleted;
+        
+        public Change(long version, long todoId, boolean deleted) {
+            this.version = version;
+            this.todoId = todoId;
+            this.deleted = deleted;
+        }
+        
+        public long getVersion() { return version; }
+        
+        public long getTodoId() { return todoId; }
+        
+        public boolean isDeleted() { return deleted; }
+    }
+}
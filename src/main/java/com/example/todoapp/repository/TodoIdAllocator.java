@@ -0,0 +1,45 @@
+package com.example.todoapp.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Table-backed id allocator for {@code todos}. Ids are reserved in blocks on the
+ * caller's own connection and transaction, so a rolled-back reservation is never
+ * handed out and no second connection is needed while the writer lock is held.
+ * <p>
+ * With sharded storage every shard has its own sequence, and ids are spread so that id mod
+ * shard count is the shard: a block of count ids from sequence value n is n * shards + shard,
+ * then every shards-th id after it.
+ */
+@Repository
+public class TodoIdAllocator {
+    
+    static final String SEQUENCE_NAME = "todos";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TodoShards todoShards;
+    
+    // The id_generators table is created and seeded by migration V2
+    @Autowired
+    public TodoIdAllocator(JdbcTemplate jdbcTemplate, TodoShards todoShards) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.todoShards = todoShards;
+    }
+    
+    // Reserves count ids on the bound shard and returns the first one; the others follow at
+    // intervals of the shard count (consecutive without sharding)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long allocate(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        Long next = jdbcTemplate.queryForObject(
+                "UPDATE id_generators SET next_val = next_val + ? WHERE name = ? RETURNING next_val",
+                Long.class, count, SEQUENCE_NAME);
+        return (next - count) * todoShards.count() + todoShards.current();
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.todoapp.repository;
+
+import com.example.todoapp.config.SchemaMigrator;
+import com.example.todoapp.repository.TodoChangeLog.Change;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The local SQLite copy of {@code todos} used in embedded-replica mode. It has the primary's
+ * schema (the same migrations and the FTS index), without the primary's triggers that write
+ * to {@code todo_changes} or bump versions: the replica's change log and versions are copied
+ * from the primary, so delta sync and ETags read the same numbers from either database.
+ * <p>
+ * Changes are pulled from the primary's change log in version order, each together with the
+ * todo's current row in one statement, and applied in one local transaction that also records
+ * the last applied version. A row that changed again after its log entry was read is copied in
+ * its newer state and copied once more when that later change is pulled.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "todo.replica", name = "enabled", havingValue = "true")
+public class TodoReplica {
+    
+    private static final Logger log = LoggerFactory.getLogger(TodoReplica.class);
+    
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final DataSource replicaDataSource;
+    private List<String> columns;
+    private int idColumn;
+    private String pullSql;
+    private String insertSql;
+    
+    @Autowired
+    public TodoReplica(@Qualifier("todoPrimarySyncDataSource") DataSource primaryDataSource,
+                       @Qualifier("todoReplicaWriterDataSource") DataSource replicaDataSource) {
+        this.primary = new JdbcTemplate(primaryDataSource);
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.replicaDataSource = replicaDataSource;
+    }
+    
+    /**
+     * Brings the local schema up to date and returns the last applied primary version. A replica
+     * last synced from another primary is emptied first, since its versions mean nothing here.
+     */
+    public long initialize(String primaryUrl) {
+        try {
+            new SchemaMigrator(replicaDataSource).migrate();
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Cannot migrate the replica schema", ex);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        // Rows arrive with their change version and todo version already set
+        List<String> triggers = replica.queryForList("SELECT name FROM sqlite_master " +
+                "WHERE type = 'trigger' AND tbl_name = 'todos' AND name NOT LIKE 'todos_fts_%'", String.class);
+        triggers.forEach(trigger -> replica.execute("DROP TRIGGER IF EXISTS " + trigger));
+        replica.execute("CREATE TABLE IF NOT EXISTS replica_state (name TEXT PRIMARY KEY, value TEXT NOT NULL)");
+        try {
+            TodoSearchIndex.install(replica);
+        } catch (DataAccessException ex) {
+            log.warn("FTS5 is not available on the replica: {}", ex.getMessage());
+        }
+        
+        columns = replica.queryForList("SELECT name FROM pragma_table_info('todos') ORDER BY cid", String.class);
+        idColumn = columns.indexOf("id");
+        pullSql = "SELECT c.version, c.todo_id, c.deleted, c.list_key, " +
+                columns.stream().map(column -> "t." + column).collect(Collectors.joining(", ")) +
+                " FROM todo_changes c LEFT JOIN todos t ON t.id = c.todo_id" +
+                " WHERE c.version > ? ORDER BY c.version LIMIT ?";
+        insertSql = "INSERT INTO todos (" + String.join(", ", columns) + ") VALUES (" +
+                String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        
+        // Query parameters may carry credentials, so only the server and database are kept
+        String source = primaryUrl == null ? "" : primaryUrl.replaceFirst("\\?.*$", "");
+        String syncedFrom = state("primary_url");
+        if (syncedFrom != null && !syncedFrom.equals(source)) {
+            log.warn("Replica was synced from {}, starting over from {}", syncedFrom, source);
+            clear();
+        }
+        replica.update("INSERT OR REPLACE INTO replica_state (name, value) VALUES ('primary_url', ?)", source);
+        String applied = state("applied_version");
+        return applied == null ? 0 : Long.parseLong(applied);
+    }
+    
+    // The newest version in the primary's change log
+    public long primaryVersion() {
+        Long version = primary.queryForObject("SELECT COALESCE(MAX(version), 0) FROM todo_changes", Long.class);
+        return version == null ? 0 : version;
+    }
+    
+    // Changes after the given version, oldest first, each with the todo's row (null once deleted)
+    public List<PulledChange> pull(long since, int limit) {
+        return primary.query(pullSql, (rs, rowNum) -> {
+            Change change = new Change(rs.getLong(1), rs.getLong(2), rs.getBoolean(3));
+            Object[] row = null;
+            if (rs.getObject(5 + idColumn) != null) {
+                row = new Object[columns.size()];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = rs.getObject(5 + i);
+                }
+            }
+            return new PulledChange(change, rs.getString(4), row);
+        }, since, limit);
+    }
+    
+    // Applies the changes in one transaction, ending at the version of the last one
+    public void apply(List<PulledChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        replica.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                applyChanges(connection, changes);
+                connection.commit();
+            } catch (SQLException | RuntimeException ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+    }
+    
+    // Empties the replica, so the next pull starts from version 0
+    public void clear() {
+        replica.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement todos = connection.prepareStatement("DELETE FROM todos");
+                 PreparedStatement changeLog = connection.prepareStatement("DELETE FROM todo_changes");
+                 PreparedStatement state = connection.prepareStatement(
+                         "DELETE FROM replica_state WHERE name = 'applied_version'")) {
+                todos.executeUpdate();
+                changeLog.executeUpdate();
+                state.executeUpdate();
+                connection.commit();
+            } catch (SQLException | RuntimeException ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+    }
+    
+    // Delete and insert rather than REPLACE, so the FTS triggers see the old row go
+    private void applyChanges(Connection connection, List<PulledChange> changes) throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement("DELETE FROM todos WHERE id = ?");
+             PreparedStatement insert = connection.prepareStatement(insertSql);
+             PreparedStatement logChange = connection.prepareStatement(
+                     "INSERT OR REPLACE INTO todo_changes (version, todo_id, deleted, list_key) VALUES (?, ?, ?, ?)");
+             PreparedStatement state = connection.prepareStatement(
+                     "INSERT OR REPLACE INTO replica_state (name, value) VALUES ('applied_version', ?)")) {
+            for (PulledChange pulled : changes) {
+                Change change = pulled.getChange();
+                delete.setLong(1, change.getTodoId());
+                delete.executeUpdate();
+                if (pulled.row != null) {
+                    for (int i = 0; i < pulled.row.length; i++) {
+                        insert.setObject(i + 1, pulled.row[i]);
+                    }
+                    insert.executeUpdate();
+                }
+                logChange.setLong(1, change.getVersion());
+                logChange.setLong(2, change.getTodoId());
+                logChange.setBoolean(3, change.isDeleted());
+                logChange.setString(4, pulled.listKey);
+                logChange.executeUpdate();
+            }
+            state.setString(1, String.valueOf(changes.get(changes.size() - 1).getChange().getVersion()));
+            state.executeUpdate();
+        }
+    }
+    
+    private String state(String name) {
+        List<String> values = replica.queryForList("SELECT value FROM replica_state WHERE name = ?", String.class, name);
+        return values.isEmpty() ? null : values.get(0);
+    }
+    
+    public static final class PulledChange {
+        
+        private final Change change;
+        private final String listKey;
+        // Column values in replica column order
+        private final Object[] row;
+        
+        PulledChange(Change change, String listKey, Object[] row) {
+            this.change = change;
+            this.listKey = listKey;
+            this.row = row;
+        }
+        
+        public Change getChange() { return change; }
+    }
+}
@@ -1,18 +1,29 @@
 package com.example.todoapp.repository;
 
+import com.example.todoapp.dtos.TodoResponseDTO;
 import com.example.todoapp.models.Todo;
 import com.example.todoapp.models.TodoStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TodoRepository extends JpaRepository<Todo, Long> {
     
+    int EXPORT_FETCH_SIZE = 500;
+    
     // Find todos by status
     List<Todo> findByStatus(TodoStatus status);
     
@@ -36,6 +47,86 @@ public interface TodoRepository extends JpaRepository<Todo, Long> {
     // Count todos by status
     long countByStatus(TodoStatus status);
     
-    // Delete completed todos older than specified date
-    void deleteByStatusAndUpdatedAtBefore(TodoStatus status, LocalDateTime date);
+    // Read path: the queries below select straight into TodoResponseDTO, so no entity is instantiated,
+    // registered in the persistence context or snapshotted for dirty checking
+    String SELECT_DTO = "SELECT new com.example.todoapp.dtos.TodoResponseDTO(" +
+            "t.id, t.title, t.description, t.status, t.dueDate, t.createdAt, t.updatedAt, t.version, t.listKey) FROM Todo t ";
+    
+    @Query(SELECT_DTO + "WHERE t.id = :id")
+    Optional<TodoResponseDTO> findDtoById(@Param("id") Long id);
+    
+    // Conditional GETs compare this with the client's ETag without reading the rest of the row
+    @Query("SELECT t.version FROM Todo t WHERE t.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+    
+    // In no particular order
+    @Query(SELECT_DTO + "WHERE t.id IN :ids")
+    List<TodoResponseDTO> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Everything the in-memory due index holds
+    @Query(SELECT_DTO + "WHERE t.dueDate IS NOT NULL AND t.status != :status")
+    List<TodoResponseDTO> findDtosByDueDateNotNullAndStatusNot(@Param("status") TodoStatus status);
+    
+    // Keyset pages ordered by id: each page starts strictly after the last id of the previous one
+    @Query(SELECT_DTO + "WHERE t.id > :afterId ORDER BY t.id")
+    List<TodoResponseDTO> findDtosAfter(@Param("afterId") Long afterId, Limit limit);
+    
+    // One list, read from the (list_key, id) index
+    @Query(SELECT_DTO + "WHERE t.listKey = :listKey AND t.id > :afterId ORDER BY t.id")
+    List<TodoResponseDTO> findDtosByListKeyAfter(@Param("listKey") String listKey, @Param("afterId") Long afterId,
+                                                 Limit limit);
+    
+    @Query(SELECT_DTO + "WHERE t.status = :status AND t.id > :afterId ORDER BY t.id")
+    List<TodoResponseDTO> findDtosByStatusAfter(@Param("status") TodoStatus status, @Param("afterId") Long afterId,
+                                                Limit limit);
+    
+    // Case-insensitive substring match; % and _ in the title are matched literally
+    @Query(SELECT_DTO + "WHERE UPPER(t.title) LIKE UPPER(CONCAT('%', :#{escape(#title)}, '%')) " +
+            "ESCAPE :#{escapeCharacter()} AND t.id > :afterId ORDER BY t.id")
+    List<TodoResponseDTO> findDtosByTitleContainingAfter(@Param("title") String title, @Param("afterId") Long afterId,
+                                                         Limit limit);
+    
+    @Query(SELECT_DTO + "WHERE t.createdAt BETWEEN :startDate AND :endDate AND t.id > :afterId ORDER BY t.id")
+    List<TodoResponseDTO> findDtosByCreatedAtBetweenAfter(@Param("startDate") LocalDateTime startDate,
+                                                          @Param("endDate") LocalDateTime endDate,
+                                                          @Param("afterId") Long afterId, Limit limit);
+    
+    // Forward-only cursor over the whole table for exports; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query(SELECT_DTO + "ORDER BY t.id")
+    Stream<TodoResponseDTO> streamAllDtos();
+    
+    // Which of the given ids exist (and their status), without loading the rows
+    @Query("SELECT t.id AS id, t.status AS status FROM Todo t WHERE t.id IN :ids")
+    List<IdAndStatus> findStatusesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // One row per status that has at least one todo
+    @Query("SELECT t.status AS status, COUNT(t) AS count FROM Todo t GROUP BY t.status")
+    List<StatusCount> countGroupedByStatus();
+    
+    // Rows the cleanup job will purge, counted from the (status, updated_at) index
+    long countByStatusAndUpdatedAtBefore(TodoStatus status, LocalDateTime date);
+    
+    // One chunk of the cleanup job: a set-based delete of at most :limit rows, none of them loaded.
+    // SQLite only supports DELETE ... LIMIT in custom builds, hence the rowid subquery
+    @Modifying
+    @Query(value = "DELETE FROM todos WHERE rowid IN (SELECT rowid FROM todos " +
+            "WHERE status = :#{#status.name()} AND updated_at < :date LIMIT :limit)", nativeQuery = true)
+    int deleteChunkByStatusAndUpdatedAtBefore(@Param("status") TodoStatus status, @Param("date") LocalDateTime date,
+                                             @Param("limit") int limit);
+    
+    // Candidates for the archive, read from the (status, updated_at) index; unordered, the archive sorts them
+    @Query(SELECT_DTO + "WHERE t.status IN :statuses AND t.updatedAt < :date")
+    List<TodoResponseDTO> findDtosByStatusInAndUpdatedAtBefore(@Param("statuses") Collection<TodoStatus> statuses,
+                                                               @Param("date") LocalDateTime date, Limit limit);
+    
+    interface IdAndStatus {
+        Long getId();
+        TodoStatus getStatus();
+    }
+    
+    interface StatusCount {
+        TodoStatus getStatus();
+        long getCount();
+    }
 }
@@ -0,0 +1,150 @@
+package com.example.todoapp.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * SQLite FTS5 index over todo titles and descriptions. The index is an external-content
+ * table kept in sync with {@code todos} by triggers, so every write path (including bulk
+ * deletes that bypass Hibernate) updates it in the same transaction. It is created here
+ * rather than by a migration because it is optional: without FTS5 the schema still
+ * migrates and search falls back to LIKE. With sharded storage each shard indexes its own
+ * todos and a search asks all of them.
+ */
+@Repository
+public class TodoSearchIndex {
+    
+    private static final Logger log = LoggerFactory.getLogger(TodoSearchIndex.class);
+    
+    static final int MAX_TERMS = 16;
+    
+    // bm25 column weights: a match in the title counts ten times one in the description
+    private static final String SEARCH_SQL = "SELECT rowid FROM todos_fts WHERE todos_fts MATCH ? " +
+            "ORDER BY bm25(todos_fts, 10.0, 1.0), rowid LIMIT ? OFFSET ?";
+    
+    private static final String SCORED_SEARCH_SQL = "SELECT rowid, bm25(todos_fts, 10.0, 1.0) FROM todos_fts " +
+            "WHERE todos_fts MATCH ? ORDER BY 2, rowid LIMIT ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TodoShards todoShards;
+    private volatile boolean available;
+    
+    // The EntityManagerFactory dependency makes sure the schema migrations have run first
+    @Autowired
+    public TodoSearchIndex(JdbcTemplate jdbcTemplate, TodoShards todoShards, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.todoShards = todoShards;
+    }
+    
+    @PostConstruct
+    void initialize() {
+        try {
+            for (int shard = 0; shard < todoShards.count(); shard++) {
+                todoShards.run(shard, () -> install(jdbcTemplate));
+            }
+            available = true;
+        } catch (DataAccessException ex) {
+            log.warn("FTS5 is not available, todo search falls back to LIKE on the title: {}", ex.getMessage());
+            available = false;
+        }
+    }
+    
+    // Also used for the local replica (see TodoReplica), which serves the searches in replica mode
+    static void install(JdbcTemplate jdbcTemplate) {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = 'todos_fts'", Integer.class);
+        jdbcTemplate.execute("CREATE VIRTUAL TABLE IF NOT EXISTS todos_fts USING fts5(" +
+                "title, description, content='todos', content_rowid='id', " +
+                "tokenize='unicode61 remove_diacritics 2')");
+        jdbcTemplate.execute("CREATE TRIGGER IF NOT EXISTS todos_fts_ai AFTER INSERT ON todos BEGIN " +
+                "INSERT INTO todos_fts(rowid, title, description) VALUES (new.id, new.title, new.description); " +
+                "END");
+        jdbcTemplate.execute("CREATE TRIGGER IF NOT EXISTS todos_fts_ad AFTER DELETE ON todos BEGIN " +
+                "INSERT INTO todos_fts(todos_fts, rowid, title, description) " +
+                "VALUES ('delete', old.id, old.title, old.description); " +
+                "END");
+        // Hibernate rewrites every column on update; only re-index when the text changed
+        jdbcTemplate.execute("CREATE TRIGGER IF NOT EXISTS todos_fts_au AFTER UPDATE OF title, description ON todos " +
+                "WHEN old.title IS NOT new.title OR old.description IS NOT new.description BEGIN " +
+                "INSERT INTO todos_fts(todos_fts, rowid, title, description) " +
+                "VALUES ('delete', old.id, old.title, old.description); " +
+                "INSERT INTO todos_fts(rowid, title, description) VALUES (new.id, new.title, new.description); " +
+                "END");
+        if (existing == null || existing == 0) {
+            // Index rows written before the index existed
+            jdbcTemplate.execute("INSERT INTO todos_fts(todos_fts) VALUES ('rebuild')");
+        }
+    }
+    
+    public boolean isAvailable() {
+        return available;
+    }
+    
+    // Ids of matching todos, best match first
+    public List<Long> search(String matchExpression, int offset, int limit) {
+        if (todoShards.count() == 1) {
+            return jdbcTemplate.queryForList(SEARCH_SQL, Long.class, matchExpression, limit, offset);
+        }
+        // Every shard's best offset + limit, merged by score. bm25 weighs terms by the statistics
+        // of each shard's own index, which evens out as the shards fill up
+        List<List<ScoredId>> perShard = todoShards.fanOut(shard -> jdbcTemplate.query(SCORED_SEARCH_SQL,
+                (rs, rowNum) -> new ScoredId(rs.getLong(1), rs.getDouble(2)), matchExpression, offset + limit));
+        return perShard.stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparingDouble(ScoredId::getScore).thenComparingLong(ScoredId::getId))
+                .skip(offset)
+                .limit(limit)
+                .map(ScoredId::getId)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Turns free text into an FTS5 query: every word must match, as a prefix of a word in the
+     * title or description. Returns null when the text contains no searchable word. Words are
+     * quoted, so FTS5 operators in user input are matched literally rather than interpreted.
+     */
+    public static String toMatchExpression(String text) {
+        if (text == null) {
+            return null;
+        }
+        List<String> terms = Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .limit(MAX_TERMS)
+                .collect(Collectors.toList());
+        if (terms.isEmpty()) {
+            return null;
+        }
+        return terms.stream()
+                .map(term -> "\"" + term + "\"*")
+                .collect(Collectors.joining(" "));
+    }
+    
+    private static final class ScoredId {
+        
+        private final long id;
+        // bm25: lower is better
+        private final double score;
+        
+        ScoredId(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+        
+        long getId() { return id; }
+        
+        double getScore() { return score; }
+    }
+}
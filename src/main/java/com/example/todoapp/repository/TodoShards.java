@@ -0,0 +1,168 @@
+package com.example.todoapp.repository;
+
+import com.example.todoapp.config.ShardRoutingDataSource;
+import com.example.todoapp.config.TodoShardingProperties;
+import com.example.todoapp.models.Todo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Placement of todos across the shards of sharded storage (see {@code ShardedDataSourceConfig}).
+ * A todo's shard follows from its list key, and its id encodes the shard (id mod count, see
+ * {@link TodoIdAllocator}), so a todo or a list is found without asking the other shards.
+ * <p>
+ * Work on one shard runs on the caller's thread with the shard bound; the transaction's
+ * connection is taken at its first statement, so that must come while the shard is bound. One
+ * thread must not use two shards in the same transaction or persistence context (the request's
+ * open EntityManager holds its connection), so work spanning shards goes through
+ * {@link #fanOut}, with one thread and one transaction per shard. With a single shard everything
+ * runs inline on the caller's thread, in the caller's transaction, as without sharding.
+ */
+@Component
+public class TodoShards {
+    
+    private static final Logger log = LoggerFactory.getLogger(TodoShards.class);
+    
+    private final int count;
+    // Looked up on first use: the transaction manager needs the EntityManagerFactory, which needs the schema
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+    
+    @Autowired
+    public TodoShards(ObjectProvider<ShardRoutingDataSource> routing, TodoShardingProperties properties,
+                      ObjectProvider<PlatformTransactionManager> transactionManager) {
+        ShardRoutingDataSource shards = routing.getIfAvailable();
+        this.count = shards == null ? 1 : shards.getShards().size();
+        this.transactionManager = transactionManager;
+        if (shards == null && properties.getCount() > 1) {
+            log.warn("todo.sharding.count={} is ignored in embedded-replica mode", properties.getCount());
+        }
+    }
+    
+    private TodoShards() {
+        this.count = 1;
+        this.transactionManager = null;
+    }
+    
+    // A single shard: every method runs its work inline, as without sharding
+    public static TodoShards unsharded() {
+        return new TodoShards();
+    }
+    
+    public int count() {
+        return count;
+    }
+    
+    // String.hashCode is specified, so a list maps to the same shard on every JVM
+    public int shardOf(String listKey) {
+        return Math.floorMod((listKey == null ? Todo.DEFAULT_LIST_KEY : listKey).hashCode(), count);
+    }
+    
+    public int shardOfId(long id) {
+        return (int) Math.floorMod(id, (long) count);
+    }
+    
+    // The shard bound to the calling thread, 0 when none is
+    public int current() {
+        return ShardRoutingDataSource.currentShard();
+    }
+    
+    // Runs the operation on the calling thread with the shard bound
+    public <T> T call(int shard, Supplier<T> operation) {
+        Integer previous = ShardRoutingDataSource.bindShard(shard);
+        try {
+            return operation.get();
+        } finally {
+            ShardRoutingDataSource.restoreShard(previous);
+        }
+    }
+    
+    public void run(int shard, Runnable operation) {
+        call(shard, () -> {
+            operation.run();
+            return null;
+        });
+    }
+    
+    // Read-only on every shard in parallel; results in shard order
+    public <T> List<T> fanOut(IntFunction<T> query) {
+        return fanOut(all(), true, query);
+    }
+    
+    /**
+     * Runs the operation for each of the given shards in parallel, each on its own virtual thread
+     * in its own transaction, and returns the results in the order of the shards. The shards
+     * commit independently: a failure on one does not roll back the others. The first failure
+     * is rethrown once all have finished.
+     */
+    public <T> List<T> fanOut(Collection<Integer> shards, boolean readOnly, IntFunction<T> operation) {
+        if (count == 1) {
+            return shards.stream()
+                    .map(shard -> call(shard, () -> operation.apply(shard)))
+                    .collect(Collectors.toList());
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager.getObject());
+        transactionTemplate.setReadOnly(readOnly);
+        List<Future<T>> futures = new ArrayList<>(shards.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int shard : shards) {
+                futures.add(executor.submit(() -> call(shard, () ->
+                        transactionTemplate.execute(status -> operation.apply(shard)))));
+            }
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            results.add(join(future));
+        }
+        return results;
+    }
+    
+    // Read-only on one shard after the other, e.g. to stream them in turn to one consumer
+    public void forEachShard(IntConsumer operation) {
+        for (int shard = 0; shard < count; shard++) {
+            fanOut(List.of(shard), true, current -> {
+                operation.accept(current);
+                return null;
+            });
+        }
+    }
+    
+    private List<Integer> all() {
+        return IntStream.range(0, count).boxed().collect(Collectors.toList());
+    }
+    
+    // The executor has been closed, so every future is done
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shard", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.config.TodoArchiveProperties;
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.models.TodoStatus;
+import com.example.todoapp.repository.TodoArchive;
+import com.example.todoapp.repository.TodoRepository;
+import com.example.todoapp.repository.TodoShards;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Moves completed and cancelled todos that have not changed for {@code todo.archive.min-age}
+ * out of {@code todos} into {@link TodoArchive} segments, one segment per write transaction:
+ * the rows are selected, written to a pending segment and deleted in that transaction, so a
+ * todo is either archived as committed or left in place. Each segment publishes a
+ * {@link TodosPurgedEvent} per status naming the archived ids, so the counters, cache, due
+ * index and change feed follow the smaller table. With sharded storage the shards are archived one after the other into the
+ * same archive.
+ */
+@Component
+public class TodoArchiver {
+    
+    private static final Logger log = LoggerFactory.getLogger(TodoArchiver.class);
+    
+    private static final List<TodoStatus> ARCHIVED_STATUSES = List.of(TodoStatus.COMPLETED, TodoStatus.CANCELLED);
+    
+    // Keeps each IN list well below SQLite's bound parameter limit
+    private static final int DELETE_BATCH_SIZE = 500;
+    
+    private final TodoRepository todoRepository;
+    private final TodoShards todoShards;
+    private final TodoArchive todoArchive;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TodoArchiveProperties properties;
+    
+    @Autowired
+    public TodoArchiver(TodoRepository todoRepository, TodoShards todoShards, TodoArchive todoArchive,
+                        PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                        TodoArchiveProperties properties) {
+        this.todoRepository = todoRepository;
+        this.todoShards = todoShards;
+        this.todoArchive = todoArchive;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+    }
+    
+    @Scheduled(initialDelayString = "${todo.archive.interval:PT1H}", fixedDelayString = "${todo.archive.interval:PT1H}")
+    public void archiveScheduled() {
+        if (properties.isEnabled()) {
+            archive(LocalDateTime.now().minus(properties.getMinAge()));
+        }
+    }
+    
+    // Archives segment by segment until no eligible todo is left; returns how many were archived
+    public synchronized long archive(LocalDateTime updatedBefore) {
+        int segmentSize = properties.getSegmentSize();
+        long archived = 0;
+        for (int shard = 0; shard < todoShards.count(); shard++) {
+            while (true) {
+                Integer moved = todoShards.call(shard, () ->
+                        transactionTemplate.execute(status -> archiveSegment(updatedBefore, segmentSize)));
+                archived += moved;
+                if (moved < segmentSize) {
+                    break;
+                }
+            }
+        }
+        if (archived > 0) {
+            log.info("Archived {} todos last updated before {}; the archive holds {} in {} segments",
+                    archived, updatedBefore, todoArchive.count(), todoArchive.segmentCount());
+        }
+        return archived;
+    }
+    
+    private int archiveSegment(LocalDateTime updatedBefore, int segmentSize) {
+        List<TodoResponseDTO> todos = todoRepository.findDtosByStatusInAndUpdatedAtBefore(
+                ARCHIVED_STATUSES, updatedBefore, Limit.of(segmentSize));
+        if (todos.isEmpty()) {
+            return 0;
+        }
+        TodoArchive.PendingSegment segment = todoArchive.write(todos);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    segment.commit();
+                } else {
+                    segment.discard();
+                }
+            }
+        });
+        
+        List<Long> ids = todos.stream().map(TodoResponseDTO::getId).toList();
+        for (int from = 0; from < ids.size(); from += DELETE_BATCH_SIZE) {
+            todoRepository.deleteAllByIdInBatch(ids.subList(from, Math.min(ids.size(), from + DELETE_BATCH_SIZE)));
+        }
+        
+        Map<TodoStatus, List<Long>> idsByStatus = todos.stream().collect(Collectors.groupingBy(TodoResponseDTO::getStatus,
+                () -> new EnumMap<>(TodoStatus.class), Collectors.mapping(TodoResponseDTO::getId, Collectors.toList())));
+        idsByStatus.forEach((status, archivedIds) ->
+                eventPublisher.publishEvent(new TodosPurgedEvent(status, updatedBefore, archivedIds)));
+        return todos.size();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.config.TodoCacheProperties;
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of todos by id (Caffeine, W-TinyLFU eviction). Entries are
+ * invalidated after the writing transaction commits; since loads and invalidations of the
+ * same key are serialized by the cache, a load that raced a commit cannot outlive it.
+ */
+@Component
+public class TodoCache {
+    
+    static final String CACHE_NAME = "todos";
+    
+    private final boolean enabled;
+    private final Cache<Long, TodoResponseDTO> cache;
+    
+    @Autowired
+    public TodoCache(TodoCacheProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size under /actuator/metrics
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+    
+    public TodoResponseDTO get(Long id, Function<Long, TodoResponseDTO> loader) {
+        return enabled ? cache.get(id, loader) : loader.apply(id);
+    }
+    
+    // The cached todo, without loading it on a miss
+    public TodoResponseDTO getIfPresent(Long id) {
+        return enabled ? cache.getIfPresent(id) : null;
+    }
+    
+    // For changes that arrive without an event, such as those pulled into the local replica
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+    
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        cache.invalidate(event.getId());
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTodosPurged(TodosPurgedEvent event) {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.config.TodoStreamProperties;
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.models.TodoStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded in-memory log of committed todo changes, read by the push subscribers of
+ * {@code GET /api/todos/stream}. Changes are appended once their transaction commits into a
+ * ring buffer of {@code todo.stream.buffer-size} entries; a writer only takes a short lock to
+ * append and never waits for a subscriber. Every subscriber reads from its own position, so a
+ * slow one merely falls behind, and one that falls out of the buffer is told to reload.
+ */
+@Component
+public class TodoChangeFeed {
+    
+    // Event ids are "<feed>-<sequence>"; the feed part changes with every start, so an id
+    // from before a restart is recognised as unknown rather than resumed from the wrong place
+    private final String feedId = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final Change[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private long nextSequence = 1;
+    
+    @Autowired
+    public TodoChangeFeed(TodoStreamProperties properties) {
+        this.ring = new Change[properties.getBufferSize()];
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        TodoResponseDTO previous = event.getPrevious();
+        TodoResponseDTO current = event.getCurrent();
+        Object data = current;
+        if (current == null) {
+            Map<String, Object> deleted = new LinkedHashMap<>();
+            deleted.put("id", event.getId());
+            deleted.put("status", previous != null ? previous.getStatus() : null);
+            data = deleted;
+        }
+        append(event.getType().name().toLowerCase(Locale.ROOT), previous != null ? previous.getStatus() : null,
+                current != null ? current.getStatus() : null, data);
+    }
+    
+    // The purged ids are not known; subscribers showing that status should reload it
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTodosPurged(TodosPurgedEvent event) {
+        Map<String, Object> purged = new LinkedHashMap<>();
+        purged.put("status", event.getStatus());
+        purged.put("updatedBefore", event.getUpdatedBefore());
+        purged.put("deleted", event.getDeletedCount());
+        append("purged", event.getStatus(), event.getStatus(), purged);
+    }
+    
+    private void append(String type, TodoStatus previousStatus, TodoStatus currentStatus, Object data) {
+        lock.lock();
+        try {
+            long sequence = nextSequence++;
+            ring[(int) (sequence % ring.length)] = new Change(sequence, type, previousStatus, currentStatus, data);
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Sequence of the latest change; a new subscriber starts after it
+    public long latestSequence() {
+        lock.lock();
+        try {
+            return nextSequence - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public String eventId(long sequence) {
+        return feedId + "-" + sequence;
+    }
+    
+    // The sequence to resume after for a Last-Event-ID, or -1 when the id is not from this feed
+    public long resumeAfter(String lastEventId) {
+        String prefix = feedId + "-";
+        if (lastEventId == null || !lastEventId.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            long sequence = Long.parseLong(lastEventId.substring(prefix.length()));
+            return sequence >= 0 && sequence <= latestSequence() ? sequence : -1;
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+    
+    /**
+     * Up to {@code max} changes after {@code after}, waiting up to {@code wait} for the first
+     * one. The result is empty if nothing was appended in time, and a gap if changes after
+     * {@code after} have already been overwritten.
+     */
+    public Batch read(long after, int max, Duration wait) throws InterruptedException {
+        long waitNanos = wait.toNanos();
+        lock.lock();
+        try {
+            while (nextSequence - 1 <= after && waitNanos > 0) {
+                waitNanos = appended.awaitNanos(waitNanos);
+            }
+            long oldest = Math.max(1, nextSequence - ring.length);
+            if (after + 1 < oldest) {
+                return new Batch(List.of(), true);
+            }
+            long until = Math.min(nextSequence - 1, after + max);
+            List<Change> changes = new ArrayList<>((int) Math.max(0, until - after));
+            for (long sequence = after + 1; sequence <= until; sequence++) {
+                changes.add(ring[(int) (sequence % ring.length)]);
+            }
+            return new Batch(changes, false);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public static final class Change {
+        
+        private final long sequence;
+        private final String type;
+        private final TodoStatus previousStatus;
+        private final TodoStatus currentStatus;
+        private final Object data;
+        
+        Change(long sequence, String type, TodoStatus previousStatus, TodoStatus currentStatus, Object data) {
+            this.sequence = sequence;
+            this.type = type;
+            this.previousStatus = previousStatus;
+            this.currentStatus = currentStatus;
+            this.data = data;
+        }
+        
+        // A change concerns a status view if the todo was in it before or is in it now;
+        // a delete whose previous status is unknown concerns every view
+        public boolean concerns(TodoStatus status) {
+            if (status == null || (previousStatus == null && currentStatus == null)) {
+                return true;
+            }
+            return status == previousStatus || status == currentStatus;
+        }
+        
+        // Getters
+        public long getSequence() { return sequence; }
+        
+        // created, updated, deleted or purged
+        public String getType() { return type; }
+        
+        // The todo for created and updated, {id, status} for deleted, {status, updatedBefore, deleted} for purged
+        public Object getData() { return data; }
+    }
+    
+    public static final class Batch {
+        
+        private final List<Change> changes;
+        private final boolean gap;
+        
+        Batch(List<Change> changes, boolean gap) {
+            this.changes = changes;
+            this.gap = gap;
+        }
+        
+        // Getters
+        public List<Change> getChanges() { return changes; }
+        
+        // The reader fell behind the buffer and missed changes
+        public boolean isGap() { return gap; }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.dtos.TodoResponseDTO;
+
+/**
+ * Published inside the transaction of every single-row write. Listeners that keep derived
+ * state (caches, counters, feeds) should use {@code @TransactionalEventListener} (or their own
+ * transaction synchronization) so they only see changes that actually committed.
+ */
+public class TodoChangedEvent {
+    
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+    
+    private final ChangeType type;
+    private final Long id;
+    private final TodoResponseDTO previous;
+    private final TodoResponseDTO current;
+    
+    public TodoChangedEvent(ChangeType type, Long id, TodoResponseDTO previous, TodoResponseDTO current) {
+        this.type = type;
+        this.id = id;
+        this.previous = previous;
+        this.current = current;
+    }
+    
+    public static TodoChangedEvent created(TodoResponseDTO current) {
+        return new TodoChangedEvent(ChangeType.CREATED, current.getId(), null, current);
+    }
+    
+    public static TodoChangedEvent updated(TodoResponseDTO previous, TodoResponseDTO current) {
+        return new TodoChangedEvent(ChangeType.UPDATED, current.getId(), previous, current);
+    }
+    
+    public static TodoChangedEvent deleted(Long id, TodoResponseDTO previous) {
+        return new TodoChangedEvent(ChangeType.DELETED, id, previous, null);
+    }
+    
+    // Getters
+    public ChangeType getType() { return type; }
+    
+    public Long getId() { return id; }
+    
+    // State before the change; null for creates (and for deletes by id only)
+    public TodoResponseDTO getPrevious() { return previous; }
+    
+    // State after the change; null for deletes
+    public TodoResponseDTO getCurrent() { return current; }
+}
@@ -0,0 +1,163 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.config.TodoCleanupProperties;
+import com.example.todoapp.dtos.CleanupStatusDTO;
+import com.example.todoapp.models.TodoStatus;
+import com.example.todoapp.repository.TodoRepository;
+import com.example.todoapp.repository.TodoShards;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Purges completed todos in the background. Each chunk is one set-based delete of at most
+ * {@code todo.cleanup.chunk-size} rows in its own short transaction, followed by a pause, so
+ * other writers get the SQLite writer connection between chunks instead of waiting for the
+ * whole purge. Every chunk publishes a {@link TodosPurgedEvent}, so the counters, the cache and
+ * the change feed follow the purge as it goes. With sharded storage the shards are purged one
+ * after the other. One purge runs at a time; its progress is kept until the next one starts.
+ */
+@Component
+public class TodoCleanupJob implements DisposableBean {
+    
+    private static final Logger log = LoggerFactory.getLogger(TodoCleanupJob.class);
+    private static final TodoStatus PURGED_STATUS = TodoStatus.COMPLETED;
+    
+    private final TodoRepository todoRepository;
+    private final TodoShards todoShards;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TodoCleanupProperties properties;
+    private Run current;
+    private volatile boolean stopped;
+    
+    @Autowired
+    public TodoCleanupJob(TodoRepository todoRepository, TodoShards todoShards,
+                          PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                          TodoCleanupProperties properties) {
+        this.todoRepository = todoRepository;
+        this.todoShards = todoShards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+    }
+    
+    /**
+     * Starts purging completed todos last updated before the given time, unless a purge is
+     * already running. Returns the status of the purge that is running after the call.
+     */
+    public synchronized CleanupStatusDTO start(LocalDateTime updatedBefore) {
+        if (current != null && current.isRunning()) {
+            return current.status();
+        }
+        Run run = new Run(updatedBefore);
+        current = run;
+        run.thread = new Thread(() -> purge(run), "todo-cleanup");
+        run.thread.setDaemon(true);
+        run.thread.start();
+        return run.status();
+    }
+    
+    public synchronized CleanupStatusDTO status() {
+        return current == null ? CleanupStatusDTO.idle() : current.status();
+    }
+    
+    @Scheduled(initialDelayString = "${todo.cleanup.interval:PT1H}", fixedDelayString = "${todo.cleanup.interval:PT1H}")
+    public void startScheduled() {
+        if (properties.isEnabled()) {
+            start(LocalDateTime.now().minus(properties.getRetention()));
+        }
+    }
+    
+    @Override
+    public synchronized void destroy() {
+        stopped = true;
+        if (current != null && current.thread != null) {
+            current.thread.interrupt();
+        }
+    }
+    
+    private void purge(Run run) {
+        try {
+            run.total = todoShards.fanOut(shard ->
+                            todoRepository.countByStatusAndUpdatedAtBefore(PURGED_STATUS, run.updatedBefore))
+                    .stream().mapToLong(Long::longValue).sum();
+            for (int shard = 0; shard < todoShards.count() && !stopped; shard++) {
+                purgeShard(run, shard);
+            }
+            run.finish(stopped ? CleanupStatusDTO.State.FAILED : CleanupStatusDTO.State.COMPLETED,
+                    stopped ? "Stopped by shutdown" : null);
+            log.info("Purged {} {} todos updated before {} in {} chunks",
+                    run.deleted, PURGED_STATUS, run.updatedBefore, run.chunks);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            run.finish(CleanupStatusDTO.State.FAILED, "Stopped by shutdown");
+        } catch (RuntimeException ex) {
+            log.error("Purge of {} todos updated before {} failed after {} rows",
+                    PURGED_STATUS, run.updatedBefore, run.deleted, ex);
+            run.finish(CleanupStatusDTO.State.FAILED, ex.getMessage());
+        }
+    }
+    
+    // Chunk after chunk until the shard has nothing left to purge
+    private void purgeShard(Run run, int shard) throws InterruptedException {
+        int chunkSize = properties.getChunkSize();
+        while (!stopped) {
+            Integer deleted = todoShards.call(shard, () -> transactionTemplate.execute(status -> {
+                int rows = todoRepository.deleteChunkByStatusAndUpdatedAtBefore(PURGED_STATUS, run.updatedBefore,
+                        chunkSize);
+                if (rows > 0) {
+                    eventPublisher.publishEvent(new TodosPurgedEvent(PURGED_STATUS, run.updatedBefore, rows));
+                }
+                return rows;
+            }));
+            run.deleted += deleted;
+            run.chunks++;
+            if (deleted < chunkSize) {
+                return;
+            }
+            Thread.sleep(properties.getPause().toMillis());
+        }
+    }
+    
+    // Written by the purge thread only, read by status requests
+    private static final class Run {
+        
+        final LocalDateTime updatedBefore;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        Thread thread;
+        volatile long total;
+        volatile long deleted;
+        volatile int chunks;
+        volatile CleanupStatusDTO.State state = CleanupStatusDTO.State.RUNNING;
+        volatile LocalDateTime finishedAt;
+        volatile String error;
+        
+        Run(LocalDateTime updatedBefore) {
+            this.updatedBefore = updatedBefore;
+        }
+        
+        boolean isRunning() {
+            return state == CleanupStatusDTO.State.RUNNING;
+        }
+        
+        void finish(CleanupStatusDTO.State state, String error) {
+            this.error = error;
+            this.finishedAt = LocalDateTime.now();
+            this.state = state;
+        }
+        
+        CleanupStatusDTO status() {
+            return new CleanupStatusDTO(state, PURGED_STATUS, updatedBefore, startedAt, finishedAt,
+                    total, deleted, chunks, error);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.todoapp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque cursor for todo list pages. Keyset cursors carry the id (or, for lists ordered
+ * by due date, the due date and id) of the last row of the previous page; the next page
+ * starts strictly after it. Ranked search results have no stable key order, so their
+ * cursors carry the offset of the next page.
+ */
+public final class TodoCursor {
+    
+    private static final String PREFIX = "id:";
+    private static final String OFFSET_PREFIX = "offset:";
+    private static final String DUE_PREFIX = "due:";
+    
+    private TodoCursor() {}
+    
+    public static String encode(Long lastId) {
+        return encodeRaw(PREFIX + lastId);
+    }
+    
+    // A missing cursor means "start from the beginning"
+    public static long decode(String cursor) {
+        return decodeRaw(cursor, PREFIX);
+    }
+    
+    public static String encodeOffset(int offset) {
+        return encodeRaw(OFFSET_PREFIX + offset);
+    }
+    
+    public static int decodeOffset(String cursor) {
+        long offset = decodeRaw(cursor, OFFSET_PREFIX);
+        if (offset < 0 || offset > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return (int) offset;
+    }
+    
+    public static String encodeDue(TodoDueIndex.DueKey lastKey) {
+        return encodeRaw(DUE_PREFIX + lastKey.getId() + "@" + lastKey.getDueDate());
+    }
+    
+    // Null when there is no cursor
+    public static TodoDueIndex.DueKey decodeDue(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String raw = decodeString(cursor);
+        int at = raw.indexOf('@');
+        if (!raw.startsWith(DUE_PREFIX) || at < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        try {
+            return new TodoDueIndex.DueKey(LocalDateTime.parse(raw.substring(at + 1)),
+                    Long.parseLong(raw.substring(DUE_PREFIX.length(), at)));
+        } catch (NumberFormatException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, ex);
+        }
+    }
+    
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static long decodeRaw(String cursor, String prefix) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        String raw = decodeString(cursor);
+        if (!raw.startsWith(prefix)) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        try {
+            return Long.parseLong(raw.substring(prefix.length()));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, ex);
+        }
+    }
+    
+    private static String decodeString(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, ex);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.dtos.TodoResponseDTO;
+
+/**
+ * Published once when an open todo's due date passes. Todos that are already overdue when
+ * the application starts, or that are given a due date in the past, do not fire.
+ */
+public class TodoDueEvent {
+    
+    private final TodoResponseDTO todo;
+    
+    public TodoDueEvent(TodoResponseDTO todo) {
+        this.todo = todo;
+    }
+    
+    // Getters
+    public TodoResponseDTO getTodo() { return todo; }
+}
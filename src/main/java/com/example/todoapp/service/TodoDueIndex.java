@@ -0,0 +1,174 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.models.TodoStatus;
+import com.example.todoapp.repository.TodoRepository;
+import com.example.todoapp.repository.TodoShards;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory index of todos that have a due date and are not completed, ordered by
+ * (dueDate, id). Range reads cost O(log n + k). Loaded once at startup and kept current
+ * by the change events of committed writes and by purges: the archiver's name the todos it
+ * moved, cancelled ones included, and the cleanup job's only remove completed todos, which
+ * are never indexed. Publishes a {@link TodoDueEvent} when a todo's due date passes.
+ */
+@Component
+public class TodoDueIndex {
+    
+    private final TodoRepository todoRepository;
+    private final TodoShards todoShards;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ConcurrentSkipListMap<DueKey, TodoResponseDTO> byDueDate = new ConcurrentSkipListMap<>();
+    private final Map<Long, DueKey> keysById = new ConcurrentHashMap<>();
+    // Everything up to this key has had its due event published
+    private DueKey firedThrough;
+    
+    @Autowired
+    public TodoDueIndex(TodoRepository todoRepository, TodoShards todoShards, ApplicationEventPublisher eventPublisher) {
+        this.todoRepository = todoRepository;
+        this.todoShards = todoShards;
+        this.eventPublisher = eventPublisher;
+    }
+    
+    @PostConstruct
+    public void initialize() {
+        // Todos already overdue at startup do not fire
+        firedThrough = DueKey.last(LocalDateTime.now());
+        // One index over all shards, which serves the due-date views without a fan-out per request
+        todoShards.fanOut(shard -> todoRepository.findDtosByDueDateNotNullAndStatusNot(TodoStatus.COMPLETED))
+                .forEach(todos -> todos.forEach(this::put));
+    }
+    
+    // Up to limit todos ordered by due date, strictly between the two keys (either may be null)
+    public List<TodoResponseDTO> range(DueKey after, DueKey before, int limit) {
+        NavigableMap<DueKey, TodoResponseDTO> view = byDueDate;
+        if (after != null) {
+            view = view.tailMap(after, false);
+        }
+        if (before != null) {
+            view = view.headMap(before, false);
+        }
+        List<TodoResponseDTO> todos = new ArrayList<>(Math.min(limit, 64));
+        for (TodoResponseDTO todo : view.values()) {
+            if (todos.size() == limit) {
+                break;
+            }
+            todos.add(todo);
+        }
+        return todos;
+    }
+    
+    public int size() {
+        return keysById.size();
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        if (event.getType() == TodoChangedEvent.ChangeType.DELETED) {
+            remove(event.getId());
+        } else {
+            put(event.getCurrent());
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTodosPurged(TodosPurgedEvent event) {
+        event.getIds().forEach(this::remove);
+    }
+    
+    // Listeners run outside the lock, so they are free to write todos themselves
+    @Scheduled(fixedDelayString = "${todo.due.check-interval:PT1S}")
+    public void publishDueEvents() {
+        List<TodoResponseDTO> due;
+        synchronized (this) {
+            DueKey now = DueKey.last(LocalDateTime.now());
+            due = range(firedThrough, now, Integer.MAX_VALUE);
+            firedThrough = now;
+        }
+        due.forEach(todo -> eventPublisher.publishEvent(new TodoDueEvent(todo)));
+    }
+    
+    private synchronized void put(TodoResponseDTO todo) {
+        remove(todo.getId());
+        if (todo.getDueDate() == null || todo.getStatus() == TodoStatus.COMPLETED) {
+            return;
+        }
+        DueKey key = DueKey.of(todo);
+        byDueDate.put(key, todo);
+        keysById.put(todo.getId(), key);
+    }
+    
+    private synchronized void remove(Long id) {
+        DueKey key = keysById.remove(id);
+        if (key != null) {
+            byDueDate.remove(key);
+        }
+    }
+    
+    /**
+     * Position in the index. Ids break ties between todos due at the same instant.
+     */
+    public static final class DueKey implements Comparable<DueKey> {
+        
+        private static final Comparator<DueKey> ORDER = Comparator
+                .comparing((DueKey key) -> key.dueDate)
+                .thenComparingLong(key -> key.id);
+        
+        private final LocalDateTime dueDate;
+        private final long id;
+        
+        public DueKey(LocalDateTime dueDate, long id) {
+            this.dueDate = dueDate;
+            this.id = id;
+        }
+        
+        public static DueKey of(TodoResponseDTO todo) {
+            return new DueKey(todo.getDueDate(), todo.getId());
+        }
+        
+        // Sorts before every todo due at that instant
+        public static DueKey first(LocalDateTime dueDate) {
+            return new DueKey(dueDate, Long.MIN_VALUE);
+        }
+        
+        // Sorts after every todo due at that instant
+        public static DueKey last(LocalDateTime dueDate) {
+            return new DueKey(dueDate, Long.MAX_VALUE);
+        }
+        
+        public LocalDateTime getDueDate() { return dueDate; }
+        
+        public long getId() { return id; }
+        
+        @Override
+        public int compareTo(DueKey other) {
+            return ORDER.compare(this, other);
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof DueKey key && id == key.id && dueDate.equals(key.dueDate);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Long.hashCode(id) * 31 + dueDate.hashCode();
+        }
+    }
+}
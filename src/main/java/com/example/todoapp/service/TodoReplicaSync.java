@@ -0,0 +1,229 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.config.ReplicaRoutingDataSource;
+import com.example.todoapp.config.TodoReplicaProperties;
+import com.example.todoapp.repository.TodoReplica;
+import com.example.todoapp.repository.TodoReplica.PulledChange;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the local replica in step with the primary: every {@code todo.replica.sync-interval},
+ * and on the committing thread after each transaction that used the primary, so the writing
+ * request reads its own writes locally. Pulls run one at a time; a commit whose changes were
+ * covered by a pull that started after it returns without pulling again. A commit waits at most
+ * {@code todo.replica.max-lag} for a pull running on another thread; if that pull is stuck on a
+ * slow primary, the writing request reads from the primary until a pull has covered its
+ * commit, instead of waiting. That is kept in the request's attributes, or handed back by
+ * {@link TodoWriteBatcher} when its worker committed the write. While the replica is not current (before the first pull, after a
+ * failed one, or once the last success is older than {@code todo.replica.max-lag}) read-only
+ * transactions go to the primary.
+ */
+@Component
+@ConditionalOnProperty(prefix = "todo.replica", name = "enabled", havingValue = "true")
+public class TodoReplicaSync implements ReplicaRoutingDataSource.Replica {
+    
+    private static final Logger log = LoggerFactory.getLogger(TodoReplicaSync.class);
+    private static final String UNCOVERED_ATTRIBUTE = TodoReplicaSync.class.getName() + ".uncovered";
+    
+    private final TodoReplica replica;
+    private final ReplicaRoutingDataSource routing;
+    private final TodoCache todoCache;
+    private final TodoReplicaProperties properties;
+    private final String primaryUrl;
+    private final Timer syncTime;
+    // Not synchronized: a pull holds it across network round trips, which would pin a virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+    // Commits that asked for a pull, and how many of them the last successful pull covered
+    private final AtomicLong requested = new AtomicLong();
+    private volatile long covered;
+    // Outside a request (a write-batcher worker, a scheduled job): the commit this thread gave up waiting for
+    private final ThreadLocal<Long> uncovered = new ThreadLocal<>();
+    private long appliedVersion;
+    private boolean primaryChecked;
+    private boolean failing;
+    private volatile boolean current;
+    private volatile long syncedAtNanos;
+    
+    // The EntityManagerFactory dependency makes sure the primary's migrations have run first
+    @Autowired
+    public TodoReplicaSync(TodoReplica replica, ReplicaRoutingDataSource routing, TodoCache todoCache,
+                           TodoReplicaProperties properties, DataSourceProperties dataSourceProperties,
+                           MeterRegistry meterRegistry, EntityManagerFactory entityManagerFactory) {
+        this.replica = replica;
+        this.routing = routing;
+        this.todoCache = todoCache;
+        this.properties = properties;
+        this.primaryUrl = dataSourceProperties.determineUrl();
+        this.syncTime = Timer.builder("todo.replica.sync")
+                .description("Time to pull and apply the primary's changes to the local replica")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("todo.replica.lag", this, sync -> sync.current
+                        ? (System.nanoTime() - sync.syncedAtNanos) / 1e9 : Double.NaN)
+                .description("Seconds since the local replica last caught up with the primary")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    public void initialize() {
+        appliedVersion = replica.initialize(primaryUrl);
+        routing.setReplica(this);
+        sync();
+    }
+    
+    @Override
+    public boolean isCurrent() {
+        Long ticket = uncovered();
+        if (ticket != null) {
+            if (covered < ticket) {
+                return false;
+            }
+            setUncovered(null);
+        }
+        return current && System.nanoTime() - syncedAtNanos <= properties.getMaxLag().toNanos();
+    }
+    
+    @Override
+    public void afterPrimaryCommit() {
+        long ticket = requested.incrementAndGet();
+        if (!tryLock()) {
+            log.debug("Replica pull still running after {}, reading commit {} from the primary",
+                    properties.getMaxLag(), ticket);
+            readFromPrimaryUntilCovered(ticket);
+            return;
+        }
+        try {
+            if (covered < ticket) {
+                pull(requested.get());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Removes and returns the commit the current thread gave up waiting for, if any. The write
+     * batcher's worker hands it to the caller whose write it committed.
+     */
+    public Long takeUncovered() {
+        Long ticket = uncovered();
+        if (ticket != null) {
+            setUncovered(null);
+        }
+        return ticket;
+    }
+    
+    // Read-only transactions of the current request (or thread) go to the primary until the commit is pulled
+    public void readFromPrimaryUntilCovered(long ticket) {
+        Long previous = uncovered();
+        setUncovered(previous == null ? ticket : Math.max(previous, ticket));
+    }
+    
+    // Scoped to the request when there is one, so it ends with the request instead of staying on a pooled thread
+    private Long uncovered() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        return request != null ? (Long) request.getAttribute(UNCOVERED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                : uncovered.get();
+    }
+    
+    private void setUncovered(Long ticket) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) {
+            uncovered.set(ticket);
+        } else if (ticket == null) {
+            request.removeAttribute(UNCOVERED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        } else {
+            request.setAttribute(UNCOVERED_ATTRIBUTE, ticket, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+    
+    // Waits out a pull on another thread for up to max-lag, about as long as reads tolerate a stale replica
+    private boolean tryLock() {
+        try {
+            return lock.tryLock(properties.getMaxLag().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    @Scheduled(initialDelayString = "${todo.replica.sync-interval:PT1S}",
+               fixedDelayString = "${todo.replica.sync-interval:PT1S}")
+    public void sync() {
+        lock.lock();
+        try {
+            pull(requested.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Pulls until the primary has nothing newer; covering is sampled before the first query
+    private void pull(long covering) {
+        long started = System.nanoTime();
+        try {
+            checkPrimary();
+            List<PulledChange> changes;
+            do {
+                changes = replica.pull(appliedVersion, properties.getBatchSize());
+                replica.apply(changes);
+                if (!changes.isEmpty()) {
+                    appliedVersion = changes.get(changes.size() - 1).getChange().getVersion();
+                    // After the local commit, so a reload cannot read the replaced row
+                    changes.forEach(pulled -> todoCache.invalidate(pulled.getChange().getTodoId()));
+                }
+            } while (changes.size() == properties.getBatchSize());
+            covered = covering;
+            syncedAtNanos = System.nanoTime();
+            current = true;
+            if (failing) {
+                log.info("Replica caught up with the primary at version {}", appliedVersion);
+                failing = false;
+            }
+        } catch (DataAccessException ex) {
+            // Once per outage rather than once per pull
+            if (!failing) {
+                log.warn("Replica sync failed, reading from the primary until it succeeds: {}", ex.getMessage());
+                failing = true;
+            }
+            current = false;
+        } finally {
+            syncTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    // A primary whose log ends before the replica's was replaced or restored from a backup
+    private void checkPrimary() {
+        if (primaryChecked) {
+            return;
+        }
+        long primaryVersion = replica.primaryVersion();
+        if (primaryVersion < appliedVersion) {
+            log.warn("Primary is at version {}, behind the replica's {}; starting over", primaryVersion, appliedVersion);
+            replica.clear();
+            todoCache.invalidateAll();
+            appliedVersion = 0;
+        }
+        primaryChecked = true;
+    }
+}
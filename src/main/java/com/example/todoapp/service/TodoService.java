@@ -1,11 +1,19 @@
 package com.example.todoapp.service;
 
+import com.example.todoapp.dtos.BatchResultDTO;
+import com.example.todoapp.dtos.CleanupStatusDTO;
+import com.example.todoapp.dtos.CursorPage;
+import com.example.todoapp.dtos.TodoChangesDTO;
 import com.example.todoapp.dtos.TodoRequestDTO;
 import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.dtos.TodoUpdateItemDTO;
 import com.example.todoapp.models.TodoStatus;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface TodoService {
     
@@ -13,23 +21,62 @@ public interface TodoService {
     
     TodoResponseDTO getTodoById(Long id);
     
-    List<TodoResponseDTO> getAllTodos();
+    long getTodoVersion(Long id);
     
-    TodoResponseDTO updateTodo(Long id, TodoRequestDTO todoRequest);
+    CursorPage<TodoResponseDTO> getAllTodos(String cursor, int limit);
     
-    void deleteTodo(Long id);
+    CursorPage<TodoResponseDTO> getTodosInList(String listKey, String cursor, int limit);
     
-    List<TodoResponseDTO> getTodosByStatus(TodoStatus status);
+    // expectedVersion null means unconditional; otherwise a different current version fails the write
+    TodoResponseDTO updateTodo(Long id, TodoRequestDTO todoRequest, Long expectedVersion);
     
-    List<TodoResponseDTO> searchTodosByTitle(String title);
+    void deleteTodo(Long id, Long expectedVersion);
     
-    List<TodoResponseDTO> getOverdueTodos();
+    BatchResultDTO createTodos(List<TodoRequestDTO> todoRequests);
     
-    List<TodoResponseDTO> getTodosDueAfter(LocalDateTime date);
+    BatchResultDTO updateTodos(List<TodoUpdateItemDTO> todoRequests);
     
-    List<TodoResponseDTO> getTodosCreatedBetween(LocalDateTime startDate, LocalDateTime endDate);
+    BatchResultDTO deleteTodos(List<Long> ids);
+    
+    List<TodoResponseDTO> getTodosByIds(List<Long> ids);
+    
+    CursorPage<TodoResponseDTO> getTodosByStatus(TodoStatus status, String cursor, int limit);
+    
+    CursorPage<TodoResponseDTO> searchTodos(String query, String cursor, int limit);
+    
+    CursorPage<TodoResponseDTO> getOverdueTodos(String cursor, int limit);
+    
+    CursorPage<TodoResponseDTO> getTodosDueAfter(LocalDateTime date, String cursor, int limit);
+    
+    CursorPage<TodoResponseDTO> getTodosDueSoon(Duration within, String cursor, int limit);
+    
+    List<TodoResponseDTO> getNextDueTodos(int limit);
+    
+    CursorPage<TodoResponseDTO> getTodosCreatedBetween(LocalDateTime startDate, LocalDateTime endDate,
+                                                       String cursor, int limit);
+    
+    TodoChangesDTO getChangesSince(long since, int limit);
+    
+    // The changes of one list; with sharded storage the only form of delta sync
+    TodoChangesDTO getChangesSince(String listKey, long since, int limit);
+    
+    void exportTodos(Consumer<TodoResponseDTO> sink);
     
     long countTodosByStatus(TodoStatus status);
     
-    void deleteCompletedTodosOlderThan(LocalDateTime date);
+    Map<TodoStatus, Long> countTodos();
+    
+    // Starts a background purge (see TodoCleanupJob) and returns its status
+    CleanupStatusDTO deleteCompletedTodosOlderThan(LocalDateTime date);
+    
+    CleanupStatusDTO getCleanupStatus();
+    
+    // Falls back to the archive (see TodoArchiver) when the todo is not in the todos table
+    TodoResponseDTO getTodoByIdIncludingArchived(Long id);
+    
+    // Live and archived todos in one id-ordered list, optionally of one status
+    CursorPage<TodoResponseDTO> getTodosIncludingArchived(TodoStatus status, String cursor, int limit);
+    
+    CursorPage<TodoResponseDTO> getArchivedTodos(TodoStatus status, LocalDateTime updatedFrom, LocalDateTime updatedTo,
+                                                 String cursor, int limit);
 }
@@ -1,136 +1,613 @@
 package com.example.todoapp.service;
 
+import com.example.todoapp.dtos.BatchItemResultDTO;
+import com.example.todoapp.dtos.BatchResultDTO;
+import com.example.todoapp.dtos.CleanupStatusDTO;
+import com.example.todoapp.dtos.CursorPage;
+import com.example.todoapp.dtos.TodoChangesDTO;
 import com.example.todoapp.dtos.TodoRequestDTO;
+import com.example.todoapp.dtos.TodoBatchRequestDTO;
 import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.dtos.TodoUpdateItemDTO;
 import com.example.todoapp.models.Todo;
 import com.example.todoapp.models.TodoStatus;
+import com.example.todoapp.repository.TodoArchive;
+import com.example.todoapp.repository.TodoChangeLog;
+import com.example.todoapp.repository.TodoChangeLog.Change;
+import com.example.todoapp.repository.TodoIdAllocator;
 import com.example.todoapp.repository.TodoRepository;
+import com.example.todoapp.repository.TodoRepository.IdAndStatus;
+import com.example.todoapp.repository.TodoSearchIndex;
+import com.example.todoapp.repository.TodoShards;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+/**
+ * With sharded storage (see {@link TodoShards}) a single todo or list is read and written on its
+ * own shard, on the calling thread. Everything else asks every shard in parallel and merges the
+ * pages by id; batches are split by shard, and each shard's part commits on its own.
+ */
 @Service
 @Transactional
 public class TodoServiceImpl implements TodoService {
     
+    static final int MAX_PAGE_SIZE = 500;
+    
     private final TodoRepository todoRepository;
+    private final TodoIdAllocator todoIdAllocator;
+    private final TodoSearchIndex todoSearchIndex;
+    private final TodoChangeLog todoChangeLog;
+    private final TodoWriteBatcher todoWriteBatcher;
+    private final TodoCache todoCache;
+    private final TodoStatusCounters todoStatusCounters;
+    private final TodoDueIndex todoDueIndex;
+    private final TodoCleanupJob todoCleanupJob;
+    private final TodoArchive todoArchive;
+    private final TodoShards todoShards;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Autowired
-    public TodoServiceImpl(TodoRepository todoRepository) {
+    public TodoServiceImpl(TodoRepository todoRepository, TodoIdAllocator todoIdAllocator,
+                           TodoSearchIndex todoSearchIndex, TodoChangeLog todoChangeLog, TodoWriteBatcher todoWriteBatcher, TodoCache todoCache,
+                           TodoStatusCounters todoStatusCounters, TodoDueIndex todoDueIndex, TodoCleanupJob todoCleanupJob,
+                           TodoArchive todoArchive, TodoShards todoShards, ApplicationEventPublisher eventPublisher) {
         this.todoRepository = todoRepository;
+        this.todoIdAllocator = todoIdAllocator;
+        this.todoSearchIndex = todoSearchIndex;
+        this.todoChangeLog = todoChangeLog;
+        this.todoWriteBatcher = todoWriteBatcher;
+        this.todoCache = todoCache;
+        this.todoStatusCounters = todoStatusCounters;
+        this.todoDueIndex = todoDueIndex;
+        this.todoCleanupJob = todoCleanupJob;
+        this.todoArchive = todoArchive;
+        this.todoShards = todoShards;
+        this.eventPublisher = eventPublisher;
     }
     
+    // Single writes go through the write batcher, which owns their transaction
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public TodoResponseDTO createTodo(TodoRequestDTO todoRequest) {
-        Todo todo = new Todo();
-        todo.setTitle(todoRequest.getTitle());
-        todo.setDescription(todoRequest.getDescription());
-        todo.setStatus(todoRequest.getStatus() != null ? todoRequest.getStatus() : TodoStatus.PENDING);
-        todo.setDueDate(todoRequest.getDueDate());
-        
-        Todo savedTodo = todoRepository.save(todo);
-        return new TodoResponseDTO(savedTodo);
+        return todoShards.call(todoShards.shardOf(todoRequest.getListKey()), () -> todoWriteBatcher.execute(() -> {
+            Todo todo = newTodo(todoRequest, todoIdAllocator.allocate(1));
+            
+            Todo savedTodo = todoRepository.save(todo);
+            TodoResponseDTO created = new TodoResponseDTO(savedTodo);
+            eventPublisher.publishEvent(TodoChangedEvent.created(created));
+            return created;
+        }));
     }
     
+    // No transaction of its own: a cache hit must not even open a connection
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public TodoResponseDTO getTodoById(Long id) {
-        Todo todo = todoRepository.findById(id)
+        return todoCache.get(id, key -> todoShards.call(todoShards.shardOfId(key), () -> todoRepository.findDtoById(key))
+                .orElseThrow(() -> new EntityNotFoundException("Todo not found with id: " + key)));
+    }
+    
+    // Answered from the cache when the todo is there, otherwise from the primary key alone
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public long getTodoVersion(Long id) {
+        TodoResponseDTO cached = todoCache.getIfPresent(id);
+        if (cached != null) {
+            return cached.getVersion();
+        }
+        return todoShards.call(todoShards.shardOfId(id), () -> todoRepository.findVersionById(id))
                 .orElseThrow(() -> new EntityNotFoundException("Todo not found with id: " + id));
-        return new TodoResponseDTO(todo);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<TodoResponseDTO> getAllTodos() {
-        List<Todo> todos = todoRepository.findAll();
-        return todos.stream()
-                .map(TodoResponseDTO::new)
-                .collect(Collectors.toList());
+    public CursorPage<TodoResponseDTO> getAllTodos(String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        long afterId = TodoCursor.decode(cursor);
+        List<TodoResponseDTO> todos = mergeById(todoShards.fanOut(shard ->
+                todoRepository.findDtosAfter(afterId, Limit.of(pageSize + 1))), pageSize + 1);
+        return toPage(todos, pageSize);
     }
     
+    // One list lives on one shard
     @Override
-    public TodoResponseDTO updateTodo(Long id, TodoRequestDTO todoRequest) {
-        Todo existingTodo = todoRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Todo not found with id: " + id));
-        
-        existingTodo.setTitle(todoRequest.getTitle());
-        existingTodo.setDescription(todoRequest.getDescription());
-        if (todoRequest.getStatus() != null) {
-            existingTodo.setStatus(todoRequest.getStatus());
-        }
-        existingTodo.setDueDate(todoRequest.getDueDate());
-        
-        Todo updatedTodo = todoRepository.save(existingTodo);
-        return new TodoResponseDTO(updatedTodo);
+    @Transactional(readOnly = true)
+    public CursorPage<TodoResponseDTO> getTodosInList(String listKey, String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        long afterId = TodoCursor.decode(cursor);
+        List<TodoResponseDTO> todos = todoShards.call(todoShards.shardOf(listKey), () ->
+                todoRepository.findDtosByListKeyAfter(listKey, afterId, Limit.of(pageSize + 1)));
+        return toPage(todos, pageSize);
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public TodoResponseDTO updateTodo(Long id, TodoRequestDTO todoRequest, Long expectedVersion) {
+        return todoShards.call(todoShards.shardOfId(id), () -> todoWriteBatcher.execute(() -> {
+            Todo existingTodo = todoRepository.findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("Todo not found with id: " + id));
+            checkVersion(existingTodo, expectedVersion);
+            String listKeyError = listKeyChange(existingTodo, todoRequest);
+            if (listKeyError != null) {
+                throw new IllegalArgumentException(listKeyError);
+            }
+            
+            TodoResponseDTO previous = new TodoResponseDTO(existingTodo);
+            applyUpdate(existingTodo, todoRequest);
+            
+            Todo updatedTodo = todoRepository.save(existingTodo);
+            // Flush so the response (and its ETag) carries the incremented version
+            todoRepository.flush();
+            TodoResponseDTO updated = new TodoResponseDTO(updatedTodo);
+            eventPublisher.publishEvent(TodoChangedEvent.updated(previous, updated));
+            return updated;
+        }));
+    }
+    
+    // The SELECT takes the transaction's connection while the shard is bound; the DELETE at commit reuses it
+    @Override
+    public void deleteTodo(Long id, Long expectedVersion) {
+        todoShards.run(todoShards.shardOfId(id), () -> {
+            Todo todo = todoRepository.findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("Todo not found with id: " + id));
+            checkVersion(todo, expectedVersion);
+            TodoResponseDTO previous = new TodoResponseDTO(todo);
+            todoRepository.delete(todo);
+            eventPublisher.publishEvent(TodoChangedEvent.deleted(id, previous));
+        });
     }
     
     @Override
-    public void deleteTodo(Long id) {
-        if (!todoRepository.existsById(id)) {
-            throw new EntityNotFoundException("Todo not found with id: " + id);
+    public BatchResultDTO createTodos(List<TodoRequestDTO> todoRequests) {
+        checkBatchSize(todoRequests.size());
+        Map<Integer, List<Integer>> byShard = groupByShard(todoRequests.size(),
+                i -> todoShards.shardOf(todoRequests.get(i).getListKey()));
+        BatchItemResultDTO[] results = new BatchItemResultDTO[todoRequests.size()];
+        todoShards.fanOut(byShard.keySet(), false, shard -> {
+            List<Integer> indexes = byShard.get(shard);
+            // One id reservation per shard, then inserts are flushed as JDBC batches
+            long firstId = todoIdAllocator.allocate(indexes.size());
+            List<Todo> todos = new ArrayList<>(indexes.size());
+            for (int i = 0; i < indexes.size(); i++) {
+                todos.add(newTodo(todoRequests.get(indexes.get(i)), firstId + (long) i * todoShards.count()));
+            }
+            List<Todo> savedTodos = todoRepository.saveAll(todos);
+            
+            for (int i = 0; i < savedTodos.size(); i++) {
+                TodoResponseDTO created = new TodoResponseDTO(savedTodos.get(i));
+                eventPublisher.publishEvent(TodoChangedEvent.created(created));
+                int index = indexes.get(i);
+                results[index] = new BatchItemResultDTO(index, created.getId(), HttpStatus.CREATED.value(), created, null);
+            }
+            return null;
+        });
+        return new BatchResultDTO(Arrays.asList(results));
+    }
+    
+    @Override
+    public BatchResultDTO updateTodos(List<TodoUpdateItemDTO> todoRequests) {
+        checkBatchSize(todoRequests.size());
+        Map<Integer, List<Integer>> byShard = groupByShard(todoRequests.size(),
+                i -> todoShards.shardOfId(todoRequests.get(i).getId()));
+        BatchItemResultDTO[] results = new BatchItemResultDTO[todoRequests.size()];
+        todoShards.fanOut(byShard.keySet(), false, shard -> {
+            updateTodos(todoRequests, byShard.get(shard), results);
+            return null;
+        });
+        return new BatchResultDTO(Arrays.asList(results));
+    }
+    
+    @Override
+    public BatchResultDTO deleteTodos(List<Long> ids) {
+        checkBatchSize(ids.size());
+        Map<Integer, List<Long>> byShard = ids.stream()
+                .collect(Collectors.groupingBy(todoShards::shardOfId, TreeMap::new, Collectors.toList()));
+        Map<Long, TodoStatus> existing = new HashMap<>();
+        todoShards.fanOut(byShard.keySet(), false, shard -> {
+            Map<Long, TodoStatus> found = todoRepository.findStatusesByIdIn(byShard.get(shard)).stream()
+                    .collect(Collectors.toMap(IdAndStatus::getId, IdAndStatus::getStatus));
+            todoRepository.deleteAllByIdInBatch(found.keySet());
+            found.forEach((id, status) -> eventPublisher.publishEvent(TodoChangedEvent.deleted(id, statusOnly(id, status))));
+            return found;
+        }).forEach(existing::putAll);
+        
+        List<BatchItemResultDTO> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            results.add(existing.containsKey(id)
+                    ? new BatchItemResultDTO(i, id, HttpStatus.NO_CONTENT.value(), null, null)
+                    : notFound(i, id));
         }
-        todoRepository.deleteById(id);
+        return new BatchResultDTO(results);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<TodoResponseDTO> getTodosByStatus(TodoStatus status) {
-        List<Todo> todos = todoRepository.findByStatus(status);
-        return todos.stream()
-                .map(TodoResponseDTO::new)
+    public List<TodoResponseDTO> getTodosByIds(List<Long> ids) {
+        checkBatchSize(ids.size());
+        Map<Long, TodoResponseDTO> found = findDtosById(ids);
+        // Keep the caller's order; unknown ids are simply absent
+        return ids.stream()
+                .distinct()
+                .map(found::get)
+                .filter(todo -> todo != null)
                 .collect(Collectors.toList());
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<TodoResponseDTO> searchTodosByTitle(String title) {
-        List<Todo> todos = todoRepository.findByTitleContainingIgnoreCase(title);
-        return todos.stream()
-                .map(TodoResponseDTO::new)
-                .collect(Collectors.toList());
+    public CursorPage<TodoResponseDTO> getTodosByStatus(TodoStatus status, String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        long afterId = TodoCursor.decode(cursor);
+        List<TodoResponseDTO> todos = mergeById(todoShards.fanOut(shard ->
+                todoRepository.findDtosByStatusAfter(status, afterId, Limit.of(pageSize + 1))), pageSize + 1);
+        return toPage(todos, pageSize);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<TodoResponseDTO> getOverdueTodos() {
-        List<Todo> todos = todoRepository.findOverdueTodos(LocalDateTime.now(), TodoStatus.COMPLETED);
-        return todos.stream()
-                .map(TodoResponseDTO::new)
+    public CursorPage<TodoResponseDTO> searchTodos(String query, String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        String matchExpression = TodoSearchIndex.toMatchExpression(query);
+        if (!todoSearchIndex.isAvailable() || matchExpression == null) {
+            // Substring match on the title; a full scan, but works without FTS5
+            String title = query == null ? "" : query.trim();
+            long afterId = TodoCursor.decode(cursor);
+            List<TodoResponseDTO> todos = mergeById(todoShards.fanOut(shard ->
+                    todoRepository.findDtosByTitleContainingAfter(title, afterId, Limit.of(pageSize + 1))), pageSize + 1);
+            return toPage(todos, pageSize);
+        }
+        int offset = TodoCursor.decodeOffset(cursor);
+        List<Long> ids = todoSearchIndex.search(matchExpression, offset, pageSize + 1);
+        boolean hasNext = ids.size() > pageSize;
+        List<Long> pageIds = hasNext ? ids.subList(0, pageSize) : ids;
+        Map<Long, TodoResponseDTO> found = findDtosById(pageIds);
+        // Keep the ranking order
+        List<TodoResponseDTO> items = pageIds.stream()
+                .map(found::get)
+                .filter(todo -> todo != null)
                 .collect(Collectors.toList());
+        return new CursorPage<>(items, hasNext ? TodoCursor.encodeOffset(offset + pageSize) : null);
+    }
+    
+    // The due-date views below are served from memory, no transaction needed
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CursorPage<TodoResponseDTO> getOverdueTodos(String cursor, int limit) {
+        TodoDueIndex.DueKey now = TodoDueIndex.DueKey.first(LocalDateTime.now());
+        return duePage(TodoCursor.decodeDue(cursor), now, limit);
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CursorPage<TodoResponseDTO> getTodosDueAfter(LocalDateTime date, String cursor, int limit) {
+        TodoDueIndex.DueKey after = TodoCursor.decodeDue(cursor);
+        return duePage(after != null ? after : TodoDueIndex.DueKey.last(date), null, limit);
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CursorPage<TodoResponseDTO> getTodosDueSoon(Duration within, String cursor, int limit) {
+        if (within.isNegative()) {
+            throw new IllegalArgumentException("within must not be negative");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        TodoDueIndex.DueKey after = TodoCursor.decodeDue(cursor);
+        return duePage(after != null ? after : TodoDueIndex.DueKey.first(now),
+                TodoDueIndex.DueKey.last(now.plus(within)), limit);
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<TodoResponseDTO> getNextDueTodos(int limit) {
+        return todoDueIndex.range(TodoDueIndex.DueKey.first(LocalDateTime.now()), null, pageSize(limit));
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<TodoResponseDTO> getTodosDueAfter(LocalDateTime date) {
-        List<Todo> todos = todoRepository.findByDueDateAfter(date);
-        return todos.stream()
-                .map(TodoResponseDTO::new)
-                .collect(Collectors.toList());
+    public CursorPage<TodoResponseDTO> getTodosCreatedBetween(LocalDateTime startDate, LocalDateTime endDate,
+                                                              String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        long afterId = TodoCursor.decode(cursor);
+        List<TodoResponseDTO> todos = mergeById(todoShards.fanOut(shard -> todoRepository.findDtosByCreatedAtBetweenAfter(
+                startDate, endDate, afterId, Limit.of(pageSize + 1))), pageSize + 1);
+        return toPage(todos, pageSize);
     }
     
+    // Versions are numbered per shard, so with sharded storage they only order the changes of one list
     @Override
     @Transactional(readOnly = true)
-    public List<TodoResponseDTO> getTodosCreatedBetween(LocalDateTime startDate, LocalDateTime endDate) {
-        List<Todo> todos = todoRepository.findByCreatedAtBetween(startDate, endDate);
-        return todos.stream()
-                .map(TodoResponseDTO::new)
-                .collect(Collectors.toList());
+    public TodoChangesDTO getChangesSince(long since, int limit) {
+        if (todoShards.count() > 1) {
+            throw new IllegalArgumentException("Todos are sharded; ask for the changes of one list with listKey");
+        }
+        return changesSince(null, since, limit);
     }
     
     @Override
     @Transactional(readOnly = true)
+    public TodoChangesDTO getChangesSince(String listKey, long since, int limit) {
+        return todoShards.call(todoShards.shardOf(listKey), () -> changesSince(listKey, since, limit));
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public void exportTodos(Consumer<TodoResponseDTO> sink) {
+        // DTO rows are not managed, so the persistence context stays empty however large the table.
+        // With sharded storage the shards follow each other, each in id order
+        todoShards.forEachShard(shard -> {
+            try (Stream<TodoResponseDTO> todos = todoRepository.streamAllDtos()) {
+                todos.forEach(sink);
+            }
+        });
+    }
+    
+    // Served from memory, no transaction needed
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public long countTodosByStatus(TodoStatus status) {
-        return todoRepository.countByStatus(status);
+        return todoStatusCounters.get(status);
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Map<TodoStatus, Long> countTodos() {
+        return todoStatusCounters.snapshot();
+    }
+    
+    // The purge commits chunk by chunk on its own thread (TodoCleanupJob)
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CleanupStatusDTO deleteCompletedTodosOlderThan(LocalDateTime date) {
+        return todoCleanupJob.start(date);
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CleanupStatusDTO getCleanupStatus() {
+        return todoCleanupJob.status();
     }
     
     @Override
-    public void deleteCompletedTodosOlderThan(LocalDateTime date) {
-        todoRepository.deleteByStatusAndUpdatedAtBefore(TodoStatus.COMPLETED, date);
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public TodoResponseDTO getTodoByIdIncludingArchived(Long id) {
+        try {
+            return getTodoById(id);
+        } catch (EntityNotFoundException ex) {
+            return todoArchive.findById(id).orElseThrow(() -> ex);
+        }
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<TodoResponseDTO> getTodosIncludingArchived(TodoStatus status, String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        long afterId = TodoCursor.decode(cursor);
+        List<TodoResponseDTO> live = mergeById(todoShards.fanOut(shard -> status == null
+                ? todoRepository.findDtosAfter(afterId, Limit.of(pageSize + 1))
+                : todoRepository.findDtosByStatusAfter(status, afterId, Limit.of(pageSize + 1))), pageSize + 1);
+        List<TodoResponseDTO> archived = todoArchive.find(status, null, null, afterId, pageSize + 1);
+        // Both are keyset pages after the same id; a todo archived while we read may show up in both
+        Map<Long, TodoResponseDTO> merged = new TreeMap<>();
+        archived.forEach(todo -> merged.put(todo.getId(), todo));
+        live.forEach(todo -> merged.put(todo.getId(), todo));
+        List<TodoResponseDTO> todos = merged.values().stream().limit(pageSize + 1).collect(Collectors.toList());
+        return toPage(todos, pageSize);
+    }
+    
+    // Reads segment files only
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CursorPage<TodoResponseDTO> getArchivedTodos(TodoStatus status, LocalDateTime updatedFrom,
+                                                        LocalDateTime updatedTo, String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        List<TodoResponseDTO> todos = todoArchive.find(status, updatedFrom, updatedTo, TodoCursor.decode(cursor),
+                pageSize + 1);
+        return toPage(todos, pageSize);
+    }
+    
+    private static int pageSize(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+    
+    // Pages are fetched with one extra row so we know whether another page follows
+    private static CursorPage<TodoResponseDTO> toPage(List<TodoResponseDTO> todos, int pageSize) {
+        boolean hasNext = todos.size() > pageSize;
+        List<TodoResponseDTO> items = hasNext ? new ArrayList<>(todos.subList(0, pageSize)) : todos;
+        String nextCursor = hasNext ? TodoCursor.encode(items.get(pageSize - 1).getId()) : null;
+        return new CursorPage<>(items, nextCursor);
+    }
+    
+    // Each shard's page is in id order; the merged page is the first limit of all of them
+    private static List<TodoResponseDTO> mergeById(List<List<TodoResponseDTO>> pages, int limit) {
+        if (pages.size() == 1) {
+            return pages.get(0);
+        }
+        return pages.stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(TodoResponseDTO::getId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+    
+    private Map<Long, TodoResponseDTO> findDtosById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        if (todoShards.count() == 1) {
+            return byId(todoRepository.findDtosByIdIn(ids));
+        }
+        Map<Integer, List<Long>> byShard = ids.stream()
+                .collect(Collectors.groupingBy(todoShards::shardOfId, TreeMap::new, Collectors.toList()));
+        Map<Long, TodoResponseDTO> found = new HashMap<>();
+        todoShards.fanOut(byShard.keySet(), true, shard -> todoRepository.findDtosByIdIn(byShard.get(shard)))
+                .forEach(todos -> found.putAll(byId(todos)));
+        return found;
+    }
+    
+    private static Map<Long, TodoResponseDTO> byId(List<TodoResponseDTO> todos) {
+        return todos.stream().collect(Collectors.toMap(TodoResponseDTO::getId, Function.identity()));
+    }
+    
+    // Log and rows are read in one transaction, so both come from the same snapshot
+    private TodoChangesDTO changesSince(String listKey, long since, int limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("since must not be negative");
+        }
+        int pageSize = pageSize(limit);
+        List<Change> changes = listKey == null
+                ? todoChangeLog.findSince(since, pageSize + 1)
+                : todoChangeLog.findSince(since, pageSize + 1, listKey);
+        boolean hasMore = changes.size() > pageSize;
+        List<Change> page = hasMore ? changes.subList(0, pageSize) : changes;
+        
+        List<Long> upsertedIds = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        for (Change change : page) {
+            (change.isDeleted() ? deleted : upsertedIds).add(change.getTodoId());
+        }
+        // On this thread, so from the log's snapshot: a list's todos are all on the bound shard
+        Map<Long, TodoResponseDTO> found = upsertedIds.isEmpty() ? Map.of() : byId(todoRepository.findDtosByIdIn(upsertedIds));
+        List<TodoResponseDTO> upserted = upsertedIds.stream()
+                .map(found::get)
+                .filter(todo -> todo != null)
+                .collect(Collectors.toList());
+        long version = page.isEmpty() ? since : page.get(page.size() - 1).getVersion();
+        return new TodoChangesDTO(upserted, deleted, version, hasMore);
+    }
+    
+    private CursorPage<TodoResponseDTO> duePage(TodoDueIndex.DueKey after, TodoDueIndex.DueKey before, int limit) {
+        int pageSize = pageSize(limit);
+        List<TodoResponseDTO> todos = todoDueIndex.range(after, before, pageSize + 1);
+        boolean hasNext = todos.size() > pageSize;
+        List<TodoResponseDTO> items = hasNext ? todos.subList(0, pageSize) : todos;
+        String nextCursor = hasNext ? TodoCursor.encodeDue(TodoDueIndex.DueKey.of(items.get(pageSize - 1))) : null;
+        return new CursorPage<>(items, nextCursor);
+    }
+    
+    // The shard's part of a batch update, run in that shard's transaction
+    private void updateTodos(List<TodoUpdateItemDTO> todoRequests, List<Integer> indexes, BatchItemResultDTO[] results) {
+        List<Long> ids = indexes.stream().map(i -> todoRequests.get(i).getId()).toList();
+        Map<Long, Todo> existing = todoRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Todo::getId, Function.identity()));
+        
+        Map<Long, TodoResponseDTO> previous = new HashMap<>();
+        for (int i : indexes) {
+            TodoUpdateItemDTO todoRequest = todoRequests.get(i);
+            Todo todo = existing.get(todoRequest.getId());
+            if (todo == null) {
+                results[i] = notFound(i, todoRequest.getId());
+                continue;
+            }
+            String listKeyError = listKeyChange(todo, todoRequest);
+            if (listKeyError != null) {
+                results[i] = new BatchItemResultDTO(i, todo.getId(), HttpStatus.BAD_REQUEST.value(), null, listKeyError);
+                continue;
+            }
+            previous.putIfAbsent(todo.getId(), new TodoResponseDTO(todo));
+            applyUpdate(todo, todoRequest);
+            results[i] = new BatchItemResultDTO(i, todo.getId(), HttpStatus.OK.value(), null, null);
+        }
+        // Dirty checking turns the changes into batched UPDATEs; flush now so the
+        // responses carry the refreshed timestamps
+        todoRepository.flush();
+        for (int i : indexes) {
+            if (results[i].getError() == null) {
+                results[i].setTodo(new TodoResponseDTO(existing.get(results[i].getId())));
+            }
+        }
+        previous.forEach((id, before) -> eventPublisher.publishEvent(
+                TodoChangedEvent.updated(before, new TodoResponseDTO(existing.get(id)))));
+    }
+    
+    // Indexes 0 to size - 1 grouped by shard, ascending within each shard
+    private static Map<Integer, List<Integer>> groupByShard(int size, IntUnaryOperator shardOf) {
+        return IntStream.range(0, size).boxed()
+                .collect(Collectors.groupingBy(shardOf::applyAsInt, TreeMap::new, Collectors.toList()));
+    }
+    
+    private static Todo newTodo(TodoRequestDTO todoRequest, long id) {
+        Todo todo = new Todo();
+        todo.setId(id);
+        if (todoRequest.getListKey() != null) {
+            todo.setListKey(todoRequest.getListKey());
+        }
+        todo.setTitle(todoRequest.getTitle());
+        todo.setDescription(todoRequest.getDescription());
+        todo.setStatus(todoRequest.getStatus() != null ? todoRequest.getStatus() : TodoStatus.PENDING);
+        todo.setDueDate(todoRequest.getDueDate());
+        return todo;
+    }
+    
+    private static void applyUpdate(Todo todo, TodoRequestDTO todoRequest) {
+        todo.setTitle(todoRequest.getTitle());
+        todo.setDescription(todoRequest.getDescription());
+        if (todoRequest.getStatus() != null) {
+            todo.setStatus(todoRequest.getStatus());
+        }
+        todo.setDueDate(todoRequest.getDueDate());
+    }
+    
+    // A todo stays in the list (and on the shard) it was created in; null when the request keeps it
+    private static String listKeyChange(Todo todo, TodoRequestDTO todoRequest) {
+        if (todoRequest.getListKey() == null || todoRequest.getListKey().equals(todo.getListKey())) {
+            return null;
+        }
+        return "Todo " + todo.getId() + " belongs to list " + todo.getListKey() + "; its list cannot be changed";
+    }
+    
+    // The versioned UPDATE/DELETE Hibernate issues then also fails if another write commits in between
+    private static void checkVersion(Todo todo, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(todo.getVersion())) {
+            throw new OptimisticLockingFailureException("Todo " + todo.getId() + " is at version " +
+                    todo.getVersion() + ", not " + expectedVersion);
+        }
+    }
+    
+    private static void checkBatchSize(int size) {
+        if (size < 1 || size > TodoBatchRequestDTO.MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(
+                    "A batch must contain between 1 and " + TodoBatchRequestDTO.MAX_BATCH_SIZE + " items");
+        }
+    }
+    
+    // Enough of a deleted todo for listeners that only track status
+    private static TodoResponseDTO statusOnly(Long id, TodoStatus status) {
+        TodoResponseDTO todo = new TodoResponseDTO();
+        todo.setId(id);
+        todo.setStatus(status);
+        return todo;
+    }
+    
+    private static BatchItemResultDTO notFound(int index, Long id) {
+        return new BatchItemResultDTO(index, id, HttpStatus.NOT_FOUND.value(), null,
+                "Todo not found with id: " + id);
     }
 }
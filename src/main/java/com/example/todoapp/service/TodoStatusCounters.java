@@ -0,0 +1,162 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.models.TodoStatus;
+import com.example.todoapp.repository.TodoRepository;
+import com.example.todoapp.repository.TodoShards;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Number of todos per status, held in memory. Seeded from one grouped query, then adjusted by
+ * the deltas of each committed transaction and periodically reconciled against the database
+ * (against every shard in parallel with sharded storage).
+ */
+@Component
+public class TodoStatusCounters {
+    
+    private static final Logger log = LoggerFactory.getLogger(TodoStatusCounters.class);
+    private static final TodoStatus[] STATUSES = TodoStatus.values();
+    
+    private final TodoRepository todoRepository;
+    private final TodoShards todoShards;
+    private final AtomicLongArray counts = new AtomicLongArray(STATUSES.length);
+    // Transactions between beforeCommit and applying their deltas; their rows may already be
+    // visible to a reconciliation query without being counted yet
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong appliedVersion = new AtomicLong();
+    private volatile boolean seeded;
+    
+    @Autowired
+    public TodoStatusCounters(TodoRepository todoRepository, TodoShards todoShards) {
+        this.todoRepository = todoRepository;
+        this.todoShards = todoShards;
+    }
+    
+    @PostConstruct
+    public void initialize() {
+        reconcile();
+    }
+    
+    public long get(TodoStatus status) {
+        return counts.get(status.ordinal());
+    }
+    
+    public Map<TodoStatus, Long> snapshot() {
+        Map<TodoStatus, Long> snapshot = new EnumMap<>(TodoStatus.class);
+        for (TodoStatus status : STATUSES) {
+            snapshot.put(status, counts.get(status.ordinal()));
+        }
+        return snapshot;
+    }
+    
+    @EventListener
+    public void onTodoChanged(TodoChangedEvent event) {
+        long[] delta = new long[STATUSES.length];
+        add(delta, event.getPrevious(), -1);
+        add(delta, event.getCurrent(), 1);
+        record(delta);
+    }
+    
+    @EventListener
+    public void onTodosPurged(TodosPurgedEvent event) {
+        long[] delta = new long[STATUSES.length];
+        delta[event.getStatus().ordinal()] -= event.getDeletedCount();
+        record(delta);
+    }
+    
+    /**
+     * Replaces the counters with a fresh grouped count. Skipped (and left to the next run) when
+     * a write commits while the query is running, since its delta may or may not be included.
+     */
+    @Scheduled(initialDelayString = "${todo.counters.reconcile-interval:PT5M}",
+               fixedDelayString = "${todo.counters.reconcile-interval:PT5M}")
+    public void reconcile() {
+        long version = appliedVersion.get();
+        if (inFlight.get() > 0) {
+            return;
+        }
+        long[] actual = new long[STATUSES.length];
+        todoShards.fanOut(shard -> todoRepository.countGroupedByStatus())
+                .forEach(rows -> rows.forEach(row -> actual[row.getStatus().ordinal()] += row.getCount()));
+        synchronized (this) {
+            if (inFlight.get() > 0 || appliedVersion.get() != version) {
+                log.debug("Skipping status count reconciliation, writes committed meanwhile");
+                return;
+            }
+            for (int i = 0; i < actual.length; i++) {
+                long drift = actual[i] - counts.getAndSet(i, actual[i]);
+                if (drift != 0 && seeded) {
+                    log.warn("Corrected {} count by {}", STATUSES[i], drift);
+                }
+            }
+            seeded = true;
+        }
+    }
+    
+    private static void add(long[] delta, TodoResponseDTO todo, int sign) {
+        if (todo != null && todo.getStatus() != null) {
+            delta[todo.getStatus().ordinal()] += sign;
+        }
+    }
+    
+    // Deltas are summed per transaction and applied once it has committed
+    private void record(long[] delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(delta);
+            return;
+        }
+        Object key = this;
+        long[] pending = (long[]) TransactionSynchronizationManager.getResource(key);
+        if (pending != null) {
+            for (int i = 0; i < delta.length; i++) {
+                pending[i] += delta[i];
+            }
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(key, delta);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            
+            private boolean counted;
+            
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                inFlight.incrementAndGet();
+                counted = true;
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                long[] total = (long[]) TransactionSynchronizationManager.unbindResource(key);
+                if (status == STATUS_COMMITTED) {
+                    apply(total);
+                }
+                if (counted) {
+                    inFlight.decrementAndGet();
+                }
+            }
+        });
+    }
+    
+    private synchronized void apply(long[] delta) {
+        for (int i = 0; i < delta.length; i++) {
+            if (delta[i] != 0) {
+                counts.addAndGet(i, delta[i]);
+            }
+        }
+        appliedVersion.incrementAndGet();
+    }
+}
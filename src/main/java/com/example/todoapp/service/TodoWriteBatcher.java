@@ -0,0 +1,240 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.config.WriteBatchingProperties;
+import com.example.todoapp.repository.TodoShards;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs todo writes in a transaction. With {@code todo.write-batching.enabled}, writes from
+ * concurrent callers are queued and committed together by a single worker thread, so one
+ * commit (and one fsync) covers a whole batch. Callers return only after that commit. With
+ * sharded storage each shard has its own queue and worker, and a write goes to the queue of
+ * the shard bound by its caller. In embedded-replica mode, a commit whose replica pull timed out
+ * on the worker is handed back to the caller, so the caller's reads go to the primary instead.
+ */
+@Component
+public class TodoWriteBatcher implements DisposableBean {
+    
+    private static final Logger log = LoggerFactory.getLogger(TodoWriteBatcher.class);
+    
+    private final TransactionTemplate transactionTemplate;
+    private final WriteBatchingProperties properties;
+    private final TodoShards todoShards;
+    // Null unless embedded-replica mode is on
+    private final Supplier<TodoReplicaSync> replicaSync;
+    // One queue and one worker per shard; no workers when batching is disabled
+    private final List<BlockingQueue<PendingWrite<?>>> queues = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final DistributionSummary batchSizes;
+    private final Timer queueWait;
+    private final Timer commitTime;
+    private volatile boolean running = true;
+    
+    public TodoWriteBatcher(PlatformTransactionManager transactionManager, WriteBatchingProperties properties,
+                            TodoShards todoShards, MeterRegistry meterRegistry) {
+        this(transactionManager, properties, todoShards, () -> null, meterRegistry);
+    }
+    
+    @Autowired
+    public TodoWriteBatcher(PlatformTransactionManager transactionManager, WriteBatchingProperties properties,
+                            TodoShards todoShards, ObjectProvider<TodoReplicaSync> replicaSync,
+                            MeterRegistry meterRegistry) {
+        this(transactionManager, properties, todoShards, (Supplier<TodoReplicaSync>) replicaSync::getIfAvailable,
+                meterRegistry);
+    }
+    
+    TodoWriteBatcher(PlatformTransactionManager transactionManager, WriteBatchingProperties properties,
+                     TodoShards todoShards, Supplier<TodoReplicaSync> replicaSync, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.todoShards = todoShards;
+        this.replicaSync = replicaSync;
+        this.batchSizes = DistributionSummary.builder("todo.write.batch.size")
+                .description("Writes committed per group-commit transaction")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("todo.write.batch.wait")
+                .description("Latency added by waiting for a group-commit batch")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.commitTime = Timer.builder("todo.write.batch.commit")
+                .description("Time to execute and commit one group-commit batch")
+                .register(meterRegistry);
+        if (properties.isEnabled()) {
+            for (int shard = 0; shard < todoShards.count(); shard++) {
+                BlockingQueue<PendingWrite<?>> queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+                int workerShard = shard;
+                Thread worker = new Thread(() -> todoShards.run(workerShard, () -> drainLoop(queue)),
+                        todoShards.count() == 1 ? "todo-write-batcher" : "todo-write-batcher-" + shard);
+                worker.setDaemon(true);
+                queues.add(queue);
+                workers.add(worker);
+            }
+            workers.forEach(Thread::start);
+        }
+    }
+    
+    public <T> T execute(Supplier<T> operation) {
+        // Joining an existing transaction keeps the caller's atomicity (and avoids waiting on
+        // a worker that needs the writer connection the caller already holds)
+        if (workers.isEmpty() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transactionTemplate.execute(status -> operation.get());
+        }
+        PendingWrite<T> write = new PendingWrite<>(operation);
+        try {
+            queues.get(todoShards.current()).put(write);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing a write", ex);
+        }
+        try {
+            T result = write.future.join();
+            if (write.uncovered != null) {
+                replicaSync.get().readFromPrimaryUntilCovered(write.uncovered);
+            }
+            return result;
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+    
+    private void drainLoop(BlockingQueue<PendingWrite<?>> queue) {
+        List<PendingWrite<?>> batch = new ArrayList<>(properties.getMaxBatchSize());
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + properties.getWindow().toNanos();
+                while (batch.size() < properties.getMaxBatchSize()) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite<?> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                runBatch(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException ex) {
+                log.error("Write batch failed unexpectedly", ex);
+                batch.forEach(write -> write.fail(ex));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void runBatch(List<PendingWrite<?>> batch) {
+        long started = System.nanoTime();
+        batchSizes.record(batch.size());
+        batch.forEach(write -> queueWait.record(started - write.enqueuedAt, TimeUnit.NANOSECONDS));
+        try {
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(PendingWrite::run));
+        } catch (RuntimeException ex) {
+            if (batch.size() == 1) {
+                batch.get(0).fail(ex);
+                return;
+            }
+            // The shared transaction rolled back as a whole; replay each write on its own so
+            // one failing write cannot fail its neighbours
+            log.debug("Write batch of {} rolled back, retrying individually", batch.size(), ex);
+            batch.forEach(this::runAlone);
+            return;
+        } finally {
+            commitTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+        Long uncovered = takeUncovered();
+        batch.forEach(write -> write.complete(uncovered));
+    }
+    
+    private void runAlone(PendingWrite<?> write) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> write.run());
+            write.complete(takeUncovered());
+        } catch (RuntimeException ex) {
+            write.fail(ex);
+        }
+    }
+    
+    // Runs on the worker, right after the commit whose replica pull it may have given up on
+    private Long takeUncovered() {
+        TodoReplicaSync sync = replicaSync.get();
+        return sync != null ? sync.takeUncovered() : null;
+    }
+    
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        IllegalStateException shutdown = new IllegalStateException("Write batcher is shut down");
+        queues.forEach(queue -> queue.forEach(write -> write.fail(shutdown)));
+    }
+    
+    private static final class PendingWrite<T> {
+        
+        private final Supplier<T> operation;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final long enqueuedAt = System.nanoTime();
+        private T result;
+        private RuntimeException failure;
+        // Set before the future completes, so the caller sees it after join
+        private Long uncovered;
+        
+        PendingWrite(Supplier<T> operation) {
+            this.operation = operation;
+        }
+        
+        // Failures of the operation itself (e.g. not found) are kept per write and do not
+        // roll back the rest of the batch
+        void run() {
+            result = null;
+            failure = null;
+            try {
+                result = operation.get();
+            } catch (RuntimeException ex) {
+                failure = ex;
+            }
+        }
+        
+        // Called only after the transaction that ran this write has committed
+        void complete(Long uncovered) {
+            this.uncovered = uncovered;
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        }
+        
+        void fail(Throwable ex) {
+            future.completeExceptionally(ex);
+        }
+    }
+}
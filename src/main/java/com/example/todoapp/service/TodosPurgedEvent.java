@@ -0,0 +1,43 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.models.TodoStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published when a set-based delete removes rows without loading them, so listeners
+ * cannot be told which ids went away. The archiver reads its rows first and does name them.
+ */
+public class TodosPurgedEvent {
+    
+    private final TodoStatus status;
+    private final LocalDateTime updatedBefore;
+    private final long deletedCount;
+    // Empty when the delete did not read the ids
+    private final List<Long> ids;
+    
+    public TodosPurgedEvent(TodoStatus status, LocalDateTime updatedBefore, long deletedCount) {
+        this(status, updatedBefore, deletedCount, List.of());
+    }
+    
+    public TodosPurgedEvent(TodoStatus status, LocalDateTime updatedBefore, List<Long> ids) {
+        this(status, updatedBefore, ids.size(), ids);
+    }
+    
+    private TodosPurgedEvent(TodoStatus status, LocalDateTime updatedBefore, long deletedCount, List<Long> ids) {
+        this.status = status;
+        this.updatedBefore = updatedBefore;
+        this.deletedCount = deletedCount;
+        this.ids = List.copyOf(ids);
+    }
+    
+    // Getters
+    public TodoStatus getStatus() { return status; }
+    
+    public LocalDateTime getUpdatedBefore() { return updatedBefore; }
+    
+    public long getDeletedCount() { return deletedCount; }
+    
+    public List<Long> getIds() { return ids; }
+}
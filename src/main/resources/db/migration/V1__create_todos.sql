@@ -0,0 +1,12 @@
+-- Same shape Hibernate generated before migrations took over the schema,
+-- so existing databases are left untouched
+CREATE TABLE IF NOT EXISTS todos (
+    id integer,
+    created_at timestamp not null,
+    description varchar(255),
+    due_date timestamp,
+    status varchar(255) not null check (status in ('PENDING','IN_PROGRESS','COMPLETED','CANCELLED')),
+    title varchar(255) not null,
+    updated_at timestamp,
+    primary key (id)
+);
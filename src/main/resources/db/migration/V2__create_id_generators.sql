@@ -0,0 +1,7 @@
+-- Block allocator for todo ids (see TodoIdAllocator)
+CREATE TABLE IF NOT EXISTS id_generators (name TEXT PRIMARY KEY, next_val INTEGER NOT NULL);
+
+-- Start past any existing row, including rows created by the old IDENTITY column
+INSERT OR IGNORE INTO id_generators (name, next_val) SELECT 'todos', COALESCE(MAX(id), 0) + 1 FROM todos;
+UPDATE id_generators SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM todos)
+    WHERE name = 'todos' AND next_val <= (SELECT COALESCE(MAX(id), 0) FROM todos);
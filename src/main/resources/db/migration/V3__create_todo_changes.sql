@@ -0,0 +1,22 @@
+-- Change log for delta sync (see TodoChangeLog): one row per todo holding the
+-- version of its latest change; REPLACE gives the row a fresh version
+CREATE TABLE IF NOT EXISTS todo_changes (
+    version INTEGER PRIMARY KEY AUTOINCREMENT,
+    todo_id INTEGER NOT NULL UNIQUE,
+    deleted INTEGER NOT NULL DEFAULT 0
+);
+
+CREATE TRIGGER IF NOT EXISTS todo_changes_ai AFTER INSERT ON todos BEGIN
+    INSERT OR REPLACE INTO todo_changes (todo_id, deleted) VALUES (new.id, 0);
+END;
+
+CREATE TRIGGER IF NOT EXISTS todo_changes_au AFTER UPDATE ON todos BEGIN
+    INSERT OR REPLACE INTO todo_changes (todo_id, deleted) VALUES (new.id, 0);
+END;
+
+CREATE TRIGGER IF NOT EXISTS todo_changes_ad AFTER DELETE ON todos BEGIN
+    INSERT OR REPLACE INTO todo_changes (todo_id, deleted) VALUES (old.id, 1);
+END;
+
+-- Rows written before the log existed count as changes, so a sync from 0 sees them
+INSERT OR IGNORE INTO todo_changes (todo_id, deleted) SELECT id, 0 FROM todos ORDER BY id;
@@ -0,0 +1,11 @@
+-- findByStatus, countByStatus, countGroupedByStatus (covering), status keyset pages
+-- and deleteByStatusAndUpdatedAtBefore
+CREATE INDEX IF NOT EXISTS idx_todos_status_updated_at ON todos (status, updated_at);
+
+-- findByDueDateBefore/After, findOverdueTodos and findByDueDateNotNullAndStatusNot;
+-- status is included so the status filter is answered from the index. Partial, so the
+-- due index load at startup reads only todos that have a due date
+CREATE INDEX IF NOT EXISTS idx_todos_due_date_status ON todos (due_date, status) WHERE due_date IS NOT NULL;
+
+-- findByCreatedAtBetween and its keyset variant
+CREATE INDEX IF NOT EXISTS idx_todos_created_at ON todos (created_at);
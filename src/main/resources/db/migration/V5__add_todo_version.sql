@@ -0,0 +1,11 @@
+-- Optimistic-locking version of each todo (Todo.version), served to clients as its ETag;
+-- Hibernate increments it with every UPDATE it issues
+ALTER TABLE todos ADD COLUMN version bigint NOT NULL DEFAULT 0;
+
+-- Updates that bypass Hibernate (other processes, manual fixes) still bump the version,
+-- so an ETag can never keep matching a changed row. Recursive triggers are off, so the
+-- inner UPDATE does not fire this trigger again
+CREATE TRIGGER IF NOT EXISTS todos_version_au AFTER UPDATE ON todos
+WHEN new.version = old.version BEGIN
+    UPDATE todos SET version = old.version + 1 WHERE id = new.id;
+END;
@@ -0,0 +1,28 @@
+-- List a todo belongs to (Todo.listKey); with todo.sharding.count > 1 it also picks the
+-- database file the todo lives in, so it is fixed once the todo is created
+ALTER TABLE todos ADD COLUMN list_key TEXT NOT NULL DEFAULT 'default';
+
+-- Keyset pages of one list
+CREATE INDEX IF NOT EXISTS idx_todos_list_key_id ON todos (list_key, id);
+
+-- The change log records the list too, so delta sync can be asked for one list; tombstones
+-- keep it after the row is gone
+ALTER TABLE todo_changes ADD COLUMN list_key TEXT NOT NULL DEFAULT 'default';
+
+CREATE INDEX IF NOT EXISTS idx_todo_changes_list_key_version ON todo_changes (list_key, version);
+
+DROP TRIGGER IF EXISTS todo_changes_ai;
+DROP TRIGGER IF EXISTS todo_changes_au;
+DROP TRIGGER IF EXISTS todo_changes_ad;
+
+CREATE TRIGGER IF NOT EXISTS todo_changes_ai AFTER INSERT ON todos BEGIN
+    INSERT OR REPLACE INTO todo_changes (todo_id, deleted, list_key) VALUES (new.id, 0, new.list_key);
+END;
+
+CREATE TRIGGER IF NOT EXISTS todo_changes_au AFTER UPDATE ON todos BEGIN
+    INSERT OR REPLACE INTO todo_changes (todo_id, deleted, list_key) VALUES (new.id, 0, new.list_key);
+END;
+
+CREATE TRIGGER IF NOT EXISTS todo_changes_ad AFTER DELETE ON todos BEGIN
+    INSERT OR REPLACE INTO todo_changes (todo_id, deleted, list_key) VALUES (old.id, 1, old.list_key);
+END;
@@ -0,0 +1,9 @@
+-- Keyset pages of one status (findDtosByStatusAfter): status = ? AND id > ? ORDER BY id is
+-- read in id order straight from the index. idx_todos_status_updated_at from V4 is ordered by
+-- updated_at within a status, so those pages had to sort every todo of the status; it still
+-- serves the cleanup count and purge. The plain (status) counts now use this narrower index
+CREATE INDEX IF NOT EXISTS idx_todos_status_id ON todos (status, id);
+
+-- findDtosByCreatedAtBetweenAfter has no index in keyset order: a created_at range and id
+-- order cannot both come from one index. SQLite either sorts the todos in the range or walks
+-- ids from the cursor and filters on created_at, so a page costs up to the size of the range
@@ -0,0 +1,60 @@
+package com.example.todoapp.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AdmissionControlDataSourceTest {
+    
+    private final DataSource pool = mock(DataSource.class);
+    private AdmissionControlDataSource dataSource;
+    
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        dataSource = new AdmissionControlDataSource(pool, "test", 2, Duration.ofMillis(50));
+    }
+    
+    @Test
+    void getConnection_HoldsPermitUntilClosed() throws SQLException {
+        // When
+        Connection connection = dataSource.getConnection();
+        
+        // Then
+        assertEquals(1, dataSource.getAvailablePermits());
+        connection.close();
+        connection.close();
+        assertEquals(2, dataSource.getAvailablePermits());
+        verify(((ConnectionProxy) connection).getTargetConnection()).close();
+    }
+    
+    @Test
+    void getConnection_TimesOutWhenAllPermitsAreTaken() throws SQLException {
+        // Given
+        dataSource.getConnection();
+        dataSource.getConnection();
+        
+        // When & Then
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+        verify(pool, times(2)).getConnection();
+    }
+    
+    @Test
+    void getConnection_ReleasesPermitWhenPoolFails() throws SQLException {
+        // Given
+        when(pool.getConnection()).thenThrow(new SQLException("pool exhausted"));
+        
+        // When & Then
+        assertThrows(SQLException.class, () -> dataSource.getConnection());
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+}
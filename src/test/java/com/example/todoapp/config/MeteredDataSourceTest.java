@@ -0,0 +1,86 @@
+package com.example.todoapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MeteredDataSourceTest {
+    
+    private final DataSource pool = mock(DataSource.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MeteredDataSource dataSource;
+    
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(pool.getConnection()).thenAnswer(invocation -> {
+            Connection connection = mock(Connection.class);
+            when(connection.prepareStatement(anyString())).thenAnswer(prepare -> mock(PreparedStatement.class));
+            return connection;
+        });
+        dataSource = new MeteredDataSource(pool, "test",
+                new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class));
+    }
+    
+    @Test
+    void getConnection_CountsExecutionsAndBatchesAsOneStatement() throws SQLException {
+        // Given
+        Connection connection = dataSource.getConnection();
+        
+        // When
+        long statements;
+        try (QueryCounter.Scope scope = QueryCounter.open()) {
+            connection.prepareStatement("SELECT 1").executeQuery();
+            PreparedStatement insert = connection.prepareStatement("INSERT INTO t VALUES (?)");
+            insert.addBatch();
+            insert.addBatch();
+            insert.executeBatch();
+            statements = scope.getStatements();
+        }
+        
+        // Then
+        assertEquals(2, statements);
+        assertEquals(2, meterRegistry.get("todo.db.statements").tag("pool", "test").counter().count());
+        assertEquals(1, meterRegistry.get("todo.db.connection.acquire").tag("pool", "test").timer().count());
+        assertNotNull(((ConnectionProxy) connection).getTargetConnection());
+    }
+    
+    @Test
+    void getConnection_CountsTowardsEnclosingScopes() throws SQLException {
+        // Given
+        Connection connection = dataSource.getConnection();
+        
+        // When
+        try (QueryCounter.Scope outer = QueryCounter.open()) {
+            try (QueryCounter.Scope inner = QueryCounter.open()) {
+                connection.prepareStatement("SELECT 1").execute();
+                assertEquals(1, inner.getStatements());
+            }
+            connection.prepareStatement("SELECT 2").execute();
+            
+            // Then
+            assertEquals(2, outer.getStatements());
+        }
+    }
+    
+    @Test
+    void close_ClosesTargetConnection() throws SQLException {
+        // When
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        
+        // Then
+        verify(((ConnectionProxy) connection).getTargetConnection()).close();
+    }
+}
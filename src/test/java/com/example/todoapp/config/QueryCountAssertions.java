@@ -0,0 +1,36 @@
+package com.example.todoapp.config;
+
+import org.junit.jupiter.api.function.Executable;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Assertions on the database work a block of code does on the calling thread, which includes
+ * MockMvc requests:
+ * <pre>assertStatementsAtMost(2, () -> mockMvc.perform(delete("/api/todos/1")));</pre>
+ */
+public final class QueryCountAssertions {
+    
+    private QueryCountAssertions() {}
+    
+    public static QueryCounter.Scope count(Executable action) throws Throwable {
+        try (QueryCounter.Scope scope = QueryCounter.open()) {
+            action.execute();
+            return scope;
+        }
+    }
+    
+    public static QueryCounter.Scope assertStatementsAtMost(long max, Executable action) throws Throwable {
+        QueryCounter.Scope scope = count(action);
+        assertTrue(scope.getStatements() <= max,
+                () -> "Expected at most " + max + " JDBC statements, but " + scope.getStatements() + " were executed");
+        return scope;
+    }
+    
+    public static QueryCounter.Scope assertEntityLoadsAtMost(long max, Executable action) throws Throwable {
+        QueryCounter.Scope scope = count(action);
+        assertTrue(scope.getEntityLoads() <= max,
+                () -> "Expected at most " + max + " entity loads, but " + scope.getEntityLoads() + " were loaded");
+        return scope;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.todoapp.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReadWriteRoutingDataSourceTest {
+    
+    private final ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource();
+    
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+    
+    @Test
+    void routesReadOnlyTransactionsToReaders() {
+        // Given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        
+        // When & Then
+        assertEquals(ReadWriteRoutingDataSource.Route.READ, dataSource.determineCurrentLookupKey());
+    }
+    
+    @Test
+    void routesEverythingElseToTheWriter() {
+        assertEquals(ReadWriteRoutingDataSource.Route.WRITE, dataSource.determineCurrentLookupKey());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.todoapp.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.sqlite.SQLiteDataSource;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaMigratorTest {
+    
+    @Test
+    void splitStatements_SkipsCommentsAndKeepsTriggerBodiesTogether() {
+        // Given
+        String script = "-- a comment\n" +
+                "CREATE TABLE a (id INTEGER);\n" +
+                "\n" +
+                "CREATE TRIGGER a_ai AFTER INSERT ON a BEGIN\n" +
+                "    INSERT INTO b VALUES (new.id);\n" +
+                "    DELETE FROM c;\n" +
+                "END;\n" +
+                "CREATE INDEX a_id\n" +
+                "    ON a (id);\n";
+        
+        // When
+        List<String> statements = SchemaMigrator.splitStatements(script);
+        
+        // Then
+        assertEquals(3, statements.size());
+        assertEquals("CREATE TABLE a (id INTEGER)", statements.get(0));
+        assertTrue(statements.get(1).startsWith("CREATE TRIGGER a_ai"));
+        assertTrue(statements.get(1).endsWith("END"));
+        assertEquals("CREATE INDEX a_id\n    ON a (id)", statements.get(2));
+    }
+    
+    @Test
+    void migrate_AppliesEachMigrationOnce() throws Exception {
+        // Given
+        File file = File.createTempFile("todo-migrate", ".db");
+        file.deleteOnExit();
+        SQLiteDataSource dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + file.getAbsolutePath());
+        SchemaMigrator migrator = new SchemaMigrator(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        
+        // When
+        migrator.migrate();
+        jdbcTemplate.update("INSERT INTO todos (id, title, status, created_at) VALUES (1, 'a', 'PENDING', '2025-01-01')");
+        migrator.migrate();
+        
+        // Then
+        Integer applied = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM schema_migrations", Integer.class);
+        Integer latest = jdbcTemplate.queryForObject("SELECT MAX(version) FROM schema_migrations", Integer.class);
+        assertEquals(latest, applied);
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM todos", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM todo_changes WHERE todo_id = 1", Integer.class));
+    }
+}
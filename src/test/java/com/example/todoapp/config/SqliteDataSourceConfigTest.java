@@ -0,0 +1,63 @@
+package com.example.todoapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqliteDataSourceConfigTest {
+    
+    // split-pools on, as in application.yml; no connection is opened, so the remote URL need not exist
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class))
+            .withUserConfiguration(BoundProperties.class, SqliteDataSourceConfig.class, DatabaseAdmissionConfig.class)
+            .withPropertyValues("spring.datasource.driver-class-name=org.sqlite.JDBC", "todo.sqlite.split-pools=true");
+    
+    @Test
+    void splitsPoolsForLocalFilesOnly() {
+        assertTrue(SqliteDataSourceConfig.isFileBacked("jdbc:sqlite:file:./todo.db"));
+        assertTrue(SqliteDataSourceConfig.isFileBacked("jdbc:sqlite:todo.db"));
+        
+        assertFalse(SqliteDataSourceConfig.isFileBacked("jdbc:sqlite:https://libsql-server.com/database-name"));
+        assertFalse(SqliteDataSourceConfig.isFileBacked("jdbc:postgresql://localhost/todos"));
+        assertFalse(SqliteDataSourceConfig.isFileBacked(null));
+    }
+    
+    @Test
+    void remoteUrl_FallsBackToAnAdmittedAndMeteredSinglePool() {
+        contextRunner.withPropertyValues("spring.datasource.url=jdbc:sqlite:https://libsql-server.com/database-name")
+                .run(context -> {
+                    // Then: Boot's pool, behind the same admission limit and metering as the split pools
+                    assertFalse(context.containsBean("sqliteWriterDataSource"));
+                    MeteredDataSource metered = assertInstanceOf(MeteredDataSource.class, context.getBean(DataSource.class));
+                    AdmissionControlDataSource admitted = assertInstanceOf(AdmissionControlDataSource.class,
+                            metered.getTargetDataSource());
+                    assertInstanceOf(HikariDataSource.class, admitted.getTargetDataSource());
+                });
+    }
+    
+    @Test
+    void fileUrl_SplitsPoolsWithoutWrappingThemTwice() {
+        contextRunner.withPropertyValues("spring.datasource.url=jdbc:sqlite:file:./target/split-pools-test.db")
+                .run(context -> {
+                    assertTrue(context.containsBean("sqliteWriterDataSource"));
+                    assertInstanceOf(LazyConnectionDataSourceProxy.class, context.getBean(DataSource.class));
+                    assertInstanceOf(HikariDataSource.class, context.getBean("sqliteWriterDataSource"));
+                });
+    }
+    
+    @Configuration
+    @EnableConfigurationProperties({SqliteProperties.class, DatabaseAdmissionProperties.class})
+    static class BoundProperties {
+    }
+}
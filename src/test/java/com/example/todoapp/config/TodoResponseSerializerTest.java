@@ -0,0 +1,122 @@
+package com.example.todoapp.config;
+
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.models.TodoStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TodoResponseSerializerTest {
+    
+    private static final LocalDateTime ANCHOR = LocalDateTime.of(2024, 3, 9, 7, 5, 0);
+    
+    // Spring Boot's settings: dates as ISO strings
+    private final ObjectMapper beanMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    private final ObjectMapper fastMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .modulesToInstall(TodoResponseSerializer.module()).build();
+    
+    @Test
+    void listOutput_IsByteIdenticalToBeanSerializer() throws Exception {
+        // Given: every field null or set, escaped text and each distinct fraction width
+        List<TodoResponseDTO> todos = new ArrayList<>();
+        todos.add(new TodoResponseDTO());
+        todos.add(new TodoResponseDTO(1L, "Plain", "Text", TodoStatus.PENDING, null, ANCHOR, ANCHOR, 0L, "default"));
+        todos.add(new TodoResponseDTO(2L, "Quote \" and \\ backslash", "Line\nbreak\ttab \u0001 control",
+                TodoStatus.IN_PROGRESS, ANCHOR.plusDays(1), ANCHOR, ANCHOR, 3L, "list \"quoted\" ✓"));
+        todos.add(new TodoResponseDTO(3L, "Ünïcödé ✓ 日本 😀", "", TodoStatus.COMPLETED,
+                LocalDateTime.of(1, 1, 1, 0, 0), LocalDateTime.of(9999, 12, 31, 23, 59, 59, 999_999_999),
+                LocalDateTime.of(10_000, 1, 1, 0, 0), Long.MAX_VALUE));
+        int[] nanos = {1, 10, 100_000, 120_000_000, 123_000_000, 123_456_000, 123_456_789, 500_000_000};
+        for (int i = 0; i < nanos.length; i++) {
+            todos.add(new TodoResponseDTO(10L + i, "Fraction", null, TodoStatus.CANCELLED, ANCHOR.withNano(nanos[i]),
+                    ANCHOR.withSecond(59).withNano(nanos[i]), ANCHOR.withNano(nanos[i]), (long) i));
+        }
+        
+        // When & Then
+        assertIdentical(beanMapper.writerFor(beanMapper.getTypeFactory()
+                        .constructCollectionType(List.class, TodoResponseDTO.class)),
+                fastMapper.writerFor(fastMapper.getTypeFactory()
+                        .constructCollectionType(List.class, TodoResponseDTO.class)), todos);
+        for (TodoResponseDTO todo : todos) {
+            assertIdentical(beanMapper.writer(), fastMapper.writer(), todo);
+        }
+        assertTrue(fastMapper.writeValueAsString(todos.get(1)).contains("\"createdAt\":\"2024-03-09T07:05:00\""));
+    }
+    
+    @Test
+    void cborOutput_IsByteIdenticalToBeanSerializer() throws Exception {
+        // Given: binary generators take no raw values, so dates go through writeString
+        ObjectMapper beanCbor = Jackson2ObjectMapperBuilder.cbor()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        ObjectMapper fastCbor = Jackson2ObjectMapperBuilder.cbor()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(TodoResponseSerializer.module()).build();
+        TodoResponseDTO todo = new TodoResponseDTO(1L, "Title", null, TodoStatus.IN_PROGRESS,
+                ANCHOR.withNano(120_000_000), ANCHOR, ANCHOR, 2L, "work");
+        
+        // When & Then
+        assertIdentical(beanCbor.writer(), fastCbor.writer(), todo);
+    }
+    
+    @Test
+    void everyFormat_RoundTripsTheListKey() throws Exception {
+        // Given
+        List<ObjectMapper> mappers = List.of(fastMapper,
+                Jackson2ObjectMapperBuilder.cbor().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                        .modulesToInstall(TodoResponseSerializer.module()).build(),
+                Jackson2ObjectMapperBuilder.smile().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                        .modulesToInstall(TodoResponseSerializer.module()).build());
+        TodoResponseDTO todo = new TodoResponseDTO(7L, "Title", "Text", TodoStatus.PENDING, ANCHOR, ANCHOR, ANCHOR,
+                4L, "work");
+        
+        // When & Then
+        for (ObjectMapper mapper : mappers) {
+            TodoResponseDTO read = mapper.readValue(mapper.writeValueAsBytes(todo), TodoResponseDTO.class);
+            assertEquals("work", read.getListKey());
+            assertEquals(7L, read.getId());
+            assertEquals(4L, read.getVersion());
+        }
+        ByteArrayOutputStream protobuf = new ByteArrayOutputStream();
+        TodoProtobufCodec.writeTodos(List.of(todo, new TodoResponseDTO()), protobuf);
+        List<TodoResponseDTO> read = TodoProtobufCodec.readTodos(new ByteArrayInputStream(protobuf.toByteArray()));
+        assertEquals("work", read.get(0).getListKey());
+        assertEquals(4L, read.get(0).getVersion());
+        assertNull(read.get(1).getListKey());
+    }
+    
+    @Test
+    void otherSettings_FallBackToBeanSerializer() throws Exception {
+        // Given
+        TodoResponseDTO todo = new TodoResponseDTO(1L, "Title", null, TodoStatus.PENDING, null,
+                ANCHOR.withNano(5_000), ANCHOR, 1L);
+        
+        // When & Then: timestamps as arrays, nulls left out, enums by index
+        assertIdentical(beanMapper.writer().with(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS),
+                fastMapper.writer().with(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS), todo);
+        assertIdentical(beanMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL).writer(),
+                fastMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL).writer(), todo);
+        assertIdentical(beanMapper.writer().with(SerializationFeature.WRITE_ENUMS_USING_INDEX),
+                fastMapper.writer().with(SerializationFeature.WRITE_ENUMS_USING_INDEX), todo);
+    }
+    
+    private static void assertIdentical(ObjectWriter expected, ObjectWriter actual, Object value) throws Exception {
+        byte[] expectedBytes = expected.writeValueAsBytes(value);
+        byte[] actualBytes = actual.writeValueAsBytes(value);
+        assertEquals(new String(expectedBytes, StandardCharsets.UTF_8), new String(actualBytes, StandardCharsets.UTF_8));
+        assertArrayEquals(expectedBytes, actualBytes);
+    }
+}
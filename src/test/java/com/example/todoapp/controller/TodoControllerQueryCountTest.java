@@ -0,0 +1,128 @@
+package com.example.todoapp.controller;
+
+import com.example.todoapp.config.QueryCounter;
+import com.example.todoapp.dtos.TodoRequestDTO;
+import com.example.todoapp.models.TodoStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.File;
+import java.io.IOException;
+
+import static com.example.todoapp.config.QueryCountAssertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Bounds the JDBC statements and entity loads behind each endpoint, against the real
+ * application and a fresh SQLite file. Raise a bound only for a change that really needs
+ * another round trip.
+ * <p>
+ * {@link QueryCounter} counts the request thread only. Group commit runs writes on the batcher's
+ * worker, and sharded queries fan out to other threads, so both are pinned off here; otherwise
+ * the bounds would pass without counting those statements.
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "todo.write-batching.enabled=false",
+        "todo.sharding.count=1", "todo.replica.enabled=false"})
+@AutoConfigureMockMvc
+class TodoControllerQueryCountTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws IOException {
+        File file = File.createTempFile("todo-queries", ".db");
+        file.deleteOnExit();
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:file:" + file.getAbsolutePath());
+    }
+    
+    @Test
+    void deleteTodo_SelectsAndDeletesOnce() throws Throwable {
+        // Given
+        long id = createTodo();
+        
+        // When & Then
+        assertStatementsAtMost(2, () -> mockMvc.perform(delete("/api/todos/{id}", id))
+                .andExpect(status().isNoContent()));
+    }
+    
+    @Test
+    void updateTodo_SelectsAndUpdatesOnce() throws Throwable {
+        // Given
+        long id = createTodo();
+        TodoRequestDTO update = new TodoRequestDTO("Updated", null, TodoStatus.IN_PROGRESS, null);
+        
+        // When & Then
+        assertStatementsAtMost(2, () -> mockMvc.perform(put("/api/todos/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk()));
+    }
+    
+    @Test
+    void getTodoById_IsServedFromCacheAfterTheFirstRead() throws Throwable {
+        // Given
+        long id = createTodo();
+        mockMvc.perform(get("/api/todos/{id}", id)).andExpect(status().isOk());
+        
+        // When & Then
+        assertStatementsAtMost(0, () -> mockMvc.perform(get("/api/todos/{id}", id))
+                .andExpect(status().isOk()));
+    }
+    
+    @Test
+    void getAllTodos_RunsOneQueryAndLoadsNoEntities() throws Throwable {
+        // Given
+        createTodo();
+        createTodo();
+        
+        // When
+        QueryCounter.Scope scope = count(() -> mockMvc.perform(get("/api/todos").param("limit", "10"))
+                .andExpect(status().isOk()));
+        
+        // Then
+        assertEquals(1, scope.getStatements());
+        assertEquals(0, scope.getEntityLoads());
+    }
+    
+    @Test
+    void request_RecordsStatementsPerEndpoint() throws Throwable {
+        // Given
+        long id = createTodo();
+        
+        // When
+        mockMvc.perform(delete("/api/todos/{id}", id)).andExpect(status().isNoContent());
+        
+        // Then
+        assertTrue(meterRegistry.get("todo.http.sql.statements")
+                .tag("method", "DELETE").tag("uri", "/api/todos/{id}")
+                .summary().totalAmount() > 0);
+        assertTrue(meterRegistry.get("todo.hibernate.entity.loads").tag("entity", "Todo").counter().count() > 0);
+    }
+    
+    private long createTodo() throws Exception {
+        TodoRequestDTO request = new TodoRequestDTO("Count me", "Statement counting", TodoStatus.PENDING, null);
+        String body = mockMvc.perform(post("/api/todos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+}
@@ -1,26 +1,57 @@
 package com.example.todoapp.controller;
 
+import com.example.todoapp.config.TodoProtobufCodec;
+import com.example.todoapp.config.TodoProtobufHttpMessageConverter;
+import com.example.todoapp.dtos.BatchItemResultDTO;
+import com.example.todoapp.dtos.BatchResultDTO;
+import com.example.todoapp.dtos.CleanupStatusDTO;
+import com.example.todoapp.dtos.CursorPage;
+import com.example.todoapp.dtos.ErrorResponseDTO;
+import com.example.todoapp.dtos.TodoBatchRequestDTO;
+import com.example.todoapp.dtos.TodoChangesDTO;
 import com.example.todoapp.dtos.TodoRequestDTO;
 import com.example.todoapp.dtos.TodoResponseDTO;
 import com.example.todoapp.models.TodoStatus;
 import com.example.todoapp.service.TodoService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -34,6 +65,9 @@ class TodoControllerTest {
     @MockBean
     private TodoService todoService;
 
+    @MockBean
+    private TodoEventStream todoEventStream;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -54,6 +88,8 @@ class TodoControllerTest {
         sampleResponse.setStatus(TodoStatus.PENDING);
         sampleResponse.setCreatedAt(LocalDateTime.now());
         sampleResponse.setUpdatedAt(LocalDateTime.now());
+        sampleResponse.setVersion(3L);
+        sampleResponse.setListKey("work");
     }
 
     @Test
@@ -68,7 +104,8 @@ class TodoControllerTest {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.title").value("Test Todo"))
                 .andExpect(jsonPath("$.description").value("Test Description"))
-                .andExpect(jsonPath("$.status").value("PENDING"));
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andExpect(jsonPath("$.listKey").value("work"));
     }
 
     @Test
@@ -109,23 +146,199 @@ class TodoControllerTest {
                 .andExpect(jsonPath("$.error").value("Not Found"));
     }
 
+    @Test
+    void getTodoById_ReturnsVersionAsETag() throws Exception {
+        // Given
+        when(todoService.getTodoById(1L)).thenReturn(sampleResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/todos/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    @Test
+    void getTodoById_NotModifiedWithoutLoadingTheTodo() throws Exception {
+        // Given
+        when(todoService.getTodoVersion(1L)).thenReturn(3L);
+
+        // When & Then
+        MvcResult result = mockMvc.perform(get("/api/todos/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andReturn();
+        assertEquals(0, result.getResponse().getContentLength());
+        verify(todoService, never()).getTodoById(any());
+    }
+
+    @Test
+    void getTodoById_ChangedVersionReturnsBody() throws Exception {
+        // Given
+        when(todoService.getTodoVersion(1L)).thenReturn(3L);
+        when(todoService.getTodoById(1L)).thenReturn(sampleResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/todos/1").header("If-None-Match", "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(3));
+    }
+
+    @Test
+    void getAllTodos_NotModifiedWhenPageUnchanged() throws Exception {
+        // Given
+        when(todoService.getAllTodos(isNull(), eq(50)))
+                .thenReturn(new CursorPage<>(Arrays.asList(sampleResponse), null));
+        String etag = mockMvc.perform(get("/api/todos"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then
+        mockMvc.perform(get("/api/todos").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        sampleResponse.setVersion(4L);
+        mockMvc.perform(get("/api/todos").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void streamTodos_WritesServerSentEvents() throws Exception {
+        // Given
+        SseEmitter emitter = new SseEmitter();
+        when(todoEventStream.subscribe("feed-3", TodoStatus.PENDING)).thenReturn(emitter);
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/todos/stream?status=PENDING")
+                        .header("Last-Event-ID", "feed-3")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event().id("feed-4").name("created").data(sampleResponse));
+        emitter.complete();
+
+        // Then
+        assertEquals(MediaType.TEXT_EVENT_STREAM_VALUE, result.getResponse().getContentType());
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.startsWith("id:feed-4\nevent:created\ndata:{\"id\":1,"), body);
+    }
+
+    @Test
+    void countTodos_ReturnsAllStatuses() throws Exception {
+        // Given
+        Map<TodoStatus, Long> counts = new EnumMap<>(TodoStatus.class);
+        counts.put(TodoStatus.PENDING, 2L);
+        counts.put(TodoStatus.IN_PROGRESS, 0L);
+        counts.put(TodoStatus.COMPLETED, 5L);
+        counts.put(TodoStatus.CANCELLED, 1L);
+        when(todoService.countTodos()).thenReturn(counts);
+
+        // When & Then
+        mockMvc.perform(get("/api/todos/counts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.PENDING").value(2))
+                .andExpect(jsonPath("$.COMPLETED").value(5))
+                .andExpect(jsonPath("$.CANCELLED").value(1));
+    }
+
     @Test
     void getAllTodos_Success() throws Exception {
         // Given
         List<TodoResponseDTO> todos = Arrays.asList(sampleResponse);
-        when(todoService.getAllTodos()).thenReturn(todos);
+        when(todoService.getAllTodos(isNull(), eq(50))).thenReturn(new CursorPage<>(todos, null));
 
         // When & Then
         mockMvc.perform(get("/api/todos"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("Test Todo"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void searchTodos_AcceptsQueryOrLegacyTitleParam() throws Exception {
+        // Given
+        List<TodoResponseDTO> todos = Arrays.asList(sampleResponse);
+        when(todoService.searchTodos(eq("test todo"), isNull(), eq(50))).thenReturn(new CursorPage<>(todos, null));
+
+        // When & Then
+        mockMvc.perform(get("/api/todos/search?q=test todo"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Test Todo"));
+        mockMvc.perform(get("/api/todos/search?title=test todo"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        mockMvc.perform(get("/api/todos/search"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getChanges_ReturnsDeltaAndVersion() throws Exception {
+        // Given
+        TodoChangesDTO changes = new TodoChangesDTO(List.of(sampleResponse), List.of(9L), 17L, false);
+        when(todoService.getChangesSince(5L, 500)).thenReturn(changes);
+
+        // When & Then
+        mockMvc.perform(get("/api/todos/changes?since=5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.upserted[0].title").value("Test Todo"))
+                .andExpect(jsonPath("$.deleted[0]").value(9))
+                .andExpect(jsonPath("$.version").value(17))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void getTodosDueSoon_ParsesIsoDuration() throws Exception {
+        // Given
+        List<TodoResponseDTO> todos = Arrays.asList(sampleResponse);
+        when(todoService.getTodosDueSoon(eq(Duration.ofMinutes(30)), isNull(), eq(50)))
+                .thenReturn(new CursorPage<>(todos, null));
+
+        // When & Then
+        mockMvc.perform(get("/api/todos/due-soon?within=PT30M"))
+                .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].title").value("Test Todo"));
     }
 
+    @Test
+    void getNextDueTodos_DefaultsToTen() throws Exception {
+        // Given
+        when(todoService.getNextDueTodos(10)).thenReturn(List.of(sampleResponse));
+
+        // When & Then
+        mockMvc.perform(get("/api/todos/next-due"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void getAllTodos_WithNextPage() throws Exception {
+        // Given
+        List<TodoResponseDTO> todos = Arrays.asList(sampleResponse);
+        when(todoService.getAllTodos(eq("abc"), eq(1))).thenReturn(new CursorPage<>(todos, "def"));
+
+        // When & Then
+        mockMvc.perform(get("/api/todos?cursor=abc&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().string("X-Next-Cursor", "def"))
+                .andExpect(header().string("Link", "<http://localhost/api/todos?limit=1&cursor=def>; rel=\"next\""));
+    }
+
+    @Test
+    void getAllTodos_InvalidCursor() throws Exception {
+        // Given
+        when(todoService.getAllTodos(eq("bogus"), eq(50))).thenThrow(new IllegalArgumentException("Invalid cursor: bogus"));
+
+        // When & Then
+        mockMvc.perform(get("/api/todos").param("cursor", "bogus"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Bad Request"));
+    }
+
     @Test
     void updateTodo_Success() throws Exception {
         // Given
-        when(todoService.updateTodo(eq(1L), any(TodoRequestDTO.class))).thenReturn(sampleResponse);
+        when(todoService.updateTodo(eq(1L), any(TodoRequestDTO.class), isNull())).thenReturn(sampleResponse);
 
         // When & Then
         mockMvc.perform(put("/api/todos/1")
@@ -135,6 +348,69 @@ class TodoControllerTest {
                 .andExpect(jsonPath("$.title").value("Test Todo"));
     }
 
+    @Test
+    void updateTodo_IfMatchPassesExpectedVersion() throws Exception {
+        // Given
+        TodoResponseDTO updated = new TodoResponseDTO();
+        updated.setId(1L);
+        updated.setVersion(4L);
+        when(todoService.updateTodo(eq(1L), any(TodoRequestDTO.class), eq(3L))).thenReturn(updated);
+
+        // When & Then
+        mockMvc.perform(put("/api/todos/1")
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(sampleRequest)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    void updateTodo_StaleIfMatchIsPreconditionFailed() throws Exception {
+        // Given
+        when(todoService.updateTodo(eq(1L), any(TodoRequestDTO.class), eq(2L)))
+                .thenThrow(new OptimisticLockingFailureException("Todo 1 is at version 3, not 2"));
+
+        // When & Then
+        mockMvc.perform(put("/api/todos/1")
+                .header("If-Match", "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(sampleRequest)))
+                .andExpect(status().isPreconditionFailed());
+        // Weak tags never match under If-Match
+        mockMvc.perform(delete("/api/todos/1").header("If-Match", "W/\"3\""))
+                .andExpect(status().isPreconditionFailed());
+        verify(todoService, never()).deleteTodo(any(), any());
+    }
+
+    @Test
+    void updateTodo_IfMatchListHoldsWhenAnyTagMatches() throws Exception {
+        // Given
+        when(todoService.getTodoVersion(1L)).thenReturn(3L);
+        when(todoService.updateTodo(eq(1L), any(TodoRequestDTO.class), eq(3L))).thenReturn(sampleResponse);
+        when(todoService.updateTodo(eq(1L), any(TodoRequestDTO.class), eq(1L)))
+                .thenThrow(new OptimisticLockingFailureException("Todo 1 is at version 3, not 1"));
+
+        // When & Then
+        mockMvc.perform(put("/api/todos/1")
+                .header("If-Match", "\"2\", \"3-cbor\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(sampleRequest)))
+                .andExpect(status().isOk());
+        verify(todoService).updateTodo(eq(1L), any(TodoRequestDTO.class), eq(3L));
+        // None of the tags names the current version
+        mockMvc.perform(put("/api/todos/1")
+                .header("If-Match", "\"1\", W/\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(sampleRequest)))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put("/api/todos/1")
+                .header("If-Match", "\"1\", \"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(sampleRequest)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void deleteTodo_Success() throws Exception {
         // When & Then
@@ -145,7 +421,7 @@ class TodoControllerTest {
     @Test
     void deleteTodo_NotFound() throws Exception {
         // Given
-        doThrow(new EntityNotFoundException("Todo not found")).when(todoService).deleteTodo(1L);
+        doThrow(new EntityNotFoundException("Todo not found")).when(todoService).deleteTodo(1L, null);
 
         // When & Then
         mockMvc.perform(delete("/api/todos/1"))
@@ -156,7 +432,8 @@ class TodoControllerTest {
     void getTodosByStatus_Success() throws Exception {
         // Given
         List<TodoResponseDTO> todos = Arrays.asList(sampleResponse);
-        when(todoService.getTodosByStatus(TodoStatus.PENDING)).thenReturn(todos);
+        when(todoService.getTodosByStatus(eq(TodoStatus.PENDING), isNull(), eq(50)))
+                .thenReturn(new CursorPage<>(todos, null));
 
         // When & Then
         mockMvc.perform(get("/api/todos/status/PENDING"))
@@ -164,4 +441,332 @@ class TodoControllerTest {
                 .andExpect(jsonPath("$.length()").value(1))
                 .andExpect(jsonPath("$[0].status").value("PENDING"));
     }
+
+    @Test
+    void exportTodos_WritesOneJsonObjectPerLine() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            Consumer<TodoResponseDTO> sink = invocation.getArgument(0);
+            sink.accept(sampleResponse);
+            sink.accept(sampleResponse);
+            return null;
+        }).when(todoService).exportTodos(any());
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/todos/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Test Todo",
+                objectMapper.readTree(lines[0]).get("title").asText());
+    }
+
+    @Test
+    void createTodos_Success() throws Exception {
+        // Given
+        BatchResultDTO batchResult = new BatchResultDTO(List.of(
+                new BatchItemResultDTO(0, 1L, 201, sampleResponse, null)));
+        when(todoService.createTodos(anyList())).thenReturn(batchResult);
+
+        // When & Then
+        mockMvc.perform(post("/api/todos/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new TodoBatchRequestDTO<>(List.of(sampleRequest)))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.results[0].status").value(201))
+                .andExpect(jsonPath("$.results[0].todo.title").value("Test Todo"));
+    }
+
+    @Test
+    void createTodos_ValidationError() throws Exception {
+        // Given
+        TodoRequestDTO invalidRequest = new TodoRequestDTO();
+        invalidRequest.setTitle("");
+
+        // When & Then
+        mockMvc.perform(post("/api/todos/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new TodoBatchRequestDTO<>(List.of(invalidRequest)))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors['todos[0].title']").exists());
+    }
+
+    @Test
+    void updateTodos_RequiresIds() throws Exception {
+        // When & Then
+        mockMvc.perform(patch("/api/todos/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"todos\":[{\"title\":\"No id\"}]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors['todos[0].id']").value("Id is required"));
+    }
+
+    @Test
+    void deleteTodos_Success() throws Exception {
+        // Given
+        BatchResultDTO batchResult = new BatchResultDTO(List.of(
+                new BatchItemResultDTO(0, 1L, 204, null, null),
+                new BatchItemResultDTO(1, 2L, 404, null, "Todo not found with id: 2")));
+        when(todoService.deleteTodos(List.of(1L, 2L))).thenReturn(batchResult);
+
+        // When & Then
+        mockMvc.perform(delete("/api/todos/batch").param("ids", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1));
+    }
+
+    @Test
+    void getTodosByIds_Success() throws Exception {
+        // Given
+        when(todoService.getTodosByIds(List.of(1L, 2L))).thenReturn(List.of(sampleResponse));
+
+        // When & Then
+        mockMvc.perform(get("/api/todos").param("ids", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(1));
+    }
+
+    @Test
+    void deleteCompletedTodosOlderThan_AcceptedWithStatus() throws Exception {
+        // Given
+        LocalDateTime before = LocalDateTime.of(2024, 1, 1, 0, 0);
+        when(todoService.deleteCompletedTodosOlderThan(before)).thenReturn(new CleanupStatusDTO(
+                CleanupStatusDTO.State.RUNNING, TodoStatus.COMPLETED, before, LocalDateTime.now(), null, 1500, 0, 0, null));
+
+        // When & Then
+        mockMvc.perform(delete("/api/todos/cleanup").param("date", "2024-01-01T00:00:00"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.state").value("RUNNING"))
+                .andExpect(jsonPath("$.total").value(1500));
+    }
+
+    @Test
+    void getCleanupStatus_Success() throws Exception {
+        // Given
+        when(todoService.getCleanupStatus()).thenReturn(CleanupStatusDTO.idle());
+
+        // When & Then
+        mockMvc.perform(get("/api/todos/cleanup"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("IDLE"))
+                .andExpect(jsonPath("$.deleted").value(0));
+    }
+
+    @Test
+    void getTodoById_IncludingArchived() throws Exception {
+        // Given
+        when(todoService.getTodoByIdIncludingArchived(1L)).thenReturn(sampleResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/todos/1").param("includeArchived", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+        verify(todoService, never()).getTodoById(1L);
+    }
+
+    @Test
+    void getArchivedTodos_PassesFilters() throws Exception {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+        when(todoService.getArchivedTodos(TodoStatus.COMPLETED, from, to, null, 50))
+                .thenReturn(new CursorPage<>(List.of(sampleResponse), null));
+
+        // When & Then
+        mockMvc.perform(get("/api/todos/archived")
+                        .param("status", "COMPLETED")
+                        .param("updatedFrom", "2024-01-01T00:00:00")
+                        .param("updatedTo", "2024-02-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void getTodoById_Cbor() throws Exception {
+        // Given
+        when(todoService.getTodoById(1L)).thenReturn(sampleResponse);
+        ObjectMapper cborMapper = CBORMapper.builder().findAndAddModules().build();
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/todos/1").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn();
+
+        // Then: the same fields as the JSON representation
+        TodoResponseDTO todo = cborMapper.readValue(result.getResponse().getContentAsByteArray(), TodoResponseDTO.class);
+        assertEquals("Test Todo", todo.getTitle());
+        assertEquals(sampleResponse.getCreatedAt(), todo.getCreatedAt());
+        assertEquals(3L, todo.getVersion());
+        assertEquals("work", todo.getListKey());
+    }
+
+    @Test
+    void getTodoById_ETagNamesTheRepresentation() throws Exception {
+        // Given
+        when(todoService.getTodoVersion(1L)).thenReturn(3L);
+        when(todoService.getTodoById(1L)).thenReturn(sampleResponse);
+
+        // When & Then: each format has its own tag, and caches key them by Accept
+        mockMvc.perform(get("/api/todos/1"))
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(header().string("Vary", containsString("Accept")));
+        mockMvc.perform(get("/api/todos/1").accept("application/cbor"))
+                .andExpect(header().string("ETag", "\"3-cbor\""))
+                .andExpect(header().string("Vary", containsString("Accept")));
+        mockMvc.perform(get("/api/todos/1").accept("application/x-protobuf, application/json;q=0.5"))
+                .andExpect(header().string("ETag", "\"3-protobuf\""));
+        // A JSON client's tag does not validate the protobuf body
+        mockMvc.perform(get("/api/todos/1").accept("application/x-protobuf").header("If-None-Match", "\"3\""))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/todos/1").accept("application/x-protobuf").header("If-None-Match", "\"3-protobuf\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("Vary", containsString("Accept")));
+    }
+
+    @Test
+    void updateTodo_IfMatchAcceptsTheTagOfAnyRepresentation() throws Exception {
+        // Given
+        when(todoService.updateTodo(eq(1L), any(TodoRequestDTO.class), eq(3L))).thenReturn(sampleResponse);
+
+        // When & Then
+        mockMvc.perform(put("/api/todos/1")
+                .header("If-Match", "\"3-cbor\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(sampleRequest)))
+                .andExpect(status().isOk());
+        verify(todoService).updateTodo(eq(1L), any(TodoRequestDTO.class), eq(3L));
+    }
+
+    @Test
+    void getTodoById_NotFoundInCbor() throws Exception {
+        // Given
+        when(todoService.getTodoById(1L)).thenThrow(new EntityNotFoundException("Todo not found"));
+        ObjectMapper cborMapper = CBORMapper.builder().findAndAddModules().build();
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/todos/1").accept("application/cbor"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn();
+
+        // Then
+        ErrorResponseDTO error = cborMapper.readValue(result.getResponse().getContentAsByteArray(), ErrorResponseDTO.class);
+        assertEquals("Not Found", error.getError());
+        assertEquals("Todo not found", error.getMessage());
+    }
+
+    @Test
+    void createTodo_Smile() throws Exception {
+        // Given
+        when(todoService.createTodo(any(TodoRequestDTO.class))).thenReturn(sampleResponse);
+        ObjectMapper smileMapper = SmileMapper.builder().findAndAddModules().build();
+
+        sampleRequest.setListKey("work");
+
+        // When
+        MvcResult result = mockMvc.perform(post("/api/todos")
+                .contentType("application/x-jackson-smile")
+                .accept("application/x-jackson-smile")
+                .content(smileMapper.writeValueAsBytes(sampleRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        // Then
+        TodoResponseDTO todo = smileMapper.readValue(result.getResponse().getContentAsByteArray(), TodoResponseDTO.class);
+        assertEquals(1L, todo.getId());
+        assertEquals("work", todo.getListKey());
+        verify(todoService).createTodo(argThat(request -> "Test Todo".equals(request.getTitle())
+                && "work".equals(request.getListKey())));
+    }
+
+    @Test
+    void getAllTodos_Protobuf() throws Exception {
+        // Given
+        TodoResponseDTO second = new TodoResponseDTO(2L, "Second", null, TodoStatus.COMPLETED,
+                LocalDateTime.of(2024, 5, 1, 12, 30, 15, 250_000_000), LocalDateTime.now(), LocalDateTime.now(), 0L);
+        when(todoService.getAllTodos(isNull(), eq(50))).thenReturn(new CursorPage<>(List.of(sampleResponse, second), "next"));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/todos").accept(TodoProtobufHttpMessageConverter.PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(TodoProtobufHttpMessageConverter.PROTOBUF))
+                .andExpect(header().string(TodoController.NEXT_CURSOR_HEADER, "next"))
+                .andReturn();
+
+        // Then
+        List<TodoResponseDTO> todos = TodoProtobufCodec.readTodos(
+                new ByteArrayInputStream(result.getResponse().getContentAsByteArray()));
+        assertEquals(2, todos.size());
+        assertEquals(sampleResponse.getUpdatedAt(), todos.get(0).getUpdatedAt());
+        assertEquals(TodoStatus.COMPLETED, todos.get(1).getStatus());
+        assertEquals(second.getDueDate(), todos.get(1).getDueDate());
+        assertNull(todos.get(1).getDescription());
+        assertEquals("work", todos.get(0).getListKey());
+        assertNull(todos.get(1).getListKey());
+    }
+
+    @Test
+    void createTodo_Protobuf() throws Exception {
+        // Given
+        when(todoService.createTodo(any(TodoRequestDTO.class))).thenReturn(sampleResponse);
+        sampleRequest.setDueDate(LocalDateTime.of(2024, 6, 1, 9, 0));
+        sampleRequest.setListKey("work");
+
+        // When
+        MvcResult result = mockMvc.perform(post("/api/todos")
+                .contentType(TodoProtobufHttpMessageConverter.PROTOBUF)
+                .accept(TodoProtobufHttpMessageConverter.PROTOBUF)
+                .content(protobuf(sampleRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        // Then
+        TodoResponseDTO todo = TodoProtobufCodec.readTodo(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()));
+        assertEquals(1L, todo.getId());
+        assertEquals(TodoStatus.PENDING, todo.getStatus());
+        assertEquals("work", todo.getListKey());
+        verify(todoService).createTodo(argThat(request -> "Test Todo".equals(request.getTitle())
+                && request.getStatus() == TodoStatus.PENDING
+                && "work".equals(request.getListKey())
+                && LocalDateTime.of(2024, 6, 1, 9, 0).equals(request.getDueDate())));
+    }
+
+    @Test
+    void createTodo_ProtobufValidationError() throws Exception {
+        // Given
+        TodoRequestDTO invalidRequest = new TodoRequestDTO("", "Test Description", null, null);
+
+        // When
+        MvcResult result = mockMvc.perform(post("/api/todos")
+                .contentType(TodoProtobufHttpMessageConverter.PROTOBUF)
+                .accept(TodoProtobufHttpMessageConverter.PROTOBUF)
+                .content(protobuf(invalidRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(TodoProtobufHttpMessageConverter.PROTOBUF))
+                .andReturn();
+
+        // Then: the same error as in JSON
+        ErrorResponseDTO error = TodoProtobufCodec.readError(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()));
+        assertEquals(400, error.getStatus());
+        assertEquals("Validation Failed", error.getError());
+        assertTrue(error.getErrors().containsKey("title"));
+        verify(todoService, never()).createTodo(any(TodoRequestDTO.class));
+    }
+
+    private static byte[] protobuf(TodoRequestDTO request) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        TodoProtobufCodec.writeRequest(request, body);
+        return body.toByteArray();
+    }
 }
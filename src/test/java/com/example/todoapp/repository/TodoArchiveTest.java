@@ -0,0 +1,202 @@
+package com.example.todoapp.repository;
+
+import com.example.todoapp.config.TodoArchiveProperties;
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.models.TodoStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TodoArchiveTest {
+    
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    
+    @TempDir
+    Path directory;
+    
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private TodoShards todoShards = TodoShards.unsharded();
+    private TodoArchiveProperties properties;
+    
+    @BeforeEach
+    void setUp() {
+        properties = new TodoArchiveProperties();
+        properties.setDirectory(directory.toString());
+        properties.setBlockSize(4);
+    }
+    
+    @Test
+    void commit_MakesSegmentReadableById() {
+        // Given
+        TodoArchive archive = archive();
+        List<TodoResponseDTO> todos = todos(1, 10);
+        
+        // When
+        TodoArchive.PendingSegment segment = archive.write(todos);
+        
+        // Then
+        assertTrue(archive.findById(5L).isEmpty(), "pending segments are not visible");
+        segment.commit();
+        TodoResponseDTO found = archive.findById(5L).orElseThrow();
+        assertEquals("Todo 5", found.getTitle());
+        assertEquals(START.plusDays(5), found.getUpdatedAt());
+        assertEquals(TodoStatus.CANCELLED, found.getStatus());
+        assertTrue(archive.findById(11L).isEmpty());
+        assertEquals(10, archive.count());
+    }
+    
+    @Test
+    void discard_RemovesTheFiles() throws IOException {
+        // Given
+        TodoArchive archive = archive();
+        
+        // When
+        archive.write(todos(1, 3)).discard();
+        
+        // Then
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+        assertEquals(0, archive.segmentCount());
+    }
+    
+    @Test
+    void find_FiltersAndPagesInIdOrderAcrossSegments() {
+        // Given: two segments with interleaved ids
+        TodoArchive archive = archive();
+        archive.write(todos(1, 9).stream().filter(todo -> todo.getId() % 2 == 1).toList()).commit();
+        archive.write(todos(1, 9).stream().filter(todo -> todo.getId() % 2 == 0).toList()).commit();
+        
+        // When
+        List<TodoResponseDTO> firstPage = archive.find(null, null, null, 0L, 4);
+        List<TodoResponseDTO> secondPage = archive.find(null, null, null, 4L, 4);
+        List<TodoResponseDTO> completed = archive.find(TodoStatus.COMPLETED, START.plusDays(3), START.plusDays(7), 0L, 10);
+        
+        // Then
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(firstPage));
+        assertEquals(List.of(5L, 6L, 7L, 8L), ids(secondPage));
+        assertEquals(List.of(4L, 6L), ids(completed));
+    }
+    
+    @Test
+    void segmentFile_IsOneGzipStreamOfNdjson() throws IOException {
+        // Given
+        TodoArchive archive = archive();
+        archive.write(todos(1, 10)).commit();
+        
+        // When
+        List<String> lines;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(directory.resolve("segment-000001.ndjson.gz")))) {
+            lines = new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+        
+        // Then: three blocks of up to four rows read back as one stream
+        assertEquals(10, lines.size());
+        assertTrue(lines.get(0).contains("\"title\":\"Todo 1\""));
+    }
+    
+    @Test
+    void load_ReadsCommittedSegmentsAndContinuesTheSequence() {
+        // Given
+        archive().write(todos(1, 5)).commit();
+        
+        // When
+        TodoArchive reloaded = archive();
+        reloaded.write(todos(6, 10)).commit();
+        
+        // Then
+        assertEquals(2, reloaded.segmentCount());
+        assertTrue(Files.exists(directory.resolve("segment-000002.json")));
+        assertTrue(reloaded.findById(3L).isPresent());
+        verifyNoInteractions(jdbcTemplate);
+    }
+    
+    @Test
+    void load_RecoversPendingSegmentWhoseRowsWereDeleted() {
+        // Given: the delete committed but the process died before the rename
+        archive().write(todos(1, 5));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), anyLong())).thenReturn(0);
+        
+        // When
+        TodoArchive reloaded = archive();
+        
+        // Then
+        assertTrue(reloaded.findById(2L).isPresent());
+        assertTrue(Files.exists(directory.resolve("segment-000001.json")));
+    }
+    
+    @Test
+    void load_RemovesPendingSegmentWhoseRowsAreStillLive() throws IOException {
+        // Given: the process died before the delete committed
+        archive().write(todos(1, 5));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), anyLong())).thenReturn(1);
+        
+        // When
+        TodoArchive reloaded = archive();
+        
+        // Then
+        assertEquals(0, reloaded.segmentCount());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+    
+    @Test
+    void load_ChecksThePendingSegmentOnItsShard() {
+        // Given: a segment archived from shard 1 of two
+        archive().write(todos(1, 5));
+        todoShards = mock(TodoShards.class);
+        when(todoShards.shardOfId(1L)).thenReturn(1);
+        when(todoShards.call(anyInt(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(1).get());
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), anyLong())).thenReturn(0);
+        
+        // When
+        TodoArchive reloaded = archive();
+        
+        // Then
+        assertTrue(reloaded.findById(2L).isPresent());
+        verify(todoShards).call(eq(1), any());
+    }
+    
+    private TodoArchive archive() {
+        TodoArchive archive = new TodoArchive(jdbcTemplate, todoShards, properties, null);
+        archive.load();
+        return archive;
+    }
+    
+    // Even ids are completed, odd ones cancelled; todo n was last updated n days after START
+    private static List<TodoResponseDTO> todos(long firstId, long lastId) {
+        List<TodoResponseDTO> todos = new ArrayList<>();
+        for (long id = lastId; id >= firstId; id--) {
+            todos.add(new TodoResponseDTO(id, "Todo " + id, "Description " + id,
+                    id % 2 == 0 ? TodoStatus.COMPLETED : TodoStatus.CANCELLED, null,
+                    START, START.plusDays(id), 1L));
+        }
+        return todos;
+    }
+    
+    private static List<Long> ids(List<TodoResponseDTO> todos) {
+        return todos.stream().map(TodoResponseDTO::getId).toList();
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.todoapp.repository;
+
+import com.example.todoapp.models.Todo;
+import com.example.todoapp.models.TodoStatus;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs every TodoRepository query against the migrated schema and checks its SQLite query
+ * plan: a query that has to read the whole todos table fails the build unless it is listed
+ * in {@link #FULL_SCAN_ALLOWED}, and a keyset finder ({@code *After}) that sorts its matches
+ * fails unless it is listed in {@link #SORT_ALLOWED}.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "com.example.todoapp.repository.TodoRepositoryQueryPlanTest$CapturingInspector"
+})
+class TodoRepositoryQueryPlanTest {
+    
+    // Substring search is the fallback when FTS5 is missing; exports read every row by design
+    private static final Set<String> FULL_SCAN_ALLOWED = Set.of("findByTitleContainingIgnoreCase", "streamAllDtos");
+    
+    // A created_at range and id order cannot both come from one index (see V7__index_todo_keyset_pages.sql)
+    private static final Set<String> SORT_ALLOWED = Set.of("findDtosByCreatedAtBetweenAfter");
+    
+    @Autowired
+    private TodoRepository todoRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws IOException {
+        File file = File.createTempFile("todo-plan", ".db");
+        file.deleteOnExit();
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:file:" + file.getAbsolutePath());
+    }
+    
+    @Test
+    void everyFinderUsesAnIndex() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findByStatus", () -> todoRepository.findByStatus(TodoStatus.PENDING));
+        queries.put("findByTitleContainingIgnoreCase", () -> todoRepository.findByTitleContainingIgnoreCase("x"));
+        queries.put("findByDueDateBefore", () -> todoRepository.findByDueDateBefore(now));
+        queries.put("findByDueDateAfter", () -> todoRepository.findByDueDateAfter(now));
+        queries.put("findByCreatedAtBetween", () -> todoRepository.findByCreatedAtBetween(now, now));
+        queries.put("findOverdueTodos", () -> todoRepository.findOverdueTodos(now, TodoStatus.COMPLETED));
+        queries.put("countByStatus", () -> todoRepository.countByStatus(TodoStatus.PENDING));
+        queries.put("findDtoById", () -> todoRepository.findDtoById(1L));
+        queries.put("findVersionById", () -> todoRepository.findVersionById(1L));
+        queries.put("findDtosByIdIn", () -> todoRepository.findDtosByIdIn(List.of(1L, 2L)));
+        queries.put("findDtosByDueDateNotNullAndStatusNot",
+                () -> todoRepository.findDtosByDueDateNotNullAndStatusNot(TodoStatus.COMPLETED));
+        queries.put("findDtosAfter", () -> todoRepository.findDtosAfter(0L, Limit.of(10)));
+        queries.put("findDtosByListKeyAfter",
+                () -> todoRepository.findDtosByListKeyAfter(Todo.DEFAULT_LIST_KEY, 0L, Limit.of(10)));
+        queries.put("findDtosByStatusAfter",
+                () -> todoRepository.findDtosByStatusAfter(TodoStatus.PENDING, 0L, Limit.of(10)));
+        queries.put("findDtosByTitleContainingAfter",
+                () -> todoRepository.findDtosByTitleContainingAfter("x", 0L, Limit.of(10)));
+        queries.put("findDtosByCreatedAtBetweenAfter",
+                () -> todoRepository.findDtosByCreatedAtBetweenAfter(now, now, 0L, Limit.of(10)));
+        queries.put("streamAllDtos", () -> {
+            try (var todos = todoRepository.streamAllDtos()) {
+                todos.findFirst();
+            }
+        });
+        queries.put("findStatusesByIdIn", () -> todoRepository.findStatusesByIdIn(List.of(1L, 2L)));
+        queries.put("countGroupedByStatus", () -> todoRepository.countGroupedByStatus());
+        queries.put("countByStatusAndUpdatedAtBefore",
+                () -> todoRepository.countByStatusAndUpdatedAtBefore(TodoStatus.COMPLETED, now));
+        queries.put("deleteChunkByStatusAndUpdatedAtBefore",
+                () -> todoRepository.deleteChunkByStatusAndUpdatedAtBefore(TodoStatus.COMPLETED, now, 100));
+        queries.put("findDtosByStatusInAndUpdatedAtBefore", () -> todoRepository.findDtosByStatusInAndUpdatedAtBefore(
+                List.of(TodoStatus.COMPLETED, TodoStatus.CANCELLED), now, Limit.of(100)));
+        
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<String> fullScans = new ArrayList<>();
+        List<String> sorts = new ArrayList<>();
+        queries.forEach((name, query) -> {
+            CapturingInspector.STATEMENTS.clear();
+            transaction.executeWithoutResult(status -> {
+                query.run();
+                status.setRollbackOnly();
+            });
+            assertFalse(CapturingInspector.STATEMENTS.isEmpty(), name + " ran no SQL");
+            for (String sql : CapturingInspector.STATEMENTS) {
+                List<String> plan = explain(sql);
+                // Every query reads only todos (under a Hibernate alias); a SCAN without USING reads every row
+                boolean fullScan = plan.stream()
+                        .anyMatch(step -> step.startsWith("SCAN ") && !step.contains(" USING "));
+                if (fullScan && !FULL_SCAN_ALLOWED.contains(name)) {
+                    fullScans.add(name + ": " + plan + " for " + sql);
+                }
+                // A keyset page must come off an index in id order, not sort every match first
+                boolean sorted = plan.stream().anyMatch(step -> step.startsWith("USE TEMP B-TREE FOR ORDER BY"));
+                if (name.endsWith("After") && sorted && !SORT_ALLOWED.contains(name)) {
+                    sorts.add(name + ": " + plan + " for " + sql);
+                }
+            }
+        });
+        assertTrue(fullScans.isEmpty(), "Queries scanning the whole todos table:\n" + String.join("\n", fullScans));
+        assertTrue(sorts.isEmpty(), "Keyset pages sorting all their matches:\n" + String.join("\n", sorts));
+    }
+    
+    // Sharding serves a list from one shard; its pages must come off the (list_key, id) index
+    @Test
+    void listPagesUseTheListIndex() {
+        // Given
+        CapturingInspector.STATEMENTS.clear();
+        
+        // When
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                todoRepository.findDtosByListKeyAfter(Todo.DEFAULT_LIST_KEY, 0L, Limit.of(10)));
+        
+        // Then
+        assertEquals(1, CapturingInspector.STATEMENTS.size());
+        List<String> plan = explain(CapturingInspector.STATEMENTS.get(0));
+        assertTrue(plan.stream().anyMatch(step -> step.contains("USING INDEX idx_todos_list_key_id")), plan.toString());
+        assertTrue(plan.stream().noneMatch(step -> step.contains("TEMP B-TREE")), plan.toString());
+    }
+    
+    // Parameters are bound as NULL; without ANALYZE statistics the plan does not depend on them
+    private List<String> explain(String sql) {
+        Object[] parameters = new Object[(int) sql.chars().filter(c -> c == '?').count()];
+        return jdbcTemplate.query("EXPLAIN QUERY PLAN " + sql,
+                (rs, rowNum) -> rs.getString("detail"), parameters);
+    }
+    
+    public static class CapturingInspector implements StatementInspector {
+        
+        static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+        
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
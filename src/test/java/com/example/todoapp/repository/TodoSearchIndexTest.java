@@ -0,0 +1,30 @@
+package com.example.todoapp.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TodoSearchIndexTest {
+    
+    @Test
+    void toMatchExpression_QuotesEveryTermAsPrefix() {
+        assertEquals("\"spring\"* \"boot\"*", TodoSearchIndex.toMatchExpression("Spring  Boot"));
+    }
+    
+    @Test
+    void toMatchExpression_NeutralizesFtsSyntax() {
+        assertEquals("\"title\"* \"x\"* \"or\"* \"drop\"*",
+                TodoSearchIndex.toMatchExpression("title:x OR \"drop*"));
+    }
+    
+    @Test
+    void toMatchExpression_KeepsUnicodeLettersAndDigits() {
+        assertEquals("\"caf\u00e9\"* \"2024\"*", TodoSearchIndex.toMatchExpression("Caf\u00e9, 2024!"));
+    }
+    
+    @Test
+    void toMatchExpression_NothingSearchable() {
+        assertNull(TodoSearchIndex.toMatchExpression(null));
+        assertNull(TodoSearchIndex.toMatchExpression("  -*- "));
+    }
+}
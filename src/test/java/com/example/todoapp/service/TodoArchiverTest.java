@@ -0,0 +1,124 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.dtos.CursorPage;
+import com.example.todoapp.dtos.TodoRequestDTO;
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.models.TodoStatus;
+import com.example.todoapp.repository.TodoArchive;
+import com.example.todoapp.repository.TodoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Moves todos into the archive against the real application, a fresh SQLite file and a
+ * temporary archive directory.
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "todo.archive.segment-size=3"})
+class TodoArchiverTest {
+    
+    @Autowired
+    private TodoArchiver todoArchiver;
+    
+    @Autowired
+    private TodoArchive todoArchive;
+    
+    @Autowired
+    private TodoService todoService;
+    
+    @Autowired
+    private TodoRepository todoRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) throws IOException {
+        File file = File.createTempFile("todo-archive", ".db");
+        file.deleteOnExit();
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:file:" + file.getAbsolutePath());
+        File directory = Files.createTempDirectory("todo-archive").toFile();
+        directory.deleteOnExit();
+        registry.add("todo.archive.directory", directory::getAbsolutePath);
+    }
+    
+    @Test
+    void archive_MovesOldFinishedTodosOutOfTheTable() {
+        // Given: five old finished todos, one recent one and one old open one
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(30);
+        List<Long> old = List.of(create(TodoStatus.COMPLETED), create(TodoStatus.CANCELLED),
+                create(TodoStatus.COMPLETED), create(TodoStatus.COMPLETED), create(TodoStatus.CANCELLED));
+        long recent = create(TodoStatus.COMPLETED);
+        long open = create(TodoStatus.PENDING);
+        for (long id : old) {
+            age(id, cutoff.minusDays(1));
+        }
+        age(open, cutoff.minusDays(1));
+        long completedBefore = todoService.countTodosByStatus(TodoStatus.COMPLETED);
+        long archivedBefore = todoArchive.count();
+        
+        // When
+        long archived = todoArchiver.archive(cutoff);
+        
+        // Then: two segments, the rows gone from the table but still readable
+        assertEquals(5, archived);
+        assertEquals(archivedBefore + 5, todoArchive.count());
+        assertTrue(todoRepository.findDtosByIdIn(old).isEmpty());
+        assertTrue(todoRepository.findById(recent).isPresent());
+        assertTrue(todoRepository.findById(open).isPresent());
+        assertEquals(completedBefore - 3, todoService.countTodosByStatus(TodoStatus.COMPLETED));
+        
+        TodoResponseDTO found = todoService.getTodoByIdIncludingArchived(old.get(1));
+        assertEquals(TodoStatus.CANCELLED, found.getStatus());
+        CursorPage<TodoResponseDTO> completed = todoService.getTodosIncludingArchived(
+                TodoStatus.COMPLETED, null, 500);
+        List<Long> ids = completed.getItems().stream().map(TodoResponseDTO::getId).toList();
+        assertTrue(ids.containsAll(List.of(old.get(0), old.get(2), old.get(3), recent)));
+        assertEquals(ids.stream().sorted().toList(), ids);
+        
+        // Nothing left to archive
+        assertEquals(0, todoArchiver.archive(cutoff));
+    }
+    
+    @Test
+    void archive_DropsCancelledTodosFromTheDueViews() {
+        // Given: an old cancelled todo that was due yesterday
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(30);
+        long cancelled = todoService.createTodo(new TodoRequestDTO("Cancelled", null, TodoStatus.CANCELLED,
+                LocalDateTime.now().minusDays(1))).getId();
+        age(cancelled, cutoff.minusDays(1));
+        assertTrue(overdueIds().contains(cancelled));
+        
+        // When
+        todoArchiver.archive(cutoff);
+        
+        // Then
+        assertFalse(overdueIds().contains(cancelled));
+        assertEquals(TodoStatus.CANCELLED, todoService.getTodoByIdIncludingArchived(cancelled).getStatus());
+    }
+    
+    private List<Long> overdueIds() {
+        return todoService.getOverdueTodos(null, 500).getItems().stream().map(TodoResponseDTO::getId).toList();
+    }
+    
+    private long create(TodoStatus status) {
+        return todoService.createTodo(new TodoRequestDTO("Archive me", null, status, null)).getId();
+    }
+    
+    // Hibernate sets updated_at on every write, so backdate it underneath, bound the way Hibernate binds it
+    private void age(long id, LocalDateTime updatedAt) {
+        jdbcTemplate.update("UPDATE todos SET updated_at = ? WHERE id = ?", Timestamp.valueOf(updatedAt), id);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.config.TodoCacheProperties;
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.models.TodoStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TodoCacheTest {
+    
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<Long, TodoResponseDTO> loader = id -> {
+        loads.incrementAndGet();
+        return todo(id);
+    };
+    
+    @Test
+    void get_LoadsOnceAndServesHitsFromMemory() {
+        // Given
+        TodoCache cache = new TodoCache(new TodoCacheProperties(), new SimpleMeterRegistry());
+        
+        // When
+        TodoResponseDTO first = cache.get(1L, loader);
+        TodoResponseDTO second = cache.get(1L, loader);
+        
+        // Then
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+    
+    @Test
+    void onTodoChanged_InvalidatesOnlyThatId() {
+        // Given
+        TodoCache cache = new TodoCache(new TodoCacheProperties(), new SimpleMeterRegistry());
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+        
+        // When
+        cache.onTodoChanged(TodoChangedEvent.deleted(1L, null));
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+        
+        // Then
+        assertEquals(3, loads.get());
+    }
+    
+    @Test
+    void onTodosPurged_InvalidatesEverything() {
+        // Given
+        TodoCache cache = new TodoCache(new TodoCacheProperties(), new SimpleMeterRegistry());
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+        
+        // When
+        cache.onTodosPurged(new TodosPurgedEvent(TodoStatus.COMPLETED, LocalDateTime.now(), 2));
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+        
+        // Then
+        assertEquals(4, loads.get());
+    }
+    
+    @Test
+    void disabled_AlwaysCallsLoader() {
+        // Given
+        TodoCacheProperties properties = new TodoCacheProperties();
+        properties.setEnabled(false);
+        TodoCache cache = new TodoCache(properties, new SimpleMeterRegistry());
+        
+        // When
+        cache.get(1L, loader);
+        cache.get(1L, loader);
+        
+        // Then
+        assertEquals(2, loads.get());
+    }
+    
+    private static TodoResponseDTO todo(Long id) {
+        TodoResponseDTO todo = new TodoResponseDTO();
+        todo.setId(id);
+        todo.setTitle("Todo " + id);
+        return todo;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.config.TodoStreamProperties;
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.models.TodoStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TodoChangeFeedTest {
+
+    private TodoChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        TodoStreamProperties properties = new TodoStreamProperties();
+        properties.setBufferSize(4);
+        feed = new TodoChangeFeed(properties);
+    }
+
+    @Test
+    void read_ReturnsChangesAfterPosition() throws InterruptedException {
+        feed.onTodoChanged(TodoChangedEvent.created(todo(1L, TodoStatus.PENDING)));
+        feed.onTodoChanged(TodoChangedEvent.updated(todo(1L, TodoStatus.PENDING), todo(1L, TodoStatus.COMPLETED)));
+        feed.onTodoChanged(TodoChangedEvent.deleted(1L, todo(1L, TodoStatus.COMPLETED)));
+
+        TodoChangeFeed.Batch batch = feed.read(1, 10, Duration.ZERO);
+
+        assertFalse(batch.isGap());
+        assertEquals(List.of("updated", "deleted"), batch.getChanges().stream().map(TodoChangeFeed.Change::getType).toList());
+        assertEquals(3, batch.getChanges().get(1).getSequence());
+        assertEquals(Map.of("id", 1L, "status", TodoStatus.COMPLETED), batch.getChanges().get(1).getData());
+        assertEquals(3, feed.latestSequence());
+    }
+
+    @Test
+    void concerns_MatchesTodosEnteringOrLeavingStatus() throws InterruptedException {
+        feed.onTodoChanged(TodoChangedEvent.updated(todo(1L, TodoStatus.PENDING), todo(1L, TodoStatus.COMPLETED)));
+        feed.onTodosPurged(new TodosPurgedEvent(TodoStatus.COMPLETED, LocalDateTime.now(), 2));
+
+        List<TodoChangeFeed.Change> changes = feed.read(0, 10, Duration.ZERO).getChanges();
+
+        assertTrue(changes.get(0).concerns(TodoStatus.PENDING));
+        assertTrue(changes.get(0).concerns(TodoStatus.COMPLETED));
+        assertFalse(changes.get(0).concerns(TodoStatus.CANCELLED));
+        assertTrue(changes.get(0).concerns(null));
+        assertFalse(changes.get(1).concerns(TodoStatus.PENDING));
+        assertTrue(changes.get(1).concerns(TodoStatus.COMPLETED));
+    }
+
+    @Test
+    void read_ReportsGapWhenReaderFellOutOfBuffer() throws InterruptedException {
+        for (long id = 1; id <= 6; id++) {
+            feed.onTodoChanged(TodoChangedEvent.created(todo(id, TodoStatus.PENDING)));
+        }
+
+        // Sequences 3..6 are still buffered; 2 was overwritten
+        assertTrue(feed.read(1, 10, Duration.ZERO).isGap());
+        assertEquals(4, feed.read(2, 10, Duration.ZERO).getChanges().size());
+        assertEquals(List.of(), feed.read(6, 10, Duration.ZERO).getChanges());
+    }
+
+    @Test
+    void read_WaitsForTheNextChange() throws Exception {
+        CompletableFuture<TodoChangeFeed.Batch> reader = CompletableFuture.supplyAsync(() -> {
+            try {
+                return feed.read(0, 10, Duration.ofSeconds(10));
+            } catch (InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        Thread.sleep(50);
+        assertFalse(reader.isDone());
+
+        feed.onTodoChanged(TodoChangedEvent.created(todo(1L, TodoStatus.PENDING)));
+
+        assertEquals(1, reader.get(5, TimeUnit.SECONDS).getChanges().size());
+    }
+
+    @Test
+    void resumeAfter_AcceptsOnlyIdsFromThisFeed() {
+        feed.onTodoChanged(TodoChangedEvent.created(todo(1L, TodoStatus.PENDING)));
+
+        assertEquals(1, feed.resumeAfter(feed.eventId(1)));
+        assertEquals(-1, feed.resumeAfter(feed.eventId(2)));
+        assertEquals(-1, feed.resumeAfter("other-1"));
+        assertEquals(-1, feed.resumeAfter(feed.eventId(1) + "x"));
+        assertEquals(-1, feed.resumeAfter(new TodoChangeFeed(new TodoStreamProperties()).eventId(1)));
+    }
+
+    private static TodoResponseDTO todo(Long id, TodoStatus status) {
+        TodoResponseDTO todo = new TodoResponseDTO();
+        todo.setId(id);
+        todo.setStatus(status);
+        return todo;
+    }
+}
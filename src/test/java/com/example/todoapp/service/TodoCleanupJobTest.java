@@ -0,0 +1,132 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.config.TodoCleanupProperties;
+import com.example.todoapp.dtos.CleanupStatusDTO;
+import com.example.todoapp.models.TodoStatus;
+import com.example.todoapp.repository.TodoRepository;
+import com.example.todoapp.repository.TodoShards;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TodoCleanupJobTest {
+    
+    private static final LocalDateTime BEFORE = LocalDateTime.of(2024, 1, 1, 0, 0);
+    
+    private final TodoRepository todoRepository = mock(TodoRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final TodoCleanupProperties properties = new TodoCleanupProperties();
+    private TodoCleanupJob job;
+    
+    @AfterEach
+    void tearDown() {
+        if (job != null) {
+            job.destroy();
+        }
+    }
+    
+    @Test
+    void status_IdleBeforeFirstPurge() {
+        job = new TodoCleanupJob(todoRepository, TodoShards.unsharded(), transactionManager, eventPublisher, properties);
+        
+        assertEquals(CleanupStatusDTO.State.IDLE, job.status().getState());
+        verifyNoInteractions(todoRepository);
+    }
+    
+    @Test
+    void start_DeletesInChunksUntilAShortChunk() throws Exception {
+        // Given
+        properties.setChunkSize(2);
+        properties.setPause(Duration.ZERO);
+        when(todoRepository.countByStatusAndUpdatedAtBefore(TodoStatus.COMPLETED, BEFORE)).thenReturn(5L);
+        when(todoRepository.deleteChunkByStatusAndUpdatedAtBefore(TodoStatus.COMPLETED, BEFORE, 2))
+                .thenReturn(2, 2, 1);
+        job = new TodoCleanupJob(todoRepository, TodoShards.unsharded(), transactionManager, eventPublisher, properties);
+        
+        // When
+        job.start(BEFORE);
+        CleanupStatusDTO status = awaitFinished();
+        
+        // Then
+        assertEquals(CleanupStatusDTO.State.COMPLETED, status.getState());
+        assertEquals(5, status.getTotal());
+        assertEquals(5, status.getDeleted());
+        assertEquals(3, status.getChunks());
+        assertNotNull(status.getFinishedAt());
+        verify(transactionManager, times(3)).commit(any());
+        ArgumentCaptor<TodosPurgedEvent> events = ArgumentCaptor.forClass(TodosPurgedEvent.class);
+        verify(eventPublisher, times(3)).publishEvent(events.capture());
+        assertEquals(List.of(2L, 2L, 1L), events.getAllValues().stream().map(TodosPurgedEvent::getDeletedCount).toList());
+    }
+    
+    @Test
+    void start_WhileRunning_ReturnsRunningPurge() throws Exception {
+        // Given
+        CountDownLatch counting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(todoRepository.countByStatusAndUpdatedAtBefore(eq(TodoStatus.COMPLETED), any())).thenAnswer(invocation -> {
+            counting.countDown();
+            release.await();
+            return 0L;
+        });
+        job = new TodoCleanupJob(todoRepository, TodoShards.unsharded(), transactionManager, eventPublisher, properties);
+        job.start(BEFORE);
+        assertTrue(counting.await(5, TimeUnit.SECONDS));
+        
+        // When
+        CleanupStatusDTO second = job.start(BEFORE.plusDays(1));
+        release.countDown();
+        
+        // Then
+        assertEquals(CleanupStatusDTO.State.RUNNING, second.getState());
+        assertEquals(BEFORE, second.getUpdatedBefore());
+        assertEquals(CleanupStatusDTO.State.COMPLETED, awaitFinished().getState());
+        verify(todoRepository, times(1)).countByStatusAndUpdatedAtBefore(eq(TodoStatus.COMPLETED), any());
+    }
+    
+    @Test
+    void start_FailedChunk_KeepsRowsDeletedSoFar() throws Exception {
+        // Given
+        properties.setChunkSize(2);
+        properties.setPause(Duration.ZERO);
+        when(todoRepository.deleteChunkByStatusAndUpdatedAtBefore(eq(TodoStatus.COMPLETED), eq(BEFORE), anyInt()))
+                .thenReturn(2)
+                .thenThrow(new IllegalStateException("database is locked"));
+        job = new TodoCleanupJob(todoRepository, TodoShards.unsharded(), transactionManager, eventPublisher, properties);
+        
+        // When
+        job.start(BEFORE);
+        CleanupStatusDTO status = awaitFinished();
+        
+        // Then
+        assertEquals(CleanupStatusDTO.State.FAILED, status.getState());
+        assertEquals(2, status.getDeleted());
+        assertEquals("database is locked", status.getError());
+        verify(transactionManager).rollback(any());
+    }
+    
+    private CleanupStatusDTO awaitFinished() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        CleanupStatusDTO status = job.status();
+        while (status.getState() == CleanupStatusDTO.State.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = job.status();
+        }
+        return status;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.models.Todo;
+import com.example.todoapp.models.TodoStatus;
+import com.example.todoapp.repository.TodoRepository;
+import com.example.todoapp.repository.TodoShards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TodoDueIndexTest {
+    
+    private final TodoRepository todoRepository = mock(TodoRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final LocalDateTime now = LocalDateTime.now();
+    private TodoDueIndex index;
+    
+    @BeforeEach
+    void setUp() {
+        Todo overdue = new Todo("Overdue", null, TodoStatus.PENDING);
+        overdue.setId(1L);
+        overdue.setDueDate(now.minusHours(1));
+        when(todoRepository.findDtosByDueDateNotNullAndStatusNot(TodoStatus.COMPLETED))
+                .thenReturn(List.of(new TodoResponseDTO(overdue)));
+        index = new TodoDueIndex(todoRepository, TodoShards.unsharded(), eventPublisher);
+        index.initialize();
+    }
+    
+    @Test
+    void range_OrdersByDueDateThenId() {
+        // Given
+        index.onTodoChanged(TodoChangedEvent.created(todo(3L, now.plusHours(2), TodoStatus.PENDING)));
+        index.onTodoChanged(TodoChangedEvent.created(todo(2L, now.plusHours(2), TodoStatus.IN_PROGRESS)));
+        
+        // When
+        List<TodoResponseDTO> all = index.range(null, null, 10);
+        List<TodoResponseDTO> upcoming = index.range(TodoDueIndex.DueKey.first(now), null, 1);
+        
+        // Then
+        assertEquals(List.of(1L, 2L, 3L), all.stream().map(TodoResponseDTO::getId).toList());
+        assertEquals(2L, upcoming.get(0).getId());
+    }
+    
+    @Test
+    void onTodoChanged_MovesRescheduledAndDropsCompletedOrDeleted() {
+        // Given
+        index.onTodoChanged(TodoChangedEvent.created(todo(2L, now.plusHours(1), TodoStatus.PENDING)));
+        index.onTodoChanged(TodoChangedEvent.created(todo(3L, now.plusHours(2), TodoStatus.PENDING)));
+        
+        // When
+        index.onTodoChanged(TodoChangedEvent.updated(null, todo(2L, now.plusHours(3), TodoStatus.PENDING)));
+        index.onTodoChanged(TodoChangedEvent.updated(null, todo(3L, now.plusHours(2), TodoStatus.COMPLETED)));
+        index.onTodoChanged(TodoChangedEvent.deleted(1L, null));
+        
+        // Then
+        assertEquals(1, index.size());
+        assertEquals(now.plusHours(3), index.range(null, null, 10).get(0).getDueDate());
+    }
+    
+    @Test
+    void onTodosPurged_DropsTheArchivedIds() {
+        // Given
+        index.onTodoChanged(TodoChangedEvent.created(todo(2L, now.plusHours(1), TodoStatus.CANCELLED)));
+        
+        // When
+        index.onTodosPurged(new TodosPurgedEvent(TodoStatus.CANCELLED, now, List.of(2L)));
+        index.onTodosPurged(new TodosPurgedEvent(TodoStatus.COMPLETED, now, 5));
+        
+        // Then
+        assertEquals(List.of(1L), index.range(null, null, 10).stream().map(TodoResponseDTO::getId).toList());
+    }
+    
+    @Test
+    void publishDueEvents_FiresOnceForNewlyDueTodos() {
+        // Given
+        index.onTodoChanged(TodoChangedEvent.created(todo(2L, LocalDateTime.now().plusNanos(1_000), TodoStatus.PENDING)));
+        index.onTodoChanged(TodoChangedEvent.created(todo(3L, now.plusHours(1), TodoStatus.PENDING)));
+        
+        // When
+        await(LocalDateTime.now().plusNanos(2_000));
+        index.publishDueEvents();
+        index.publishDueEvents();
+        
+        // Then
+        verify(eventPublisher, times(1)).publishEvent(any(TodoDueEvent.class));
+    }
+    
+    private static void await(LocalDateTime time) {
+        while (LocalDateTime.now().isBefore(time)) {
+            Thread.onSpinWait();
+        }
+    }
+    
+    private static TodoResponseDTO todo(Long id, LocalDateTime dueDate, TodoStatus status) {
+        TodoResponseDTO todo = new TodoResponseDTO();
+        todo.setId(id);
+        todo.setTitle("Todo " + id);
+        todo.setStatus(status);
+        todo.setDueDate(dueDate);
+        return todo;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.config.TodoReplicaProperties;
+import com.example.todoapp.dtos.CursorPage;
+import com.example.todoapp.dtos.TodoChangesDTO;
+import com.example.todoapp.dtos.TodoRequestDTO;
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.models.Todo;
+import com.example.todoapp.models.TodoStatus;
+import com.example.todoapp.repository.TodoReplica;
+import com.example.todoapp.repository.TodoRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doCallRealMethod;
+
+/**
+ * Embedded-replica mode against two SQLite files, one standing in for the remote primary. The
+ * interval sync is pushed out of the way, so every pull is one the test can see.
+ * {@link TodoReplicaWriteBatchingTest} runs the same tests with group commit on.
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "todo.replica.enabled=true",
+        "todo.replica.sync-interval=PT1H", "todo.replica.batch-size=2"})
+class TodoReplicaSyncTest {
+    
+    @Autowired
+    private TodoReplicaSync todoReplicaSync;
+    
+    @Autowired
+    private TodoService todoService;
+    
+    @Autowired
+    private TodoRepository todoRepository;
+    
+    @SpyBean
+    private TodoReplica todoReplica;
+    
+    @Autowired
+    private TodoReplicaProperties replicaProperties;
+    
+    @Autowired
+    @Qualifier("todoPrimaryDataSource")
+    private HikariDataSource primaryDataSource;
+    
+    @Autowired
+    @Qualifier("todoReplicaReaderDataSource")
+    private HikariDataSource replicaDataSource;
+    
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) throws IOException {
+        File primary = File.createTempFile("todo-primary", ".db");
+        primary.deleteOnExit();
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:file:" + primary.getAbsolutePath());
+        File replica = File.createTempFile("todo-replica", ".db");
+        replica.deleteOnExit();
+        registry.add("todo.replica.path", replica::getAbsolutePath);
+    }
+    
+    @Test
+    void write_IsReadableFromTheReplicaByTheWritingRequest() {
+        // Given
+        assertTrue(todoReplicaSync.isCurrent());
+        
+        // When
+        TodoResponseDTO created = todoService.createTodo(new TodoRequestDTO("Replicated", "Copied after commit",
+                TodoStatus.PENDING, null));
+        
+        // Then: pulled before createTodo returned, with the primary's version
+        assertEquals("Replicated", replica().queryForObject(
+                "SELECT title FROM todos WHERE id = ?", String.class, created.getId()));
+        assertEquals(created.getVersion(), replica().queryForObject(
+                "SELECT version FROM todos WHERE id = ?", Long.class, created.getId()));
+        assertEquals("Replicated", todoRepository.findById(created.getId()).map(Todo::getTitle).orElse(null));
+    }
+    
+    @Test
+    void sync_PullsChangesWrittenByOthers() {
+        // Given: changes made on the primary behind this instance's back
+        long first = todoService.createTodo(new TodoRequestDTO("First", null, TodoStatus.PENDING, null)).getId();
+        long second = todoService.createTodo(new TodoRequestDTO("Second", null, TodoStatus.PENDING, null)).getId();
+        long third = todoService.createTodo(new TodoRequestDTO("Third", null, TodoStatus.PENDING, null)).getId();
+        primary().update("UPDATE todos SET title = 'First, renamed elsewhere' WHERE id = ?", first);
+        primary().update("DELETE FROM todos WHERE id = ?", second);
+        primary().update("UPDATE todos SET status = 'COMPLETED' WHERE id = ?", third);
+        assertEquals("First", todoRepository.findById(first).map(Todo::getTitle).orElse(null));
+        
+        // When: more changes than one batch
+        todoReplicaSync.sync();
+        
+        // Then: the replica matches the primary, down to the row and change versions
+        assertEquals("First, renamed elsewhere", todoRepository.findById(first).map(Todo::getTitle).orElse(null));
+        assertTrue(todoRepository.findById(second).isEmpty());
+        assertEquals(TodoStatus.COMPLETED, todoService.getTodoById(third).getStatus());
+        for (String sql : List.of("SELECT id, version, title, status FROM todos ORDER BY id",
+                "SELECT version, todo_id, deleted FROM todo_changes ORDER BY version")) {
+            assertEquals(primary().queryForList(sql), replica().queryForList(sql));
+        }
+        TodoChangesDTO changes = todoService.getChangesSince(0, 500);
+        assertEquals(primary().queryForObject("SELECT MAX(version) FROM todo_changes", Long.class), changes.getVersion());
+        assertTrue(changes.getDeleted().contains(second));
+        CursorPage<TodoResponseDTO> found = todoService.searchTodos("renamed elsewhere", null, 10);
+        assertEquals(List.of(first), found.getItems().stream().map(TodoResponseDTO::getId).toList());
+    }
+    
+    @Test
+    void write_ReadsFromThePrimaryWhileAPullIsStuckOnASlowPrimary() throws Exception {
+        // Given: an interval pull holding the sync lock, stuck on a slow primary
+        Duration maxLag = replicaProperties.getMaxLag();
+        replicaProperties.setMaxLag(Duration.ofMillis(500));
+        todoReplicaSync.sync();
+        CountDownLatch pulling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            pulling.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).doCallRealMethod().when(todoReplica).pull(anyLong(), anyInt());
+        ExecutorService scheduler = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> slowSync = scheduler.submit(todoReplicaSync::sync);
+            assertTrue(pulling.await(5, TimeUnit.SECONDS));
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+            
+            // When
+            TodoResponseDTO created = todoService.createTodo(new TodoRequestDTO("Written during a slow pull", null,
+                    TodoStatus.PENDING, null));
+            
+            // Then: the write returned after max-lag without the replica, and reads it from the primary
+            assertFalse(slowSync.isDone());
+            assertEquals(0, replica().queryForObject("SELECT COUNT(*) FROM todos WHERE id = ?", Integer.class,
+                    created.getId()));
+            assertEquals("Written during a slow pull",
+                    todoRepository.findById(created.getId()).map(Todo::getTitle).orElse(null));
+            
+            // The stuck pull started before the commit, so only the writing request keeps reading from the
+            // primary, and the next request on the same thread reads locally again
+            release.countDown();
+            slowSync.get(5, TimeUnit.SECONDS);
+            assertTrue(scheduler.submit(todoReplicaSync::isCurrent).get(5, TimeUnit.SECONDS));
+            assertFalse(todoReplicaSync.isCurrent());
+            RequestContextHolder.resetRequestAttributes();
+            assertTrue(todoReplicaSync.isCurrent());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+            release.countDown();
+            scheduler.shutdown();
+            doCallRealMethod().when(todoReplica).pull(anyLong(), anyInt());
+            replicaProperties.setMaxLag(maxLag);
+        }
+    }
+    
+    private JdbcTemplate primary() {
+        return new JdbcTemplate(primaryDataSource);
+    }
+    
+    private JdbcTemplate replica() {
+        return new JdbcTemplate(replicaDataSource);
+    }
+}
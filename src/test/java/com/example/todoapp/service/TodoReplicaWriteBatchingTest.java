@@ -0,0 +1,11 @@
+package com.example.todoapp.service;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * The embedded-replica tests with group commit on, where the write-batcher worker commits each
+ * write and pulls the replica: the writing caller must still read its own writes.
+ */
+@TestPropertySource(properties = "todo.write-batching.enabled=true")
+class TodoReplicaWriteBatchingTest extends TodoReplicaSyncTest {
+}
@@ -1,25 +1,50 @@
 package com.example.todoapp.service;
 
+import com.example.todoapp.dtos.BatchResultDTO;
+import com.example.todoapp.dtos.CleanupStatusDTO;
+import com.example.todoapp.dtos.CursorPage;
+import com.example.todoapp.dtos.TodoChangesDTO;
 import com.example.todoapp.dtos.TodoRequestDTO;
 import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.dtos.TodoUpdateItemDTO;
 import com.example.todoapp.models.Todo;
 import com.example.todoapp.models.TodoStatus;
+import com.example.todoapp.repository.TodoArchive;
+import com.example.todoapp.repository.TodoChangeLog;
+import com.example.todoapp.repository.TodoIdAllocator;
 import com.example.todoapp.repository.TodoRepository;
+import com.example.todoapp.repository.TodoRepository.IdAndStatus;
+import com.example.todoapp.repository.TodoSearchIndex;
+import com.example.todoapp.repository.TodoShards;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -29,6 +54,39 @@ class TodoServiceTest {
     @Mock
     private TodoRepository todoRepository;
     
+    @Mock
+    private TodoIdAllocator todoIdAllocator;
+    
+    @Mock
+    private TodoSearchIndex todoSearchIndex;
+    
+    @Mock
+    private TodoChangeLog todoChangeLog;
+    
+    @Mock
+    private TodoWriteBatcher todoWriteBatcher;
+    
+    @Mock
+    private TodoCache todoCache;
+    
+    @Mock
+    private TodoStatusCounters todoStatusCounters;
+    
+    @Mock
+    private TodoDueIndex todoDueIndex;
+    
+    @Mock
+    private TodoCleanupJob todoCleanupJob;
+    
+    @Mock
+    private TodoArchive todoArchive;
+    
+    @Spy
+    private TodoShards todoShards = TodoShards.unsharded();
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
     @InjectMocks
     private TodoServiceImpl todoService;
     
@@ -49,6 +107,13 @@ class TodoServiceTest {
         sampleRequest.setTitle("Test Todo");
         sampleRequest.setDescription("Test Description");
         sampleRequest.setStatus(TodoStatus.PENDING);
+        
+        // Run batched writes inline, as the batcher does when group commit is disabled
+        lenient().when(todoWriteBatcher.execute(any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(0).get());
+        // Always miss the cache
+        lenient().when(todoCache.get(anyLong(), any())).thenAnswer(invocation ->
+                invocation.<Function<Long, TodoResponseDTO>>getArgument(1).apply(invocation.getArgument(0)));
     }
     
     @Test
@@ -64,13 +129,15 @@ class TodoServiceTest {
         assertEquals(sampleTodo.getTitle(), result.getTitle());
         assertEquals(sampleTodo.getDescription(), result.getDescription());
         assertEquals(sampleTodo.getStatus(), result.getStatus());
+        verify(todoWriteBatcher).execute(any());
+        verify(todoIdAllocator).allocate(1);
         verify(todoRepository).save(any(Todo.class));
     }
     
     @Test
     void getTodoById_Success() {
         // Given
-        when(todoRepository.findById(1L)).thenReturn(Optional.of(sampleTodo));
+        when(todoRepository.findDtoById(1L)).thenReturn(Optional.of(new TodoResponseDTO(sampleTodo)));
         
         // When
         TodoResponseDTO result = todoService.getTodoById(1L);
@@ -79,33 +146,73 @@ class TodoServiceTest {
         assertNotNull(result);
         assertEquals(sampleTodo.getId(), result.getId());
         assertEquals(sampleTodo.getTitle(), result.getTitle());
-        verify(todoRepository).findById(1L);
+        verify(todoRepository).findDtoById(1L);
+        verify(todoRepository, never()).findById(anyLong());
     }
     
     @Test
     void getTodoById_NotFound() {
         // Given
-        when(todoRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(todoRepository.findDtoById(anyLong())).thenReturn(Optional.empty());
         
         // When & Then
         assertThrows(EntityNotFoundException.class, () -> todoService.getTodoById(1L));
-        verify(todoRepository).findById(1L);
+        verify(todoRepository).findDtoById(1L);
     }
     
     @Test
     void getAllTodos_Success() {
         // Given
-        List<Todo> todos = Arrays.asList(sampleTodo);
-        when(todoRepository.findAll()).thenReturn(todos);
+        List<TodoResponseDTO> todos = Arrays.asList(new TodoResponseDTO(sampleTodo));
+        when(todoRepository.findDtosAfter(0L, Limit.of(11))).thenReturn(todos);
         
         // When
-        List<TodoResponseDTO> result = todoService.getAllTodos();
+        CursorPage<TodoResponseDTO> result = todoService.getAllTodos(null, 10);
         
         // Then
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(sampleTodo.getTitle(), result.get(0).getTitle());
-        verify(todoRepository).findAll();
+        assertEquals(1, result.getItems().size());
+        assertEquals(sampleTodo.getTitle(), result.getItems().get(0).getTitle());
+        assertFalse(result.hasNext());
+        verify(todoRepository).findDtosAfter(0L, Limit.of(11));
+    }
+    
+    @Test
+    void getAllTodos_ReturnsCursorWhenMoreRowsExist() {
+        // Given
+        Todo second = new Todo("Second", null, TodoStatus.PENDING);
+        second.setId(2L);
+        Todo third = new Todo("Third", null, TodoStatus.PENDING);
+        third.setId(3L);
+        when(todoRepository.findDtosAfter(0L, Limit.of(3))).thenReturn(Arrays.asList(
+                new TodoResponseDTO(sampleTodo), new TodoResponseDTO(second), new TodoResponseDTO(third)));
+        
+        // When
+        CursorPage<TodoResponseDTO> result = todoService.getAllTodos(null, 2);
+        
+        // Then
+        assertEquals(2, result.getItems().size());
+        assertTrue(result.hasNext());
+        assertEquals(2L, TodoCursor.decode(result.getNextCursor()));
+    }
+    
+    @Test
+    void getAllTodos_ResumesAfterCursor() {
+        // Given
+        when(todoRepository.findDtosAfter(42L, Limit.of(11))).thenReturn(List.of());
+        
+        // When
+        CursorPage<TodoResponseDTO> result = todoService.getAllTodos(TodoCursor.encode(42L), 10);
+        
+        // Then
+        assertTrue(result.getItems().isEmpty());
+        assertFalse(result.hasNext());
+    }
+    
+    @Test
+    void getAllTodos_InvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> todoService.getAllTodos("not-a-cursor", 10));
+        verifyNoInteractions(todoRepository);
     }
     
     @Test
@@ -120,51 +227,401 @@ class TodoServiceTest {
         updateRequest.setStatus(TodoStatus.COMPLETED);
         
         // When
-        TodoResponseDTO result = todoService.updateTodo(1L, updateRequest);
+        TodoResponseDTO result = todoService.updateTodo(1L, updateRequest, null);
         
         // Then
         assertNotNull(result);
         verify(todoRepository).findById(1L);
         verify(todoRepository).save(any(Todo.class));
+        ArgumentCaptor<TodoChangedEvent> event = ArgumentCaptor.forClass(TodoChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(TodoChangedEvent.ChangeType.UPDATED, event.getValue().getType());
+        assertEquals("Test Todo", event.getValue().getPrevious().getTitle());
+        assertEquals("Updated Title", event.getValue().getCurrent().getTitle());
     }
     
     @Test
     void deleteTodo_Success() {
         // Given
-        when(todoRepository.existsById(1L)).thenReturn(true);
+        when(todoRepository.findById(1L)).thenReturn(Optional.of(sampleTodo));
         
         // When
-        todoService.deleteTodo(1L);
+        todoService.deleteTodo(1L, null);
         
         // Then
-        verify(todoRepository).existsById(1L);
-        verify(todoRepository).deleteById(1L);
+        verify(todoRepository).delete(sampleTodo);
+        ArgumentCaptor<TodoChangedEvent> event = ArgumentCaptor.forClass(TodoChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(TodoChangedEvent.ChangeType.DELETED, event.getValue().getType());
+        assertEquals(TodoStatus.PENDING, event.getValue().getPrevious().getStatus());
     }
     
     @Test
     void deleteTodo_NotFound() {
         // Given
-        when(todoRepository.existsById(anyLong())).thenReturn(false);
+        when(todoRepository.findById(anyLong())).thenReturn(Optional.empty());
         
         // When & Then
-        assertThrows(EntityNotFoundException.class, () -> todoService.deleteTodo(1L));
-        verify(todoRepository).existsById(1L);
-        verify(todoRepository, never()).deleteById(anyLong());
+        assertThrows(EntityNotFoundException.class, () -> todoService.deleteTodo(1L, null));
+        verify(todoRepository).findById(1L);
+        verify(todoRepository, never()).delete(any(Todo.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+    
+    @Test
+    void updateTodo_StaleVersionIsRejected() {
+        // Given
+        sampleTodo.setVersion(3L);
+        when(todoRepository.findById(1L)).thenReturn(Optional.of(sampleTodo));
+        
+        // When & Then
+        assertThrows(OptimisticLockingFailureException.class, () -> todoService.updateTodo(1L, sampleRequest, 2L));
+        assertThrows(OptimisticLockingFailureException.class, () -> todoService.deleteTodo(1L, 2L));
+        verify(todoRepository, never()).save(any(Todo.class));
+        verify(todoRepository, never()).delete(any(Todo.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+    
+    @Test
+    void updateTodo_MatchingVersionIsApplied() {
+        // Given
+        sampleTodo.setVersion(3L);
+        when(todoRepository.findById(1L)).thenReturn(Optional.of(sampleTodo));
+        when(todoRepository.save(any(Todo.class))).thenReturn(sampleTodo);
+        
+        // When
+        todoService.updateTodo(1L, sampleRequest, 3L);
+        
+        // Then
+        verify(todoRepository).save(sampleTodo);
+        verify(todoRepository).flush();
+    }
+    
+    @Test
+    void updateTodo_ListKeyCannotChange() {
+        // Given
+        when(todoRepository.findById(1L)).thenReturn(Optional.of(sampleTodo));
+        sampleRequest.setListKey("groceries");
+        
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> todoService.updateTodo(1L, sampleRequest, null));
+        verify(todoRepository, never()).save(any(Todo.class));
+        
+        // Repeating the todo's own list is fine
+        sampleRequest.setListKey(Todo.DEFAULT_LIST_KEY);
+        when(todoRepository.save(any(Todo.class))).thenReturn(sampleTodo);
+        todoService.updateTodo(1L, sampleRequest, null);
+        verify(todoRepository).save(sampleTodo);
+    }
+    
+    @Test
+    void getTodoVersion_PrefersTheCache() {
+        // Given
+        TodoResponseDTO cached = new TodoResponseDTO(sampleTodo);
+        cached.setVersion(7L);
+        when(todoCache.getIfPresent(1L)).thenReturn(cached);
+        when(todoRepository.findVersionById(2L)).thenReturn(Optional.of(4L));
+        when(todoRepository.findVersionById(3L)).thenReturn(Optional.empty());
+        
+        // When & Then
+        assertEquals(7L, todoService.getTodoVersion(1L));
+        assertEquals(4L, todoService.getTodoVersion(2L));
+        assertThrows(EntityNotFoundException.class, () -> todoService.getTodoVersion(3L));
+        verify(todoRepository, never()).findVersionById(1L);
+        verify(todoRepository, never()).findDtoById(anyLong());
     }
     
     @Test
     void getTodosByStatus_Success() {
         // Given
-        List<Todo> todos = Arrays.asList(sampleTodo);
-        when(todoRepository.findByStatus(TodoStatus.PENDING)).thenReturn(todos);
+        List<TodoResponseDTO> todos = Arrays.asList(new TodoResponseDTO(sampleTodo));
+        when(todoRepository.findDtosByStatusAfter(TodoStatus.PENDING, 0L, Limit.of(51))).thenReturn(todos);
         
         // When
-        List<TodoResponseDTO> result = todoService.getTodosByStatus(TodoStatus.PENDING);
+        CursorPage<TodoResponseDTO> result = todoService.getTodosByStatus(TodoStatus.PENDING, null, 50);
         
         // Then
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(TodoStatus.PENDING, result.get(0).getStatus());
-        verify(todoRepository).findByStatus(TodoStatus.PENDING);
+        assertEquals(1, result.getItems().size());
+        assertEquals(TodoStatus.PENDING, result.getItems().get(0).getStatus());
+        verify(todoRepository).findDtosByStatusAfter(TodoStatus.PENDING, 0L, Limit.of(51));
+    }
+    
+    @Test
+    void exportTodos_StreamsDtoRows() {
+        // Given
+        when(todoRepository.streamAllDtos()).thenReturn(Stream.of(new TodoResponseDTO(sampleTodo)));
+        List<TodoResponseDTO> exported = new ArrayList<>();
+        
+        // When
+        todoService.exportTodos(exported::add);
+        
+        // Then
+        assertEquals(1, exported.size());
+        assertEquals(sampleTodo.getTitle(), exported.get(0).getTitle());
+        verify(todoRepository, never()).findAll();
+    }
+    
+    @Test
+    void createTodos_AllocatesOneIdBlockAndSavesAll() {
+        // Given
+        when(todoIdAllocator.allocate(2)).thenReturn(100L);
+        when(todoRepository.saveAll(anyIterable())).thenAnswer(invocation -> invocation.getArgument(0));
+        TodoRequestDTO second = new TodoRequestDTO("Second", null, null, null);
+        
+        // When
+        BatchResultDTO result = todoService.createTodos(List.of(sampleRequest, second));
+        
+        // Then
+        assertEquals(2, result.getSucceeded());
+        assertEquals(0, result.getFailed());
+        assertEquals(100L, result.getResults().get(0).getId());
+        assertEquals(101L, result.getResults().get(1).getId());
+        assertEquals(201, result.getResults().get(1).getStatus());
+        assertEquals(TodoStatus.PENDING, result.getResults().get(1).getTodo().getStatus());
+        verify(todoIdAllocator).allocate(2);
+        verify(todoRepository, never()).save(any(Todo.class));
+    }
+    
+    @Test
+    void createTodos_RejectsOversizedBatch() {
+        List<TodoRequestDTO> requests = new ArrayList<>();
+        for (int i = 0; i <= 500; i++) {
+            requests.add(sampleRequest);
+        }
+        
+        assertThrows(IllegalArgumentException.class, () -> todoService.createTodos(requests));
+        verifyNoInteractions(todoRepository, todoIdAllocator);
+    }
+    
+    @Test
+    void updateTodos_ReportsMissingItems() {
+        // Given
+        when(todoRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(sampleTodo));
+        TodoUpdateItemDTO found = new TodoUpdateItemDTO(1L, "Updated", null, TodoStatus.COMPLETED, null);
+        TodoUpdateItemDTO missing = new TodoUpdateItemDTO(2L, "Missing", null, null, null);
+        
+        // When
+        BatchResultDTO result = todoService.updateTodos(List.of(found, missing));
+        
+        // Then
+        assertEquals(1, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertEquals("Updated", result.getResults().get(0).getTodo().getTitle());
+        assertEquals(TodoStatus.COMPLETED, sampleTodo.getStatus());
+        assertEquals(404, result.getResults().get(1).getStatus());
+        verify(todoRepository).flush();
+    }
+    
+    @Test
+    void deleteTodos_DeletesExistingIdsInOneStatement() {
+        // Given
+        when(todoRepository.findStatusesByIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of(idAndStatus(1L, TodoStatus.COMPLETED)));
+        
+        // When
+        BatchResultDTO result = todoService.deleteTodos(List.of(1L, 2L));
+        
+        // Then
+        assertEquals(1, result.getSucceeded());
+        assertEquals(404, result.getResults().get(1).getStatus());
+        verify(todoRepository).deleteAllByIdInBatch(Set.of(1L));
+        verify(todoRepository, never()).deleteById(anyLong());
+        ArgumentCaptor<TodoChangedEvent> event = ArgumentCaptor.forClass(TodoChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(TodoStatus.COMPLETED, event.getValue().getPrevious().getStatus());
+    }
+    
+    @Test
+    void countTodosByStatus_ReadsCounters() {
+        // Given
+        when(todoStatusCounters.get(TodoStatus.PENDING)).thenReturn(3L);
+        
+        // When
+        long count = todoService.countTodosByStatus(TodoStatus.PENDING);
+        
+        // Then
+        assertEquals(3L, count);
+        verifyNoInteractions(todoRepository);
+    }
+    
+    @Test
+    void searchTodos_UsesFullTextIndexInRankOrder() {
+        // Given
+        Todo second = new Todo("Second", null, TodoStatus.PENDING);
+        second.setId(2L);
+        when(todoSearchIndex.isAvailable()).thenReturn(true);
+        when(todoSearchIndex.search("\"spring\"* \"boot\"*", 0, 2)).thenReturn(List.of(2L, 1L));
+        when(todoRepository.findDtosByIdIn(List.of(2L))).thenReturn(List.of(new TodoResponseDTO(second)));
+        
+        // When
+        CursorPage<TodoResponseDTO> result = todoService.searchTodos("Spring boot", null, 1);
+        
+        // Then
+        assertEquals(1, result.getItems().size());
+        assertEquals("Second", result.getItems().get(0).getTitle());
+        assertEquals(TodoCursor.encodeOffset(1), result.getNextCursor());
+        verify(todoRepository, never()).findDtosByTitleContainingAfter(any(), anyLong(), any());
+    }
+    
+    @Test
+    void searchTodos_FallsBackToLikeWithoutFullTextIndex() {
+        // Given
+        when(todoSearchIndex.isAvailable()).thenReturn(false);
+        when(todoRepository.findDtosByTitleContainingAfter("Test", 0L, Limit.of(51)))
+                .thenReturn(List.of(new TodoResponseDTO(sampleTodo)));
+        
+        // When
+        CursorPage<TodoResponseDTO> result = todoService.searchTodos("Test", null, 50);
+        
+        // Then
+        assertEquals(1, result.getItems().size());
+        verify(todoSearchIndex, never()).search(any(), anyInt(), anyInt());
+    }
+    
+    @Test
+    void getChangesSince_SplitsUpsertsAndTombstones() {
+        // Given
+        when(todoChangeLog.findSince(10L, 3)).thenReturn(List.of(
+                new TodoChangeLog.Change(11L, 1L, false),
+                new TodoChangeLog.Change(12L, 7L, true),
+                new TodoChangeLog.Change(13L, 8L, false)));
+        when(todoRepository.findDtosByIdIn(List.of(1L))).thenReturn(List.of(new TodoResponseDTO(sampleTodo)));
+        
+        // When
+        TodoChangesDTO result = todoService.getChangesSince(10L, 2);
+        
+        // Then
+        assertEquals(1, result.getUpserted().size());
+        assertEquals(List.of(7L), result.getDeleted());
+        assertEquals(12L, result.getVersion());
+        assertTrue(result.isHasMore());
+    }
+    
+    @Test
+    void getChangesSince_NothingNewKeepsVersion() {
+        // Given
+        when(todoChangeLog.findSince(42L, 501)).thenReturn(List.of());
+        
+        // When
+        TodoChangesDTO result = todoService.getChangesSince(42L, 500);
+        
+        // Then
+        assertTrue(result.getUpserted().isEmpty());
+        assertEquals(42L, result.getVersion());
+        assertFalse(result.isHasMore());
+    }
+    
+    @Test
+    void getTodosDueAfter_PagesThroughDueIndex() {
+        // Given
+        LocalDateTime date = LocalDateTime.of(2030, 1, 1, 0, 0);
+        TodoResponseDTO first = new TodoResponseDTO(sampleTodo);
+        first.setDueDate(date.plusHours(1));
+        TodoResponseDTO second = new TodoResponseDTO(sampleTodo);
+        second.setId(2L);
+        second.setDueDate(date.plusHours(2));
+        when(todoDueIndex.range(TodoDueIndex.DueKey.last(date), null, 2)).thenReturn(List.of(first, second));
+        
+        // When
+        CursorPage<TodoResponseDTO> result = todoService.getTodosDueAfter(date, null, 1);
+        
+        // Then
+        assertEquals(List.of(first), result.getItems());
+        assertEquals(TodoDueIndex.DueKey.of(first), TodoCursor.decodeDue(result.getNextCursor()));
+        verifyNoInteractions(todoRepository);
+    }
+    
+    @Test
+    void getTodosDueSoon_RejectsNegativeWindow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> todoService.getTodosDueSoon(Duration.ofMinutes(-1), null, 10));
+    }
+    
+    @Test
+    void getTodosByIds_KeepsRequestOrder() {
+        // Given
+        Todo second = new Todo("Second", null, TodoStatus.PENDING);
+        second.setId(2L);
+        when(todoRepository.findDtosByIdIn(anyList()))
+                .thenReturn(List.of(new TodoResponseDTO(sampleTodo), new TodoResponseDTO(second)));
+        
+        // When
+        List<TodoResponseDTO> result = todoService.getTodosByIds(List.of(2L, 3L, 1L));
+        
+        // Then
+        assertEquals(2, result.size());
+        assertEquals(2L, result.get(0).getId());
+        assertEquals(1L, result.get(1).getId());
+    }
+    
+    @Test
+    void deleteCompletedTodosOlderThan_StartsCleanupJob() {
+        // Given
+        LocalDateTime before = LocalDateTime.of(2024, 1, 1, 0, 0);
+        CleanupStatusDTO running = new CleanupStatusDTO(CleanupStatusDTO.State.RUNNING, TodoStatus.COMPLETED,
+                before, LocalDateTime.now(), null, 10, 0, 0, null);
+        when(todoCleanupJob.start(before)).thenReturn(running);
+        
+        // When
+        CleanupStatusDTO result = todoService.deleteCompletedTodosOlderThan(before);
+        
+        // Then
+        assertSame(running, result);
+        verifyNoInteractions(todoRepository);
+    }
+    
+    @Test
+    void getTodoByIdIncludingArchived_FallsBackToArchive() {
+        // Given
+        TodoResponseDTO archived = new TodoResponseDTO(sampleTodo);
+        when(todoRepository.findDtoById(1L)).thenReturn(Optional.empty());
+        when(todoArchive.findById(1L)).thenReturn(Optional.of(archived));
+        
+        // When
+        TodoResponseDTO result = todoService.getTodoByIdIncludingArchived(1L);
+        
+        // Then
+        assertSame(archived, result);
+    }
+    
+    @Test
+    void getTodoByIdIncludingArchived_NotFoundAnywhere() {
+        // Given
+        when(todoRepository.findDtoById(2L)).thenReturn(Optional.empty());
+        when(todoArchive.findById(2L)).thenReturn(Optional.empty());
+        
+        // When & Then
+        assertThrows(EntityNotFoundException.class, () -> todoService.getTodoByIdIncludingArchived(2L));
+    }
+    
+    @Test
+    void getTodosIncludingArchived_MergesByIdAcrossBothTiers() {
+        // Given
+        when(todoRepository.findDtosByStatusAfter(TodoStatus.COMPLETED, 0L, Limit.of(3)))
+                .thenReturn(List.of(dto(2L), dto(5L)));
+        when(todoArchive.find(TodoStatus.COMPLETED, null, null, 0L, 3))
+                .thenReturn(List.of(dto(1L), dto(3L), dto(4L)));
+        
+        // When
+        CursorPage<TodoResponseDTO> result = todoService.getTodosIncludingArchived(TodoStatus.COMPLETED, null, 2);
+        
+        // Then
+        assertEquals(List.of(1L, 2L), result.getItems().stream().map(TodoResponseDTO::getId).toList());
+        assertEquals(2L, TodoCursor.decode(result.getNextCursor()));
+    }
+    
+    private static TodoResponseDTO dto(Long id) {
+        return new TodoResponseDTO(id, "Todo " + id, null, TodoStatus.COMPLETED, null, null, null, 0L);
+    }
+    
+    private static IdAndStatus idAndStatus(Long id, TodoStatus status) {
+        return new IdAndStatus() {
+            @Override
+            public Long getId() { return id; }
+            
+            @Override
+            public TodoStatus getStatus() { return status; }
+        };
     }
 }
@@ -0,0 +1,156 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.config.ShardRoutingDataSource;
+import com.example.todoapp.dtos.BatchResultDTO;
+import com.example.todoapp.dtos.CursorPage;
+import com.example.todoapp.dtos.TodoChangesDTO;
+import com.example.todoapp.dtos.TodoRequestDTO;
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.dtos.TodoUpdateItemDTO;
+import com.example.todoapp.models.TodoStatus;
+import com.example.todoapp.repository.TodoShards;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sharded storage over two SQLite files in a temporary directory. Lists "a" and "b" hash to
+ * different shards, so every test touches both.
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "todo.sharding.count=2"})
+class TodoShardingTest {
+    
+    @Autowired
+    private TodoService todoService;
+    
+    @Autowired
+    private TodoShards todoShards;
+    
+    @Autowired
+    private ShardRoutingDataSource shardRoutingDataSource;
+    
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("todo-shards");
+        directory.toFile().deleteOnExit();
+        registry.add("todo.sharding.path", () -> directory.resolve("todo-shard-{shard}.db").toString());
+    }
+    
+    @Test
+    void create_StoresTheTodoOnItsListsShard() {
+        // Given
+        assertEquals(2, todoShards.count());
+        assertNotEquals(todoShards.shardOf("a"), todoShards.shardOf("b"));
+        
+        // When
+        TodoResponseDTO inA = todoService.createTodo(inList("a", "In a", TodoStatus.PENDING));
+        TodoResponseDTO inB = todoService.createTodo(inList("b", "In b", TodoStatus.PENDING));
+        
+        // Then: each file holds its own todo only, and the id names the shard
+        int shardA = todoShards.shardOf("a");
+        int shardB = todoShards.shardOf("b");
+        assertEquals(shardA, todoShards.shardOfId(inA.getId()));
+        assertEquals(shardB, todoShards.shardOfId(inB.getId()));
+        assertEquals(1, countInShard(shardA, inA.getId()));
+        assertEquals(0, countInShard(shardB, inA.getId()));
+        assertEquals(1, countInShard(shardB, inB.getId()));
+        assertEquals(0, countInShard(shardA, inB.getId()));
+        assertEquals("In a", todoService.getTodoById(inA.getId()).getTitle());
+        assertEquals("In b", todoService.getTodoById(inB.getId()).getTitle());
+        // The list, and so the shard, is visible to clients
+        assertEquals("a", inA.getListKey());
+        assertEquals("b", todoService.getTodoById(inB.getId()).getListKey());
+    }
+    
+    @Test
+    void crossShardQueries_MergeTheShardsInIdOrder() {
+        // Given
+        long before = todoService.countTodosByStatus(TodoStatus.IN_PROGRESS);
+        List<Long> ids = List.of(
+                todoService.createTodo(inList("a", "First", TodoStatus.IN_PROGRESS)).getId(),
+                todoService.createTodo(inList("b", "Second", TodoStatus.IN_PROGRESS)).getId(),
+                todoService.createTodo(inList("a", "Third", TodoStatus.IN_PROGRESS)).getId());
+        
+        // When
+        CursorPage<TodoResponseDTO> first = todoService.getTodosByStatus(TodoStatus.IN_PROGRESS, null, 2);
+        CursorPage<TodoResponseDTO> rest = todoService.getTodosByStatus(TodoStatus.IN_PROGRESS,
+                first.getNextCursor(), 500);
+        
+        // Then
+        List<Long> seen = new ArrayList<>();
+        first.getItems().forEach(todo -> seen.add(todo.getId()));
+        rest.getItems().forEach(todo -> seen.add(todo.getId()));
+        assertEquals(seen.stream().sorted().toList(), seen);
+        assertTrue(seen.containsAll(ids));
+        assertEquals(before + 3, todoService.countTodosByStatus(TodoStatus.IN_PROGRESS));
+        assertEquals(ids, todoService.getTodosByIds(ids).stream().map(TodoResponseDTO::getId).toList());
+    }
+    
+    @Test
+    void listQueries_StayOnOneShard() {
+        // Given
+        TodoResponseDTO inA = todoService.createTodo(inList("a", "Listed", TodoStatus.PENDING));
+        todoService.createTodo(inList("b", "Elsewhere", TodoStatus.PENDING));
+        
+        // When
+        CursorPage<TodoResponseDTO> page = todoService.getTodosInList("a", null, 500);
+        TodoChangesDTO changes = todoService.getChangesSince("a", 0, 500);
+        
+        // Then
+        assertTrue(page.getItems().stream().anyMatch(todo -> todo.getId().equals(inA.getId())));
+        assertTrue(page.getItems().stream().allMatch(todo -> todoShards.shardOfId(todo.getId()) == todoShards.shardOf("a")));
+        assertTrue(changes.getUpserted().stream().anyMatch(todo -> todo.getId().equals(inA.getId())));
+        assertTrue(changes.getUpserted().stream().noneMatch(todo -> todo.getTitle().equals("Elsewhere")));
+        assertThrows(IllegalArgumentException.class, () -> todoService.getChangesSince(0, 500));
+    }
+    
+    @Test
+    void batchUpdate_SpansShardsAndKeepsTheRequestOrder() {
+        // Given
+        TodoResponseDTO inA = todoService.createTodo(inList("a", "Batch a", TodoStatus.PENDING));
+        TodoResponseDTO inB = todoService.createTodo(inList("b", "Batch b", TodoStatus.PENDING));
+        TodoUpdateItemDTO moveToA = updateItem(inB.getId(), "Moved", "a");
+        
+        // When
+        BatchResultDTO result = todoService.updateTodos(List.of(
+                updateItem(inB.getId(), "Batch b done", null), updateItem(inA.getId(), "Batch a done", null), moveToA));
+        
+        // Then
+        assertEquals(200, result.getResults().get(0).getStatus());
+        assertEquals(200, result.getResults().get(1).getStatus());
+        assertEquals(400, result.getResults().get(2).getStatus());
+        assertEquals("Batch a done", todoService.getTodoById(inA.getId()).getTitle());
+        assertEquals("Batch b done", todoService.getTodoById(inB.getId()).getTitle());
+    }
+    
+    private static TodoRequestDTO inList(String listKey, String title, TodoStatus status) {
+        TodoRequestDTO request = new TodoRequestDTO(title, null, status, null);
+        request.setListKey(listKey);
+        return request;
+    }
+    
+    private static TodoUpdateItemDTO updateItem(Long id, String title, String listKey) {
+        TodoUpdateItemDTO item = new TodoUpdateItemDTO();
+        item.setId(id);
+        item.setTitle(title);
+        item.setStatus(TodoStatus.COMPLETED);
+        item.setListKey(listKey);
+        return item;
+    }
+    
+    private int countInShard(int shard, Long id) {
+        return new JdbcTemplate(shardRoutingDataSource.getShards().get(shard))
+                .queryForObject("SELECT COUNT(*) FROM todos WHERE id = ?", Integer.class, id);
+    }
+}
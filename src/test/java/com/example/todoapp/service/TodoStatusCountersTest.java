@@ -0,0 +1,138 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.dtos.TodoResponseDTO;
+import com.example.todoapp.models.TodoStatus;
+import com.example.todoapp.repository.TodoRepository;
+import com.example.todoapp.repository.TodoRepository.StatusCount;
+import com.example.todoapp.repository.TodoShards;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TodoStatusCountersTest {
+    
+    private final TodoRepository todoRepository = mock(TodoRepository.class);
+    private TodoStatusCounters counters;
+    
+    @BeforeEach
+    void setUp() {
+        when(todoRepository.countGroupedByStatus()).thenReturn(List.of(
+                statusCount(TodoStatus.PENDING, 3), statusCount(TodoStatus.COMPLETED, 2)));
+        counters = new TodoStatusCounters(todoRepository, TodoShards.unsharded());
+        counters.initialize();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+    
+    @Test
+    void initialize_SeedsFromGroupedCount() {
+        assertEquals(3, counters.get(TodoStatus.PENDING));
+        assertEquals(0, counters.get(TodoStatus.IN_PROGRESS));
+        assertEquals(2, counters.get(TodoStatus.COMPLETED));
+        assertEquals(4, counters.snapshot().size());
+    }
+    
+    @Test
+    void onTodoChanged_AppliesDeltaOnlyAfterCommit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        
+        // When
+        counters.onTodoChanged(TodoChangedEvent.created(todo(1L, TodoStatus.PENDING)));
+        counters.onTodoChanged(TodoChangedEvent.updated(todo(2L, TodoStatus.PENDING), todo(2L, TodoStatus.COMPLETED)));
+        
+        // Then
+        assertEquals(3, counters.get(TodoStatus.PENDING));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(3, counters.get(TodoStatus.PENDING));
+        assertEquals(3, counters.get(TodoStatus.COMPLETED));
+    }
+    
+    @Test
+    void onTodoChanged_IgnoresRolledBackTransaction() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        
+        // When
+        counters.onTodoChanged(TodoChangedEvent.deleted(1L, todo(1L, TodoStatus.PENDING)));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        
+        // Then
+        assertEquals(3, counters.get(TodoStatus.PENDING));
+    }
+    
+    @Test
+    void onTodosPurged_SubtractsDeletedCount() {
+        // When
+        counters.onTodosPurged(new TodosPurgedEvent(TodoStatus.COMPLETED, LocalDateTime.now(), 2));
+        
+        // Then
+        assertEquals(0, counters.get(TodoStatus.COMPLETED));
+    }
+    
+    @Test
+    void reconcile_CorrectsDrift() {
+        // Given
+        when(todoRepository.countGroupedByStatus()).thenReturn(List.of(statusCount(TodoStatus.CANCELLED, 7)));
+        
+        // When
+        counters.reconcile();
+        
+        // Then
+        assertEquals(0, counters.get(TodoStatus.PENDING));
+        assertEquals(7, counters.get(TodoStatus.CANCELLED));
+    }
+    
+    @Test
+    void reconcile_SkippedWhileTransactionIsCommitting() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        counters.onTodoChanged(TodoChangedEvent.created(todo(1L, TodoStatus.PENDING)));
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+        when(todoRepository.countGroupedByStatus()).thenReturn(List.of(statusCount(TodoStatus.PENDING, 4)));
+        
+        // When
+        counters.reconcile();
+        
+        // Then
+        assertEquals(3, counters.get(TodoStatus.PENDING));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(4, counters.get(TodoStatus.PENDING));
+    }
+    
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(sync -> sync.afterCompletion(status));
+    }
+    
+    private static TodoResponseDTO todo(Long id, TodoStatus status) {
+        TodoResponseDTO todo = new TodoResponseDTO();
+        todo.setId(id);
+        todo.setStatus(status);
+        return todo;
+    }
+    
+    private static StatusCount statusCount(TodoStatus status, long count) {
+        return new StatusCount() {
+            @Override
+            public TodoStatus getStatus() { return status; }
+            
+            @Override
+            public long getCount() { return count; }
+        };
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.config.WriteBatchingProperties;
+import com.example.todoapp.repository.TodoShards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class TodoWriteBatcherTest {
+    
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+    private TodoWriteBatcher batcher;
+    
+    @AfterEach
+    void tearDown() throws Exception {
+        callers.shutdownNow();
+        if (batcher != null) {
+            batcher.destroy();
+        }
+    }
+    
+    @Test
+    void disabled_RunsEachWriteInItsOwnTransaction() {
+        // Given
+        batcher = new TodoWriteBatcher(transactionManager, new WriteBatchingProperties(), TodoShards.unsharded(), meterRegistry);
+        
+        // When
+        String result = batcher.execute(() -> "done");
+        
+        // Then
+        assertEquals("done", result);
+        verify(transactionManager).commit(any());
+        assertEquals(0, meterRegistry.get("todo.write.batch.size").summary().count());
+    }
+    
+    @Test
+    void enabled_CoalescesConcurrentWritesIntoOneCommit() throws Exception {
+        // Given
+        batcher = new TodoWriteBatcher(transactionManager, enabled(Duration.ofMillis(200)), TodoShards.unsharded(), meterRegistry);
+        
+        // When
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int value = i;
+            results.add(callers.submit(() -> batcher.execute(() -> value)));
+        }
+        
+        // Then
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, results.get(i).get());
+        }
+        verify(transactionManager, times(1)).commit(any());
+        assertEquals(5, meterRegistry.get("todo.write.batch.size").summary().totalAmount());
+        assertEquals(5, meterRegistry.get("todo.write.batch.wait").timer().count());
+    }
+    
+    @Test
+    void enabled_FailingWriteDoesNotFailItsNeighbours() throws Exception {
+        // Given
+        batcher = new TodoWriteBatcher(transactionManager, enabled(Duration.ofMillis(200)), TodoShards.unsharded(), meterRegistry);
+        
+        // When
+        CompletableFuture<String> ok = CompletableFuture.supplyAsync(() -> batcher.execute(() -> "ok"), callers);
+        CompletableFuture<String> missing = CompletableFuture.supplyAsync(() -> batcher.execute(() -> {
+            throw new EntityNotFoundException("Todo not found with id: 7");
+        }), callers);
+        
+        // Then
+        assertEquals("ok", ok.get());
+        Exception ex = assertThrows(Exception.class, missing::get);
+        assertInstanceOf(EntityNotFoundException.class, ex.getCause());
+    }
+    
+    @Test
+    void enabled_FailedCommitIsRetriedPerWrite() throws Exception {
+        // Given: the shared commit fails once, the individual retries succeed
+        doThrow(new TransactionSystemException("disk I/O error")).doNothing().when(transactionManager).commit(any());
+        batcher = new TodoWriteBatcher(transactionManager, enabled(Duration.ofMillis(200)), TodoShards.unsharded(), meterRegistry);
+        
+        // When
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> batcher.execute(() -> "a"), callers);
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> batcher.execute(() -> "b"), callers);
+        
+        // Then
+        assertEquals("a", first.get());
+        assertEquals("b", second.get());
+        verify(transactionManager, times(3)).commit(any());
+    }
+    
+    @Test
+    void enabled_HandsAnUnpulledCommitBackToTheCaller() throws Exception {
+        // Given: the worker's replica pull timed out after the commit
+        TodoReplicaSync replicaSync = mock(TodoReplicaSync.class);
+        when(replicaSync.takeUncovered()).thenAnswer(invocation ->
+                Thread.currentThread().getName().startsWith("todo-write-batcher") ? 7L : null);
+        List<String> readingThreads = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> readingThreads.add(Thread.currentThread().getName()))
+                .when(replicaSync).readFromPrimaryUntilCovered(anyLong());
+        batcher = new TodoWriteBatcher(transactionManager, enabled(Duration.ofMillis(10)), TodoShards.unsharded(),
+                () -> replicaSync, meterRegistry);
+        
+        // When
+        String caller = callers.submit(() -> {
+            batcher.execute(() -> "written");
+            return Thread.currentThread().getName();
+        }).get();
+        
+        // Then: the caller's reads, not the worker's, wait for that commit
+        assertEquals(List.of(caller), readingThreads);
+        verify(replicaSync).readFromPrimaryUntilCovered(7L);
+    }
+    
+    private static WriteBatchingProperties enabled(Duration window) {
+        WriteBatchingProperties properties = new WriteBatchingProperties();
+        properties.setEnabled(true);
+        properties.setWindow(window);
+        return properties;
+    }
+}